@@ -3,9 +3,11 @@ package addRestaurant;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.netflix.eureka.EnableEurekaClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableEurekaClient // Enables the application to act as a Eureka client for service registration and discovery
-@SpringBootApplication // Indicates that this class is the entry point of the Spring Boot application
+@SpringBootApplication(scanBasePackages = {"addRestaurant", "outbox", "idempotency"}) // Entry point of the Spring Boot application; also picks up the shared outbox relay and idempotency store
+@EnableScheduling // Runs the OutboxRelay that publishes saved events
 public class AddRestaurant {
     public static void main(String[] args) {
         SpringApplication.run(AddRestaurant.class, args);
@@ -6,12 +6,14 @@ import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import outbox.OutboxTableNameResolver;
 
 @Data
 @Configuration
@@ -31,6 +33,10 @@ public class DynamoDBConfig {
     @Value("${amazon.aws.secretkey}")
     private String dynamodbSecretKey;
 
+    // Table the OutboxEvents of this service are written to
+    @Value("${outbox.table}")
+    private String outboxTable;
+
 
     /**
      * Creates a bean for the DynamoDBMapper.
@@ -39,7 +45,10 @@ public class DynamoDBConfig {
      */
     @Bean
     public DynamoDBMapper dynamoDBMapper() {
-        return new DynamoDBMapper(buildAmazonDynamoDB());
+        DynamoDBMapperConfig mapperConfig = DynamoDBMapperConfig.builder()
+                .withTableNameResolver(new OutboxTableNameResolver(outboxTable))
+                .build();
+        return new DynamoDBMapper(buildAmazonDynamoDB(), mapperConfig);
     }
 
     /**
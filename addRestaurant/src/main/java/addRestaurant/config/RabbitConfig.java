@@ -0,0 +1,37 @@
+package addRestaurant.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import model.codec.MessageCodec;
+import model.events.RestaurantEvents;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitConfig {
+
+    /**
+     * Creates the codec for command payloads from the shared model module.
+     *
+     * @param objectMapper The application's ObjectMapper, used when the codec is json.
+     * @param codec        The messaging.codec setting, cbor or json.
+     * @return The MessageCodec object.
+     */
+    @Bean
+    public MessageCodec messageCodec(ObjectMapper objectMapper, @Value("${messaging.codec:cbor}") String codec) {
+        return new MessageCodec(objectMapper, codec);
+    }
+
+    /**
+     * Declares the topic exchange restaurant events are published to. Consumers declare and bind
+     * their own queues; until they have, OutboxRelay gets its mandatory events returned and keeps
+     * them in the outbox.
+     *
+     * @return The TopicExchange object.
+     */
+    @Bean
+    public TopicExchange restaurantEventsExchange() {
+        return new TopicExchange(RestaurantEvents.EXCHANGE);
+    }
+}
@@ -1,28 +1,30 @@
 package addRestaurant.controller;
 
-import addRestaurant.model.Menu;
-import addRestaurant.model.MenuList;
-import addRestaurant.model.Restaurant;
-import addRestaurant.model.AddRestaurantCommand;
+import outbox.OutboxEvent;
+import model.Restaurant;
+import model.RestaurantMapper;
+import model.AddRestaurantCommand;
+import idempotency.IdempotencyStore;
 import addRestaurant.repository.RestaurantRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.amqp.core.Message;
-import org.springframework.amqp.core.MessageBuilder;
-import org.springframework.amqp.core.MessageProperties;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import addRestaurant.service.BulkRestaurantImporter;
+import addRestaurant.util.MenuValidator;
+import model.codec.MessageCodec;
+import model.events.RestaurantEvents;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/food/api/v1/admin")
@@ -31,99 +33,82 @@ public class AddRestaurantController {
     private static final Logger LOGGER = LoggerFactory.getLogger(AddRestaurantController.class);
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private MessageCodec messageCodec;
 
     @Autowired
     private RestaurantRepository restaurantRepository;
 
-    public void setObjectMapper(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private BulkRestaurantImporter bulkRestaurantImporter;
+
+    public void setMessageCodec(MessageCodec messageCodec) {
+        this.messageCodec = messageCodec;
     }
 
     public void setRestaurantRepository(RestaurantRepository restaurantRepository) {
         this.restaurantRepository = restaurantRepository;
     }
 
-    private final RabbitTemplate rabbitTemplate;
+    public void setIdempotencyStore(IdempotencyStore idempotencyStore) {
+        this.idempotencyStore = idempotencyStore;
+    }
 
-    public AddRestaurantController(final RabbitTemplate rabbitTemplate) {
-        this.rabbitTemplate = rabbitTemplate;
+    public void setBulkRestaurantImporter(BulkRestaurantImporter bulkRestaurantImporter) {
+        this.bulkRestaurantImporter = bulkRestaurantImporter;
     }
 
     /**
-     * Adds a new restaurant with menu details.
+     * Adds a new restaurant with menu details. A request repeating an earlier Idempotency-Key gets the
+     * recorded response of the first request without saving again, or 422 if its body differs.
      *
      * @param restaurantRequest The Restaurant object to be added.
+     * @param idempotencyKey    Optional client-generated key identifying retries of the same request.
      * @return ResponseEntity with success message if the restaurant is added successfully, or error message if validation or database error occurs.
      */
     @PostMapping("/add-restaurant")
-    public ResponseEntity<String> addRestaurant(@RequestBody AddRestaurantCommand restaurantRequest) {
-        try {
-            // Check if the restaurant already exists
-            Restaurant existingRestaurant = restaurantRepository.getRestaurantByName(restaurantRequest.getRestaurantName());
+    public ResponseEntity<String> addRestaurant(@RequestBody AddRestaurantCommand restaurantRequest,
+                                                @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isEmpty() || idempotencyStore == null) {
+            return addRestaurant(restaurantRequest);
+        }
+        return idempotencyStore.execute("add-restaurant", idempotencyKey, IdempotencyStore.hashOf(restaurantRequest),
+                () -> addRestaurant(restaurantRequest));
+    }
 
+    /**
+     * Adds a new restaurant with menu details.
+     *
+     * @param restaurantRequest The Restaurant object to be added.
+     * @return ResponseEntity with success message if the restaurant is added successfully, or error message if validation or database error occurs.
+     */
+    public ResponseEntity<String> addRestaurant(AddRestaurantCommand restaurantRequest) {
+        try {
             LOGGER.info("Adding restaurant: {}", restaurantRequest.getRestaurantName());
 
-            if (existingRestaurant != null) {
-                LOGGER.warn("Restaurant already exists: {}", restaurantRequest.getRestaurantName());
-                return ResponseEntity.badRequest().body("Restaurant already exists");
-            }
-
-            MenuList menuList = restaurantRequest.getMenuList();
-
-            List<Menu> items = menuList.getItems();
-            Pattern pattern = Pattern.compile("\\d+(\\.\\d+)?");
-
             // Validate the menu items
-            for (Menu menu : items) {
-                LOGGER.info("Validating item: {}", menu.getItemName());
-                Matcher matcher = pattern.matcher(menu.getPrice());
-                // Validate the price
-                if (!matcher.matches()) {
-                    LOGGER.warn("Non-numeric price: {} for item: {}", menu.getPrice(), menu.getItemName());
-                    return ResponseEntity.badRequest().body("Price " + menu.getPrice() + " of item " + menu.getItemName() + " is non-numeric");
-                }
-
-                if (!isValidValue(String.valueOf(menu.getItemName()))) {
-                    LOGGER.warn("Invalid item name: {}", menu.getItemName());
-                    return ResponseEntity.badRequest().body("Item name " + menu.getItemName() + " is invalid");
-                }
-                double price = Double.parseDouble(menu.getPrice());
-                if (price < 100 || price > 200) {
-                    LOGGER.warn("Invalid price range: {} for item: {}", menu.getPrice(), menu.getItemName());
-                    return ResponseEntity.badRequest().body("Price " + menu.getPrice() + " of item " + menu.getItemName() + " is outside allowed range 100-200");
-                }
-
-                // Validate the ratings
-                matcher = pattern.matcher(menu.getRatings());
-                if (!matcher.matches()) {
-                    LOGGER.warn("Non-numeric rating: {} for item: {}", menu.getRatings(), menu.getItemName());
-                    return ResponseEntity.badRequest().body("Rating " + menu.getRatings() + " of item " + menu.getItemName() + " is non-numeric");
-                }
-
-                double rating = Double.parseDouble(menu.getRatings());
-                if (rating < 1 || rating > 10) {
-                    LOGGER.warn("Invalid rating range: {} for item: {}", menu.getRatings(), menu.getItemName());
-                    return ResponseEntity.badRequest().body("Rating " + menu.getRatings() + " of item " + menu.getItemName() + " is outside allowed range 1-10");
-                }
+            String validationError = MenuValidator.validate(restaurantRequest.getMenuList());
+            if (validationError != null) {
+                return ResponseEntity.badRequest().body(validationError);
             }
 
-            // Save the restaurant to the database
-            Restaurant restaurant = new Restaurant();
-            restaurant.setRestaurantName(restaurantRequest.getRestaurantName());
-            restaurant.setAddress(restaurantRequest.getAddress());
-            restaurant.setMenuList(restaurantRequest.getMenuList());
-            restaurant.setCreatedAt(String.valueOf(LocalDateTime.now()));
-
-            restaurantRepository.saveRestaurant(restaurant);
+            // Insert the restaurant and its restaurant.added event in one transaction; the
+            // versioned put fails if the restaurant already exists. OutboxRelay publishes the event.
+            restaurantRequest.setVersion(1L);
+            OutboxEvent outboxEvent = OutboxEvent.of(restaurantRequest.getRestaurantName(), RestaurantEvents.EXCHANGE,
+                    RestaurantEvents.RESTAURANT_ADDED, messageCodec.getContentType(), messageCodec.encode(restaurantRequest));
 
+            Restaurant restaurant = RestaurantMapper.toRestaurant(restaurantRequest);
+            restaurant.setCreatedAt(String.valueOf(LocalDateTime.now()));
 
-            String restaurantJson = objectMapper.writeValueAsString(restaurantRequest);
-            Message message = MessageBuilder
-                    .withBody(restaurantJson.getBytes())
-                    .setContentType(MessageProperties.CONTENT_TYPE_JSON)
-                    .build();
-            this.rabbitTemplate.convertAndSend("addrestaurant-command", message);
+            try {
+                restaurantRepository.saveRestaurantIfAbsent(restaurant, outboxEvent);
+            } catch (ConditionalCheckFailedException e) {
+                LOGGER.warn("Restaurant already exists: {}", restaurantRequest.getRestaurantName());
+                return ResponseEntity.badRequest().body("Restaurant already exists");
+            }
 
             LOGGER.info("Restaurant saved successfully: {}", restaurantRequest.getRestaurantName());
 
@@ -134,6 +119,23 @@ public class AddRestaurantController {
         }
     }
 
+    /**
+     * Adds restaurants from an NDJSON upload with one AddRestaurantCommand per line. The body is read
+     * incrementally and one result line per input line is streamed back as the restaurants are saved.
+     *
+     * @param request  The request whose body is the NDJSON upload.
+     * @param response The response the NDJSON results are streamed to.
+     * @throws IOException if reading the upload or writing the results fails.
+     */
+    @PostMapping(value = "/add-restaurant/bulk", consumes = "application/x-ndjson")
+    public void addRestaurants(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        LOGGER.info("Starting bulk restaurant import");
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        bulkRestaurantImporter.importRestaurants(request.getInputStream(), response.getOutputStream());
+    }
+
     /**
      * Checks if the given value is a valid item name.
      *
@@ -141,16 +143,7 @@ public class AddRestaurantController {
      * @return true if the value is a valid item name, false otherwise
      */
     public static boolean isValidValue(String value) {
-        // Iterate over all possible item names
-        for (Menu.ItemName itemName : Menu.ItemName.values()) {
-            // Check if the value matches the current item name
-            if (itemName.getValue().equals(value)) {
-                // If a match is found, return true
-                return true;
-            }
-        }
-        // If no match is found, return false
-        return false;
+        return MenuValidator.isValidValue(value);
     }
 
 }
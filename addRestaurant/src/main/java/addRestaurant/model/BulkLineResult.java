@@ -0,0 +1,17 @@
+package addRestaurant.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data // Lombok annotation to automatically generate getters, setters, equals, hashCode, and toString methods
+@AllArgsConstructor // Lombok annotation to generate a constructor with all arguments
+@NoArgsConstructor // Lombok annotation to generate a no-argument constructor
+public class BulkLineResult {
+
+    private int line; // Represents the line number of the command in the uploaded NDJSON stream
+    private String restaurantName; // Represents the name of the restaurant on that line, if it could be parsed
+    private String status; // Represents the outcome of the line, OK or ERROR
+    private String message; // Represents the success or error message for the line
+
+}
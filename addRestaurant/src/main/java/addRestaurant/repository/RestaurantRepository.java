@@ -1,17 +1,35 @@
 package addRestaurant.repository;
 
-import addRestaurant.model.Restaurant;
+import outbox.OutboxEvent;
+import model.Restaurant;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTransactionWriteExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.TransactionWriteRequest;
+import com.amazonaws.services.dynamodbv2.model.CancellationReason;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.TransactionCanceledException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 @Repository
 public class RestaurantRepository {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RestaurantRepository.class);
 
+    // Items DynamoDB accepts in one TransactWriteItems request
+    private static final int MAX_TRANSACTION_ITEMS = 25;
+
+    // Fails the put if a restaurant with the same name exists, with or without a version
+    private static final DynamoDBTransactionWriteExpression IF_ABSENT = new DynamoDBTransactionWriteExpression()
+            .withConditionExpression("attribute_not_exists(restaurantName)");
+
     @Autowired
     private DynamoDBMapper dynamoDBMapper;
 
@@ -32,6 +50,50 @@ public class RestaurantRepository {
         return restaurant;
     }
 
+    /**
+     * Inserts a restaurant together with its outbox event in one DynamoDB transaction, so the event is
+     * recorded if and only if the restaurant is. The put is conditional on attribute_not_exists(restaurantName),
+     * so it also fails for existing rows written without a version, which the mapper's own
+     * attribute_not_exists(version) check would let through.
+     *
+     * @param restaurant  The restaurant to be inserted.
+     * @param outboxEvent The event to be published by the outbox relay.
+     * @return The inserted restaurant.
+     * @throws ConditionalCheckFailedException if a restaurant with the same name already exists.
+     */
+    public Restaurant saveRestaurantIfAbsent(Restaurant restaurant, OutboxEvent outboxEvent) {
+        TransactionWriteRequest transactionWriteRequest = new TransactionWriteRequest()
+                .addPut(restaurant, IF_ABSENT)
+                .addPut(outboxEvent);
+        try {
+            dynamoDBMapper.transactionWrite(transactionWriteRequest);
+            LOGGER.info("Restaurant inserted successfully with outbox event: {}", restaurant.getRestaurantName());
+        } catch (TransactionCanceledException e) {
+            if (isConditionalCheckFailure(e)) {
+                LOGGER.warn("Restaurant already exists: {}", restaurant.getRestaurantName());
+                throw new ConditionalCheckFailedException("Restaurant already exists: " + restaurant.getRestaurantName());
+            }
+            LOGGER.error("Failed to insert restaurant: {}", restaurant.getRestaurantName(), e);
+            throw e;
+        } catch (Exception e) {
+            LOGGER.error("Failed to insert restaurant: {}", restaurant.getRestaurantName(), e);
+            throw e; // Rethrow the exception to be handled by the caller
+        }
+        return restaurant;
+    }
+
+    private static boolean isConditionalCheckFailure(TransactionCanceledException e) {
+        if (e.getCancellationReasons() == null) {
+            return false;
+        }
+        for (CancellationReason reason : e.getCancellationReasons()) {
+            if ("ConditionalCheckFailed".equals(reason.getCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Retrieves a restaurant by its name.
      *
@@ -47,4 +109,59 @@ public class RestaurantRepository {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Inserts restaurants that do not exist yet together with their outbox events, in TransactWriteItems
+     * requests of up to 25 items. Each restaurant put is conditional on attribute_not_exists(restaurantName)
+     * and shares its transaction with its event, so an event is recorded if and only if its restaurant
+     * is. A transaction is cancelled as a whole when one of its restaurants exists, so it is retried
+     * without the restaurants whose condition failed.
+     *
+     * @param restaurants  The restaurants to be inserted, with distinct names.
+     * @param outboxEvents The event of each restaurant, in the same order.
+     * @return The names of the restaurants that already existed and were not written.
+     */
+    public Set<String> saveRestaurantsIfAbsent(List<Restaurant> restaurants, List<OutboxEvent> outboxEvents) {
+        // A restaurant and its event are two items of the same transaction
+        int restaurantsPerTransaction = MAX_TRANSACTION_ITEMS / 2;
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < restaurants.size(); from += restaurantsPerTransaction) {
+            List<Integer> remaining = new ArrayList<>();
+            for (int i = from; i < Math.min(from + restaurantsPerTransaction, restaurants.size()); i++) {
+                remaining.add(i);
+            }
+            while (!remaining.isEmpty()) {
+                TransactionWriteRequest transactionWriteRequest = new TransactionWriteRequest();
+                for (int i : remaining) {
+                    transactionWriteRequest.addPut(restaurants.get(i), IF_ABSENT).addPut(outboxEvents.get(i));
+                }
+                try {
+                    dynamoDBMapper.transactionWrite(transactionWriteRequest);
+                    break;
+                } catch (TransactionCanceledException e) {
+                    List<Integer> retry = new ArrayList<>();
+                    for (int item = 0; item < remaining.size(); item++) {
+                        int i = remaining.get(item);
+                        if (isConditionalCheckFailure(e, 2 * item)) {
+                            existing.add(restaurants.get(i).getRestaurantName());
+                        } else {
+                            retry.add(i);
+                        }
+                    }
+                    if (retry.size() == remaining.size()) {
+                        LOGGER.error("Failed to insert {} restaurants", remaining.size(), e);
+                        throw e;
+                    }
+                    remaining = retry;
+                }
+            }
+        }
+        LOGGER.info("Inserted {} restaurants with outbox events, {} already existed", restaurants.size() - existing.size(), existing.size());
+        return existing;
+    }
+
+    private static boolean isConditionalCheckFailure(TransactionCanceledException e, int item) {
+        List<CancellationReason> reasons = e.getCancellationReasons();
+        return reasons != null && item < reasons.size() && "ConditionalCheckFailed".equals(reasons.get(item).getCode());
+    }
+
+}
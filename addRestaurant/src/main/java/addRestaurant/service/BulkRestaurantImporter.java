@@ -0,0 +1,269 @@
+package addRestaurant.service;
+
+import model.AddRestaurantCommand;
+import addRestaurant.model.BulkLineResult;
+import model.Restaurant;
+import model.RestaurantMapper;
+import addRestaurant.repository.RestaurantRepository;
+import addRestaurant.util.MenuValidator;
+import model.codec.MessageCodec;
+import model.events.RestaurantEvents;
+import outbox.OutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports restaurants from an NDJSON stream of {@link AddRestaurantCommand}s.
+ * <p>
+ * Lines are parsed and validated one at a time, valid ones are written in chunks of conditional
+ * puts together with their outbox events, which OutboxRelay publishes, and one result line is
+ * streamed back per input line as soon as its chunk is done. At most one chunk is held in memory, whatever the
+ * size of the upload.
+ */
+@Service
+public class BulkRestaurantImporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkRestaurantImporter.class);
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MessageCodec messageCodec;
+
+    @Value("${bulk.chunk-size:25}")
+    private int chunkSize = 25;
+
+    // Longer lines are reported as errors and skipped without being buffered
+    @Value("${bulk.max-line-length:65536}")
+    private int maxLineLength = 65536;
+
+    public void setRestaurantRepository(RestaurantRepository restaurantRepository) {
+        this.restaurantRepository = restaurantRepository;
+    }
+
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public void setMessageCodec(MessageCodec messageCodec) {
+        this.messageCodec = messageCodec;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public void setMaxLineLength(int maxLineLength) {
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Reads commands from the input until it is exhausted and writes one {@link BulkLineResult} per
+     * non-blank input line to the output. A line longer than {@code bulk.max-line-length} characters is
+     * reported as an error and skipped.
+     *
+     * @param inputStream  The NDJSON upload.
+     * @param outputStream The NDJSON response.
+     * @throws IOException if reading the upload or writing the response fails.
+     */
+    public void importRestaurants(InputStream inputStream, OutputStream outputStream) throws IOException {
+        BoundedLineReader reader = new BoundedLineReader(
+                new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)), maxLineLength);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+        List<PendingLine> chunk = new ArrayList<>(chunkSize);
+        int lineNumber = 0;
+        int saved = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (reader.isOversized()) {
+                LOGGER.warn("Line {} exceeds {} characters", lineNumber, maxLineLength);
+                writeResult(writer, new BulkLineResult(lineNumber, null, "ERROR", "Line exceeds " + maxLineLength + " characters"));
+                continue;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+
+            AddRestaurantCommand command;
+            try {
+                command = objectMapper.readValue(line, AddRestaurantCommand.class);
+            } catch (JsonProcessingException e) {
+                LOGGER.warn("Malformed JSON on line {}", lineNumber);
+                writeResult(writer, new BulkLineResult(lineNumber, null, "ERROR", "Malformed JSON"));
+                continue;
+            }
+
+            String validationError = validate(command);
+            if (validationError != null) {
+                writeResult(writer, new BulkLineResult(lineNumber, command.getRestaurantName(), "ERROR", validationError));
+                continue;
+            }
+
+            chunk.add(new PendingLine(lineNumber, command));
+            if (chunk.size() >= chunkSize) {
+                saved += writeChunk(chunk, writer);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            saved += writeChunk(chunk, writer);
+        }
+
+        writer.flush();
+        LOGGER.info("Bulk import done: {} lines read, {} restaurants saved", lineNumber, saved);
+    }
+
+    private String validate(AddRestaurantCommand command) {
+        if (command.getRestaurantName() == null || command.getRestaurantName().isBlank()) {
+            return "Restaurant name is missing";
+        }
+        if (command.getMenuList() == null || command.getMenuList().getItems() == null) {
+            return "Menu list of restaurant " + command.getRestaurantName() + " is missing";
+        }
+        return MenuValidator.validate(command.getMenuList());
+    }
+
+    private int writeChunk(List<PendingLine> chunk, Writer writer) throws IOException {
+        Map<Integer, BulkLineResult> results = new LinkedHashMap<>();
+
+        // A name may only be written once per chunk; a transaction rejects two puts of the same item
+        Map<String, PendingLine> unique = new LinkedHashMap<>();
+        for (PendingLine pending : chunk) {
+            String name = pending.command.getRestaurantName();
+            if (unique.putIfAbsent(name, pending) != null) {
+                results.put(pending.lineNumber, new BulkLineResult(pending.lineNumber, name, "ERROR", "Duplicate restaurant in upload"));
+            }
+        }
+
+        int saved = 0;
+        try {
+            List<Restaurant> restaurants = new ArrayList<>();
+            List<OutboxEvent> outboxEvents = new ArrayList<>();
+            for (PendingLine pending : unique.values()) {
+                // The mapper writes version 1 on insert; the event carries it so searchFood can order later updates
+                pending.command.setVersion(1L);
+                outboxEvents.add(OutboxEvent.of(pending.command.getRestaurantName(), RestaurantEvents.EXCHANGE,
+                        RestaurantEvents.RESTAURANT_ADDED, messageCodec.getContentType(), messageCodec.encode(pending.command)));
+                Restaurant restaurant = RestaurantMapper.toRestaurant(pending.command);
+                restaurant.setCreatedAt(String.valueOf(LocalDateTime.now()));
+                restaurants.add(restaurant);
+            }
+
+            // Conditional puts, so a restaurant added since the upload started is reported rather than
+            // overwritten; OutboxRelay publishes the events of the restaurants written
+            Set<String> existing = restaurantRepository.saveRestaurantsIfAbsent(restaurants, outboxEvents);
+
+            for (Restaurant restaurant : restaurants) {
+                PendingLine pending = unique.get(restaurant.getRestaurantName());
+                if (existing.contains(restaurant.getRestaurantName())) {
+                    results.put(pending.lineNumber, new BulkLineResult(pending.lineNumber, restaurant.getRestaurantName(), "ERROR", "Restaurant already exists"));
+                    continue;
+                }
+                results.put(pending.lineNumber, new BulkLineResult(pending.lineNumber, restaurant.getRestaurantName(), "OK", "Restaurant saved successfully"));
+                saved++;
+            }
+        } catch (Exception e) {
+            LOGGER.error("Error occurred while importing a chunk of {} restaurants", chunk.size(), e);
+            for (PendingLine pending : chunk) {
+                results.putIfAbsent(pending.lineNumber, new BulkLineResult(pending.lineNumber, pending.command.getRestaurantName(), "ERROR", "Internal Server Error"));
+            }
+        }
+
+        // Report in input order
+        for (PendingLine pending : chunk) {
+            writeResult(writer, results.get(pending.lineNumber));
+        }
+        writer.flush();
+        return saved;
+    }
+
+    private void writeResult(Writer writer, BulkLineResult result) throws IOException {
+        writer.write(objectMapper.writeValueAsString(result));
+        writer.write('\n');
+    }
+
+    // Reads lines like BufferedReader.readLine, but drops the rest of a line once it exceeds the maximum length
+    private static class BoundedLineReader {
+        private final Reader reader;
+        private final int maxLength;
+        private final StringBuilder line = new StringBuilder();
+        private boolean oversized;
+
+        private BoundedLineReader(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        // The next line without its terminator, or null at the end of the input; empty if oversized
+        private String readLine() throws IOException {
+            line.setLength(0);
+            oversized = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (c == '\n') {
+                    return current();
+                }
+                if (oversized) {
+                    continue;
+                }
+                if (line.length() >= maxLength && !(line.length() == maxLength && c == '\r')) {
+                    oversized = true;
+                    line.setLength(0);
+                } else {
+                    line.append((char) c);
+                }
+            }
+            return line.length() > 0 || oversized ? current() : null;
+        }
+
+        private boolean isOversized() {
+            return oversized;
+        }
+
+        private String current() {
+            int length = line.length();
+            if (length > 0 && line.charAt(length - 1) == '\r') {
+                line.setLength(length - 1);
+            }
+            return line.toString();
+        }
+    }
+
+    private static class PendingLine {
+        private final int lineNumber;
+        private final AddRestaurantCommand command;
+
+        private PendingLine(int lineNumber, AddRestaurantCommand command) {
+            this.lineNumber = lineNumber;
+            this.command = command;
+        }
+    }
+}
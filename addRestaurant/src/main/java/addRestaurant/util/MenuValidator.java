@@ -0,0 +1,83 @@
+package addRestaurant.util;
+
+import model.Menu;
+import model.MenuList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Validation rules for the menu of a restaurant being added, shared by the single and bulk add endpoints.
+ */
+public class MenuValidator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MenuValidator.class);
+
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("\\d+(\\.\\d+)?");
+
+    private MenuValidator() {
+    }
+
+    /**
+     * Validates the item names, prices and ratings of a menu.
+     *
+     * @param menuList The menu to validate.
+     * @return The error message for the first invalid item, or null if the menu is valid.
+     */
+    public static String validate(MenuList menuList) {
+        for (Menu menu : menuList.getItems()) {
+            LOGGER.info("Validating item: {}", menu.getItemName());
+            Matcher matcher = NUMBER_PATTERN.matcher(menu.getPrice());
+            // Validate the price
+            if (!matcher.matches()) {
+                LOGGER.warn("Non-numeric price: {} for item: {}", menu.getPrice(), menu.getItemName());
+                return "Price " + menu.getPrice() + " of item " + menu.getItemName() + " is non-numeric";
+            }
+
+            if (!isValidValue(String.valueOf(menu.getItemName()))) {
+                LOGGER.warn("Invalid item name: {}", menu.getItemName());
+                return "Item name " + menu.getItemName() + " is invalid";
+            }
+            double price = Double.parseDouble(menu.getPrice());
+            if (price < 100 || price > 200) {
+                LOGGER.warn("Invalid price range: {} for item: {}", menu.getPrice(), menu.getItemName());
+                return "Price " + menu.getPrice() + " of item " + menu.getItemName() + " is outside allowed range 100-200";
+            }
+
+            // Validate the ratings
+            matcher = NUMBER_PATTERN.matcher(menu.getRatings());
+            if (!matcher.matches()) {
+                LOGGER.warn("Non-numeric rating: {} for item: {}", menu.getRatings(), menu.getItemName());
+                return "Rating " + menu.getRatings() + " of item " + menu.getItemName() + " is non-numeric";
+            }
+
+            double rating = Double.parseDouble(menu.getRatings());
+            if (rating < 1 || rating > 10) {
+                LOGGER.warn("Invalid rating range: {} for item: {}", menu.getRatings(), menu.getItemName());
+                return "Rating " + menu.getRatings() + " of item " + menu.getItemName() + " is outside allowed range 1-10";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks if the given value is a valid item name.
+     *
+     * @param value the value to check
+     * @return true if the value is a valid item name, false otherwise
+     */
+    public static boolean isValidValue(String value) {
+        // Iterate over all possible item names
+        for (Menu.ItemName itemName : Menu.ItemName.values()) {
+            // Check if the value matches the current item name
+            if (itemName.getValue().equals(value)) {
+                // If a match is found, return true
+                return true;
+            }
+        }
+        // If no match is found, return false
+        return false;
+    }
+}
@@ -1,19 +1,19 @@
 package addRestaurant.controller;
 
-import addRestaurant.model.Menu;
-import addRestaurant.model.MenuList;
-import addRestaurant.model.Restaurant;
-import addRestaurant.model.AddRestaurantCommand;
+import model.Menu;
+import model.MenuList;
+import outbox.OutboxEvent;
+import model.Restaurant;
+import model.AddRestaurantCommand;
 import addRestaurant.repository.RestaurantRepository;
+import model.codec.MessageCodec;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.amqp.core.Message;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -30,21 +30,18 @@ class AddRestaurantControllerTest {
     private AddRestaurantController addRestaurantController;
 
     @Mock
-    private ObjectMapper objectMapper;
+    private MessageCodec messageCodec;
 
     @Mock
     private RestaurantRepository restaurantRepository;
 
-    @Mock
-    private RabbitTemplate rabbitTemplate;
-
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        addRestaurantController = new AddRestaurantController(rabbitTemplate);
+        addRestaurantController = new AddRestaurantController();
         addRestaurantController.setRestaurantRepository(restaurantRepository);
-        addRestaurantController.setObjectMapper(objectMapper);
+        addRestaurantController.setMessageCodec(messageCodec);
     }
 
     @Test
@@ -74,16 +71,18 @@ class AddRestaurantControllerTest {
         savedRestaurant.setMenuList(menuList);
         savedRestaurant.setCreatedAt(String.valueOf(LocalDateTime.now()));
 
-        when(restaurantRepository.getRestaurantByName("Test Restaurant")).thenReturn(null);
-        when(restaurantRepository.saveRestaurant(any(Restaurant.class))).thenReturn(savedRestaurant);
-        when(objectMapper.writeValueAsString(request)).thenReturn("json");
+        when(restaurantRepository.saveRestaurantIfAbsent(any(Restaurant.class), any(OutboxEvent.class))).thenReturn(savedRestaurant);
+        when(messageCodec.getContentType()).thenReturn(MessageCodec.CONTENT_TYPE_CBOR);
+        when(messageCodec.encode(request)).thenReturn(new byte[]{1});
 
         ResponseEntity<String> response = addRestaurantController.addRestaurant(request);
 
-        verify(restaurantRepository, times(1)).getRestaurantByName("Test Restaurant");
-        verify(restaurantRepository, times(1)).saveRestaurant(any(Restaurant.class));
-        verify(rabbitTemplate, times(1)).convertAndSend(eq("addrestaurant-command"), any(Message.class));
-        verify(objectMapper, times(1)).writeValueAsString(request);
+        verify(restaurantRepository, never()).getRestaurantByName("Test Restaurant");
+        verify(restaurantRepository, times(1)).saveRestaurantIfAbsent(any(Restaurant.class), any(OutboxEvent.class));
+        verify(restaurantRepository).saveRestaurantIfAbsent(any(Restaurant.class),
+                argThat(event -> "restaurant.events".equals(event.getExchange()) && "restaurant.added".equals(event.getRoutingKey()) && "Test Restaurant".equals(event.getRestaurantName())
+                        && MessageCodec.CONTENT_TYPE_CBOR.equals(event.getContentType())));
+        verify(messageCodec, times(1)).encode(request);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Restaurant saved successfully", response.getBody());
@@ -93,15 +92,14 @@ class AddRestaurantControllerTest {
     void testAddRestaurant_WithValidRestaurant_ReturnsSuccessResponse() throws JsonProcessingException {
         // Arrange
         AddRestaurantCommand restaurantRequest = createValidRestaurant();
-        when(restaurantRepository.getRestaurantByName(restaurantRequest.getRestaurantName())).thenReturn(null);
 
         Restaurant restaurant = new Restaurant();
         restaurant.setRestaurantName(restaurantRequest.getRestaurantName());
         restaurant.setMenuList(restaurantRequest.getMenuList());
         restaurant.setAddress(restaurantRequest.getAddress());
 
-        when(restaurantRepository.saveRestaurant(restaurant)).thenReturn(restaurant);
-        when(objectMapper.writeValueAsString(restaurantRequest)).thenReturn("json");
+        when(restaurantRepository.saveRestaurantIfAbsent(any(Restaurant.class), any(OutboxEvent.class))).thenReturn(restaurant);
+        when(messageCodec.encode(restaurantRequest)).thenReturn(new byte[]{1});
 
         // Act
         ResponseEntity<String> response = addRestaurantController.addRestaurant(restaurantRequest);
@@ -109,16 +107,15 @@ class AddRestaurantControllerTest {
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Restaurant saved successfully", response.getBody());
-        verify(restaurantRepository, times(1)).getRestaurantByName(restaurant.getRestaurantName());
-        verify(restaurantRepository, times(1)).saveRestaurant(any());
+        verify(restaurantRepository, times(1)).saveRestaurantIfAbsent(any(), any());
     }
 
     @Test
     void testAddRestaurant_WithExistingRestaurant_ReturnsBadRequestResponse() {
         // Arrange
         AddRestaurantCommand restaurantRequest = createValidRestaurant();
-        Restaurant restaurant = new Restaurant();
-        when(restaurantRepository.getRestaurantByName(restaurantRequest.getRestaurantName())).thenReturn(restaurant);
+        when(restaurantRepository.saveRestaurantIfAbsent(any(Restaurant.class), any(OutboxEvent.class)))
+                .thenThrow(new ConditionalCheckFailedException("The conditional request failed"));
 
         // Act
         ResponseEntity<String> response = addRestaurantController.addRestaurant(restaurantRequest);
@@ -126,8 +123,7 @@ class AddRestaurantControllerTest {
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("Restaurant already exists", response.getBody());
-        verify(restaurantRepository, times(1)).getRestaurantByName(restaurantRequest.getRestaurantName());
-        verify(restaurantRepository, never()).saveRestaurant(restaurant);
+        verify(restaurantRepository, times(1)).saveRestaurantIfAbsent(any(Restaurant.class), any(OutboxEvent.class));
     }
 
     private AddRestaurantCommand createValidRestaurant() {
@@ -317,14 +313,14 @@ class AddRestaurantControllerTest {
         menuList.setItems(items);
         restaurantRequest.setMenuList(menuList);
 
-        // Mock the restaurant repository's getRestaurantByName method to throw an exception
-        when(restaurantRepository.getRestaurantByName("Sample Restaurant")).thenThrow(RuntimeException.class);
+        // Mock the restaurant repository's saveRestaurantIfAbsent method to throw an exception
+        when(restaurantRepository.saveRestaurantIfAbsent(any(Restaurant.class), any(OutboxEvent.class))).thenThrow(RuntimeException.class);
 
         // Call the controller method and assert the response
         ResponseEntity<String> response = addRestaurantController.addRestaurant(restaurantRequest);
 
-        // Verify that the restaurant repository's getRestaurantByName method was called
-        verify(restaurantRepository, times(1)).getRestaurantByName("Sample Restaurant");
+        // Verify that the restaurant repository's saveRestaurantIfAbsent method was called
+        verify(restaurantRepository, times(1)).saveRestaurantIfAbsent(any(Restaurant.class), any(OutboxEvent.class));
 
         // Assert the response status code and body
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
@@ -1,13 +1,22 @@
 package addRestaurant.repository;
 
-import addRestaurant.model.Restaurant;
+import outbox.OutboxEvent;
+import model.Restaurant;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.TransactionWriteRequest;
+import com.amazonaws.services.dynamodbv2.model.CancellationReason;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.TransactionCanceledException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -87,4 +96,110 @@ class RestaurantRepositoryTest {
         // Verify that the load method was called with the correct parameters
         verify(dynamoDBMapper, times(1)).load(Restaurant.class, "Sample Restaurant");
     }
+
+    @Test
+    void saveRestaurantIfAbsent_WithOutboxEvent_WritesBothInOneTransaction() {
+        // Create a sample restaurant and its event
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantName("Sample Restaurant");
+        OutboxEvent outboxEvent = OutboxEvent.of("Sample Restaurant", "restaurant.events", "restaurant.added", "application/json", "json".getBytes());
+
+        // Call the repository method
+        Restaurant savedRestaurant = restaurantRepository.saveRestaurantIfAbsent(restaurant, outboxEvent);
+
+        // Verify that both items went into a single transaction and nothing was saved on its own
+        verify(dynamoDBMapper, times(1)).transactionWrite(argThat((TransactionWriteRequest request) ->
+                request.getTransactionWriteOperations().size() == 2));
+        verify(dynamoDBMapper, never()).save(any());
+        assertEquals(restaurant, savedRestaurant);
+    }
+
+    @Test
+    void saveRestaurantIfAbsent_WithOutboxEvent_AlreadyExists_ThrowsConditionalCheckFailed() {
+        // Create a sample restaurant and its event
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantName("Sample Restaurant");
+        OutboxEvent outboxEvent = OutboxEvent.of("Sample Restaurant", "restaurant.events", "restaurant.added", "application/json", "json".getBytes());
+
+        // Mock the transaction to be cancelled by the restaurant condition
+        TransactionCanceledException cancelled = new TransactionCanceledException("Transaction cancelled");
+        cancelled.setCancellationReasons(Arrays.asList(
+                new CancellationReason().withCode("ConditionalCheckFailed"), new CancellationReason().withCode("None")));
+        doThrow(cancelled).when(dynamoDBMapper).transactionWrite(any(TransactionWriteRequest.class));
+
+        // Call the repository method and assert that the caller sees a condition failure
+        assertThrows(ConditionalCheckFailedException.class, () -> restaurantRepository.saveRestaurantIfAbsent(restaurant, outboxEvent));
+    }
+
+    @Test
+    void saveRestaurantIfAbsent_WithOutboxEvent_StoredRowWithoutVersion_ThrowsConditionalCheckFailed() {
+        // Create a restaurant whose name is taken by a stored row written without a version
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantName("Sample Restaurant");
+        OutboxEvent outboxEvent = OutboxEvent.of("Sample Restaurant", "restaurant.events", "restaurant.added", "application/json", "json".getBytes());
+
+        // Mock the transaction to be cancelled by the name condition; the version check alone would pass for that row
+        TransactionCanceledException cancelled = new TransactionCanceledException("Transaction cancelled");
+        cancelled.setCancellationReasons(Arrays.asList(
+                new CancellationReason().withCode("ConditionalCheckFailed"), new CancellationReason().withCode("None")));
+        doThrow(cancelled).when(dynamoDBMapper).transactionWrite(argThat((TransactionWriteRequest request) -> {
+            TransactionWriteRequest.TransactionWriteOperation put = request.getTransactionWriteOperations().get(0);
+            return put.getObject() == restaurant && put.getTransactionWriteExpression() != null
+                    && "attribute_not_exists(restaurantName)".equals(put.getTransactionWriteExpression().getConditionExpression());
+        }));
+
+        // Call the repository method and assert that the existing row is reported instead of overwritten
+        assertThrows(ConditionalCheckFailedException.class, () -> restaurantRepository.saveRestaurantIfAbsent(restaurant, outboxEvent));
+    }
+
+    @Test
+    void saveRestaurantsIfAbsent_OneExists_RetriesWithoutIt() {
+        // Create three restaurants with their events, the second of which exists
+        List<Restaurant> restaurants = Arrays.asList(restaurant("Restaurant A"), restaurant("Restaurant B"), restaurant("Restaurant C"));
+        List<OutboxEvent> outboxEvents = Arrays.asList(event("Restaurant A"), event("Restaurant B"), event("Restaurant C"));
+
+        // Mock the first transaction to be cancelled by the second restaurant's condition
+        TransactionCanceledException cancelled = new TransactionCanceledException("Transaction cancelled");
+        cancelled.setCancellationReasons(Arrays.asList(
+                new CancellationReason().withCode("None"), new CancellationReason().withCode("None"),
+                new CancellationReason().withCode("ConditionalCheckFailed"), new CancellationReason().withCode("None"),
+                new CancellationReason().withCode("None"), new CancellationReason().withCode("None")));
+        doThrow(cancelled).doNothing().when(dynamoDBMapper).transactionWrite(any(TransactionWriteRequest.class));
+
+        // Call the repository method
+        Set<String> alreadyExisting = restaurantRepository.saveRestaurantsIfAbsent(restaurants, outboxEvents);
+
+        // Verify that the retry wrote the other two restaurants, under the name condition, with their events
+        assertEquals(Set.of("Restaurant B"), alreadyExisting);
+        verify(dynamoDBMapper, times(1)).transactionWrite(argThat((TransactionWriteRequest request) -> {
+            List<TransactionWriteRequest.TransactionWriteOperation> operations = request.getTransactionWriteOperations();
+            return operations.size() == 4
+                    && operations.get(0).getObject() == restaurants.get(0) && operations.get(1).getObject() == outboxEvents.get(0)
+                    && operations.get(2).getObject() == restaurants.get(2) && operations.get(3).getObject() == outboxEvents.get(2)
+                    && "attribute_not_exists(restaurantName)".equals(operations.get(2).getTransactionWriteExpression().getConditionExpression());
+        }));
+    }
+
+    @Test
+    void saveRestaurantsIfAbsent_CancelledForOtherReason_Throws() {
+        // Mock the transaction to be cancelled without a condition failure
+        TransactionCanceledException cancelled = new TransactionCanceledException("Transaction cancelled");
+        cancelled.setCancellationReasons(Arrays.asList(
+                new CancellationReason().withCode("TransactionConflict"), new CancellationReason().withCode("None")));
+        doThrow(cancelled).when(dynamoDBMapper).transactionWrite(any(TransactionWriteRequest.class));
+
+        // Call the repository method and assert that the failure reaches the caller
+        assertThrows(TransactionCanceledException.class, () -> restaurantRepository.saveRestaurantsIfAbsent(
+                Arrays.asList(restaurant("Restaurant A")), Arrays.asList(event("Restaurant A"))));
+    }
+
+    private Restaurant restaurant(String restaurantName) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantName(restaurantName);
+        return restaurant;
+    }
+
+    private OutboxEvent event(String restaurantName) {
+        return OutboxEvent.of(restaurantName, "restaurant.events", "restaurant.added", "application/json", "json".getBytes());
+    }
 }
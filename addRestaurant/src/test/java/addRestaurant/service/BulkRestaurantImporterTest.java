@@ -0,0 +1,158 @@
+package addRestaurant.service;
+
+import addRestaurant.model.BulkLineResult;
+import model.Restaurant;
+import addRestaurant.repository.RestaurantRepository;
+import model.codec.MessageCodec;
+import outbox.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class BulkRestaurantImporterTest {
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private BulkRestaurantImporter bulkRestaurantImporter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bulkRestaurantImporter = new BulkRestaurantImporter();
+        bulkRestaurantImporter.setRestaurantRepository(restaurantRepository);
+        bulkRestaurantImporter.setObjectMapper(objectMapper);
+        bulkRestaurantImporter.setMessageCodec(new MessageCodec(objectMapper, "json"));
+        bulkRestaurantImporter.setChunkSize(2);
+    }
+
+    @Test
+    void importRestaurants_MixedLines_ReportsEachLineInOrder() throws Exception {
+        // Arrange
+        String upload = restaurantLine("Restaurant A", "150") + "\n"
+                + "{not json\n"
+                + "\n"
+                + restaurantLine("Restaurant B", "99") + "\n"
+                + restaurantLine("Restaurant C", "120") + "\n"
+                + restaurantLine("Restaurant D", "130") + "\n";
+        when(restaurantRepository.saveRestaurantsIfAbsent(anyList(), anyList())).thenReturn(Collections.emptySet(), Set.of("Restaurant D"));
+
+        // Act
+        List<BulkLineResult> results = runImport(upload);
+
+        // Assert
+        assertEquals(5, results.size());
+        assertEquals(new BulkLineResult(2, null, "ERROR", "Malformed JSON"), results.get(0));
+        assertEquals(new BulkLineResult(4, "Restaurant B", "ERROR", "Price 99 of item Pizza is outside allowed range 100-200"), results.get(1));
+        assertEquals(new BulkLineResult(1, "Restaurant A", "OK", "Restaurant saved successfully"), results.get(2));
+        assertEquals(new BulkLineResult(5, "Restaurant C", "OK", "Restaurant saved successfully"), results.get(3));
+        assertEquals(new BulkLineResult(6, "Restaurant D", "ERROR", "Restaurant already exists"), results.get(4));
+        verify(restaurantRepository, times(2)).saveRestaurantsIfAbsent(anyList(), anyList());
+    }
+
+    @Test
+    void importRestaurants_DuplicateNameInChunk_WritesItOnce() throws Exception {
+        // Arrange
+        String upload = restaurantLine("Restaurant A", "150") + "\n" + restaurantLine("Restaurant A", "160") + "\n";
+        when(restaurantRepository.saveRestaurantsIfAbsent(anyList(), anyList())).thenReturn(Collections.emptySet());
+
+        // Act
+        List<BulkLineResult> results = runImport(upload);
+
+        // Assert
+        assertEquals("OK", results.get(0).getStatus());
+        assertEquals(new BulkLineResult(2, "Restaurant A", "ERROR", "Duplicate restaurant in upload"), results.get(1));
+        verify(restaurantRepository).saveRestaurantsIfAbsent(argThat((List<Restaurant> restaurants) -> restaurants.size() == 1), anyList());
+    }
+
+    @Test
+    void importRestaurants_RepositoryFails_ReportsChunkAsFailed() throws Exception {
+        // Arrange
+        String upload = restaurantLine("Restaurant A", "150") + "\n";
+        when(restaurantRepository.saveRestaurantsIfAbsent(anyList(), anyList())).thenThrow(RuntimeException.class);
+
+        // Act
+        List<BulkLineResult> results = runImport(upload);
+
+        // Assert
+        assertEquals(new BulkLineResult(1, "Restaurant A", "ERROR", "Internal Server Error"), results.get(0));
+    }
+
+    @Test
+    void importRestaurants_ValidLine_WritesOutboxEventWithRestaurant() throws Exception {
+        // Arrange
+        String upload = restaurantLine("Restaurant A", "150") + "\n";
+        when(restaurantRepository.saveRestaurantsIfAbsent(anyList(), anyList())).thenReturn(Collections.emptySet());
+
+        // Act
+        runImport(upload);
+
+        // Assert
+        verify(restaurantRepository).saveRestaurantsIfAbsent(anyList(), argThat((List<OutboxEvent> events) -> events.size() == 1
+                && events.get(0).getRestaurantName().equals("Restaurant A")
+                && events.get(0).getExchange().equals("restaurant.events")
+                && events.get(0).getRoutingKey().equals("restaurant.added")));
+    }
+
+    @Test
+    void importRestaurants_OversizedLine_ReportsItAndReadsOn() throws Exception {
+        // Arrange
+        bulkRestaurantImporter.setMaxLineLength(200);
+        String upload = "{\"restaurantName\":\"" + "x".repeat(500) + "\"}\n"
+                + restaurantLine("Restaurant A", "150") + "\r\n";
+        when(restaurantRepository.saveRestaurantsIfAbsent(anyList(), anyList())).thenReturn(Collections.emptySet());
+
+        // Act
+        List<BulkLineResult> results = runImport(upload);
+
+        // Assert
+        assertEquals(2, results.size());
+        assertEquals(new BulkLineResult(1, null, "ERROR", "Line exceeds 200 characters"), results.get(0));
+        assertEquals(new BulkLineResult(2, "Restaurant A", "OK", "Restaurant saved successfully"), results.get(1));
+    }
+
+    @Test
+    void importRestaurants_OversizedLastLineWithoutNewline_ReportsIt() throws Exception {
+        // Arrange
+        bulkRestaurantImporter.setMaxLineLength(10);
+        String upload = "{\"restaurantName\":\"Restaurant A\"}";
+
+        // Act
+        List<BulkLineResult> results = runImport(upload);
+
+        // Assert
+        assertEquals(List.of(new BulkLineResult(1, null, "ERROR", "Line exceeds 10 characters")), results);
+        verifyNoInteractions(restaurantRepository);
+    }
+
+    private List<BulkLineResult> runImport(String upload) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        bulkRestaurantImporter.importRestaurants(new ByteArrayInputStream(upload.getBytes(StandardCharsets.UTF_8)), output);
+
+        List<BulkLineResult> results = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readValue(line, BulkLineResult.class));
+        }
+        return results;
+    }
+
+    private String restaurantLine(String restaurantName, String price) {
+        return "{\"restaurantName\":\"" + restaurantName + "\",\"address\":\"123 Main St\","
+                + "\"menuList\":{\"items\":[{\"itemName\":\"Pizza\",\"ratings\":\"8.5\",\"price\":\"" + price + "\"}]}}";
+    }
+}
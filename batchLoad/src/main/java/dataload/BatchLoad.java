@@ -9,7 +9,8 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 public class BatchLoad  {
 
     public static void main(String[] args) {
-        SpringApplication.run(BatchLoad.class, args);
+        // The job runs during startup; exit afterwards with its status instead of keeping the web server up
+        System.exit(SpringApplication.exit(SpringApplication.run(BatchLoad.class, args)));
     }
 
 }
\ No newline at end of file
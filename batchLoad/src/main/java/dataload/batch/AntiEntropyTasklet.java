@@ -0,0 +1,154 @@
+package dataload.batch;
+
+import dataload.repository.RestaurantRepository;
+import dataload.repository.TableAliasRepository;
+import dataload.util.ContentHasher;
+import dataload.util.MerkleTree;
+import model.Restaurant;
+import model.RestaurantMapper;
+import model.SearchRestaurant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Anti-entropy check of searchFood's read model against the restaurant table.
+ * <p>
+ * Both tables are scanned once into a Merkle tree over buckets of the restaurant name hash, the
+ * restaurant table through the projection searchFood would build from it. Items are folded into
+ * their bucket's digest as they are scanned, so the scans run in constant memory. The trees are compared top-down; if they are equal the check
+ * is done. Otherwise both tables are scanned again keeping only the items of the divergent buckets,
+ * and each divergent restaurant is read consistently and written over its copy, or its copy is
+ * deleted if the restaurant no longer exists. Repairs are conditional on versions, so a newer copy
+ * written by searchFood in the meantime is never overwritten.
+ * <p>
+ * The counts are put into the job execution context: divergentBuckets, divergentCount,
+ * repairedCount and deletedCount.
+ */
+public class AntiEntropyTasklet implements Tasklet {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AntiEntropyTasklet.class);
+
+    private final RestaurantRepository restaurantRepository;
+
+    private final TableAliasRepository tableAliasRepository;
+
+    private final String alias;
+
+    private final int depth;
+
+    private final int scanSegments;
+
+    private final boolean repair;
+
+    public AntiEntropyTasklet(RestaurantRepository restaurantRepository, TableAliasRepository tableAliasRepository,
+                              String alias, int depth, int scanSegments, boolean repair) {
+        this.restaurantRepository = restaurantRepository;
+        this.tableAliasRepository = tableAliasRepository;
+        this.alias = alias;
+        this.depth = depth;
+        this.scanSegments = scanSegments;
+        this.repair = repair;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        // Check and repair the table searchFood currently reads, even if the alias switches meanwhile
+        String searchTable = tableAliasRepository.currentTable(alias);
+
+        MerkleTree expected = new MerkleTree(depth);
+        for (Restaurant restaurant : restaurantRepository.scanRestaurants(scanSegments)) {
+            expected.add(restaurant.getRestaurantName(), ContentHasher.digest(RestaurantMapper.toSearchRestaurant(restaurant)));
+            contribution.incrementReadCount();
+        }
+        MerkleTree actual = new MerkleTree(depth);
+        for (SearchRestaurant searchRestaurant : restaurantRepository.scanSearchRestaurants(scanSegments, searchTable)) {
+            actual.add(searchRestaurant.getRestaurantName(), ContentHasher.digest(searchRestaurant));
+            contribution.incrementReadCount();
+        }
+
+        Set<Integer> divergentBuckets = new HashSet<>(expected.diff(actual));
+        ExecutionContext jobContext = chunkContext.getStepContext().getStepExecution().getJobExecution().getExecutionContext();
+        jobContext.putLong("divergentBuckets", divergentBuckets.size());
+        if (divergentBuckets.isEmpty()) {
+            LOGGER.info("Table {} is consistent with the restaurant table", searchTable);
+            putCounts(jobContext, 0, 0, 0);
+            return RepeatStatus.FINISHED;
+        }
+        LOGGER.info("{} of {} buckets of table {} diverge from the restaurant table", divergentBuckets.size(),
+                expected.getBucketCount(), searchTable);
+
+        // Second pass, keeping only the items of the divergent buckets
+        Map<String, byte[]> expectedDigests = new HashMap<>();
+        for (Restaurant restaurant : restaurantRepository.scanRestaurants(scanSegments)) {
+            if (divergentBuckets.contains(expected.bucketOf(restaurant.getRestaurantName()))) {
+                expectedDigests.put(restaurant.getRestaurantName(), ContentHasher.digest(RestaurantMapper.toSearchRestaurant(restaurant)));
+            }
+        }
+        Map<String, SearchRestaurant> copies = new HashMap<>();
+        for (SearchRestaurant searchRestaurant : restaurantRepository.scanSearchRestaurants(scanSegments, searchTable)) {
+            if (divergentBuckets.contains(expected.bucketOf(searchRestaurant.getRestaurantName()))) {
+                copies.put(searchRestaurant.getRestaurantName(), searchRestaurant);
+            }
+        }
+
+        Set<String> divergent = new TreeSet<>();
+        for (Map.Entry<String, byte[]> entry : expectedDigests.entrySet()) {
+            SearchRestaurant copy = copies.get(entry.getKey());
+            if (copy == null || !Arrays.equals(entry.getValue(), ContentHasher.digest(copy))) {
+                divergent.add(entry.getKey());
+            }
+        }
+        for (String restaurantName : copies.keySet()) {
+            if (!expectedDigests.containsKey(restaurantName)) {
+                divergent.add(restaurantName);
+            }
+        }
+
+        if (!repair) {
+            LOGGER.info("Found {} divergent restaurants in table {}, not repaired", divergent.size(), searchTable);
+            LOGGER.debug("Divergent restaurants: {}", divergent);
+            putCounts(jobContext, divergent.size(), 0, 0);
+            return RepeatStatus.FINISHED;
+        }
+
+        // Read the divergent restaurants again, consistently, so what changed since the scans is repaired as of now
+        Map<String, Restaurant> restaurants = restaurantRepository.findRestaurants(divergent);
+        int repaired = 0;
+        int deleted = 0;
+        for (String restaurantName : divergent) {
+            Restaurant restaurant = restaurants.get(restaurantName);
+            if (restaurant != null) {
+                if (restaurantRepository.saveSearchRestaurantUnlessNewer(RestaurantMapper.toSearchRestaurant(restaurant), searchTable)) {
+                    repaired++;
+                }
+            } else if (copies.containsKey(restaurantName)
+                    && restaurantRepository.deleteSearchRestaurantIfUnchanged(copies.get(restaurantName), searchTable)) {
+                deleted++;
+            }
+        }
+        contribution.incrementWriteCount(repaired + deleted);
+
+        LOGGER.info("Found {} divergent restaurants in table {}: repaired {}, deleted {} orphaned copies",
+                divergent.size(), searchTable, repaired, deleted);
+        putCounts(jobContext, divergent.size(), repaired, deleted);
+        return RepeatStatus.FINISHED;
+    }
+
+    private static void putCounts(ExecutionContext jobContext, int divergentCount, int repairedCount, int deletedCount) {
+        jobContext.putLong("divergentCount", divergentCount);
+        jobContext.putLong("repairedCount", repairedCount);
+        jobContext.putLong("deletedCount", deletedCount);
+    }
+}
@@ -0,0 +1,88 @@
+package dataload.batch;
+
+import dataload.util.FilePathUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Splits a JSON Lines input file into contiguous byte ranges, one per worker step. Range boundaries
+ * need not fall on line breaks: a worker skips the partial line at the start of its range and reads
+ * every line that starts before the end of its range, so each line is read by exactly one worker.
+ * <p>
+ * Inputs that cannot be split by offset (JSON arrays, gzip files, class path resources) get a single
+ * partition covering the whole input.
+ */
+public class ByteRangePartitioner implements Partitioner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ByteRangePartitioner.class);
+
+    public static final String START_OFFSET = "startOffset";
+    public static final String END_OFFSET = "endOffset";
+
+    // Size of the whole input, or 0 if it is read as a whole; used to report progress
+    public static final String INPUT_SIZE = "inputSize";
+
+    // End offset of a range that extends to the end of the input
+    public static final long UNBOUNDED = -1;
+
+    // Ranges smaller than this are not worth a worker of their own
+    private static final long MIN_RANGE_BYTES = 1024 * 1024;
+
+    private final String path;
+
+    public ByteRangePartitioner(String path) {
+        this.path = path;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        long size = splittableSize();
+        int partitions = size <= 0 ? 1 : (int) Math.max(1, Math.min(gridSize, size / MIN_RANGE_BYTES));
+        long rangeSize = size <= 0 ? 0 : size / partitions;
+
+        Map<String, ExecutionContext> contexts = new LinkedHashMap<>();
+        for (int i = 0; i < partitions; i++) {
+            ExecutionContext context = new ExecutionContext();
+            context.putLong(START_OFFSET, i * rangeSize);
+            context.putLong(END_OFFSET, i == partitions - 1 ? UNBOUNDED : (i + 1) * rangeSize);
+            context.putLong(INPUT_SIZE, Math.max(size, 0));
+            contexts.put("partition" + i, context);
+        }
+        LOGGER.info("Split {} into {} partitions", path, partitions);
+        return contexts;
+    }
+
+    // Size of a plain JSON Lines file, or 0 if the input has to be read as a whole
+    private long splittableSize() {
+        if (path.startsWith(FilePathUtils.CLASSPATH_PREFIX)) {
+            return 0;
+        }
+        Path file = Paths.get(path);
+        try (InputStream stream = Files.newInputStream(file)) {
+            int first = stream.read();
+            int second = stream.read();
+            if (first == 0x1f && second == 0x8b) {
+                return 0;
+            }
+            // Only whitespace may precede the first value; a '[' means a JSON array
+            while (first != -1 && Character.isWhitespace(first)) {
+                first = second;
+                second = stream.read();
+            }
+            return first == '[' ? 0 : Files.size(file);
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to inspect input " + path, e);
+        }
+    }
+}
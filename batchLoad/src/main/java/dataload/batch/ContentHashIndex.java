@@ -0,0 +1,100 @@
+package dataload.batch;
+
+import dataload.repository.RestaurantRepository;
+import model.Restaurant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content hashes and versions of the restaurants already stored, used by delta loads to tell new,
+ * changed and unchanged restaurants apart. The index is filled by a parallel scan before the load
+ * starts and is shared by all partitions.
+ * <p>
+ * The new and changed counts only cover restaurants written by the current execution; a restarted
+ * load does not count what its failed predecessor already wrote.
+ */
+public class ContentHashIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContentHashIndex.class);
+
+    public enum Change {
+        NEW, CHANGED, UNCHANGED
+    }
+
+    private final RestaurantRepository restaurantRepository;
+
+    private final int scanSegments;
+
+    // Restaurant name to stored item; only name, hash and version are loaded
+    private final Map<String, Restaurant> stored = new ConcurrentHashMap<>();
+
+    private final AtomicLong newCount = new AtomicLong();
+
+    private final AtomicLong changedCount = new AtomicLong();
+
+    public ContentHashIndex(RestaurantRepository restaurantRepository, int scanSegments) {
+        this.restaurantRepository = restaurantRepository;
+        this.scanSegments = scanSegments;
+    }
+
+    /**
+     * Replaces the index with the hashes currently stored and resets the counts.
+     *
+     * @return The number of restaurants indexed.
+     */
+    public int refresh() {
+        stored.clear();
+        stored.putAll(restaurantRepository.findContentHashes(scanSegments));
+        newCount.set(0);
+        changedCount.set(0);
+        LOGGER.info("Indexed content hashes of {} stored restaurants with {} scan segments", stored.size(), scanSegments);
+        return stored.size();
+    }
+
+    /**
+     * Compares a hashed restaurant with the stored one. A changed restaurant is given the stored
+     * version + 1, so consumers ordering by version apply it over what they have.
+     *
+     * @param restaurant The restaurant to be loaded, with its content hash set.
+     * @return Whether the restaurant is new, changed or unchanged.
+     */
+    public Change classify(Restaurant restaurant) {
+        Restaurant existing = stored.get(restaurant.getRestaurantName());
+        if (existing == null) {
+            return Change.NEW;
+        }
+        if (restaurant.getContentHash().equals(existing.getContentHash())) {
+            return Change.UNCHANGED;
+        }
+        restaurant.setVersion(existing.getVersion() == null ? 1L : existing.getVersion() + 1);
+        return Change.CHANGED;
+    }
+
+    /**
+     * Counts restaurants that have been written, as new or changed.
+     *
+     * @param restaurants The restaurants written.
+     */
+    public void recordWritten(List<? extends Restaurant> restaurants) {
+        for (Restaurant restaurant : restaurants) {
+            if (stored.containsKey(restaurant.getRestaurantName())) {
+                changedCount.incrementAndGet();
+            } else {
+                newCount.incrementAndGet();
+            }
+        }
+    }
+
+    public long getNewCount() {
+        return newCount.get();
+    }
+
+    public long getChangedCount() {
+        return changedCount.get();
+    }
+}
@@ -0,0 +1,52 @@
+package dataload.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.StepExecution;
+
+/**
+ * Reports how many restaurants a delta load found unchanged, changed and new. The counts are logged
+ * and stored in the job execution context under {@code unchangedCount}, {@code changedCount} and
+ * {@code newCount}.
+ * <p>
+ * Unchanged restaurants are the ones the processor filtered out, taken from the partition manager
+ * step. The manager's counts are the sums of its worker steps', so the workers are not added again.
+ */
+public class DeltaLoadReportListener implements JobExecutionListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeltaLoadReportListener.class);
+
+    private final ContentHashIndex contentHashIndex;
+
+    // Name of the partition manager step
+    private final String managerStepName;
+
+    public DeltaLoadReportListener(ContentHashIndex contentHashIndex, String managerStepName) {
+        this.contentHashIndex = contentHashIndex;
+        this.managerStepName = managerStepName;
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        long unchanged = 0;
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            if (stepExecution.getStepName().equals(managerStepName)) {
+                unchanged += stepExecution.getFilterCount();
+            }
+        }
+        long changed = contentHashIndex.getChangedCount();
+        long added = contentHashIndex.getNewCount();
+
+        jobExecution.getExecutionContext().putLong("unchangedCount", unchanged);
+        jobExecution.getExecutionContext().putLong("changedCount", changed);
+        jobExecution.getExecutionContext().putLong("newCount", added);
+        LOGGER.info("Delta load {}: {} unchanged, {} changed, {} new restaurants",
+                jobExecution.getStatus(), unchanged, changed, added);
+    }
+}
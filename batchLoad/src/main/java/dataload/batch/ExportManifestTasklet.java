@@ -0,0 +1,73 @@
+package dataload.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dataload.model.ExportManifest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the manifest of a table export once all segments have been exported. Shards and counts are
+ * taken from the last execution of each worker step, so segments exported before a restart are
+ * included. The manifest is written last: an export directory without one is incomplete.
+ */
+public class ExportManifestTasklet implements Tasklet {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExportManifestTasklet.class);
+
+    private final JobRepository jobRepository;
+    private final ObjectMapper objectMapper;
+    private final String workerStepName;
+    private final String table;
+    private final int totalSegments;
+    private final Path outputDirectory;
+
+    public ExportManifestTasklet(JobRepository jobRepository, ObjectMapper objectMapper, String workerStepName,
+                                 String table, int totalSegments, Path outputDirectory) {
+        this.jobRepository = jobRepository;
+        this.objectMapper = objectMapper;
+        this.workerStepName = workerStepName;
+        this.table = table;
+        this.totalSegments = totalSegments;
+        this.outputDirectory = outputDirectory;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        JobInstance jobInstance = chunkContext.getStepContext().getStepExecution().getJobExecution().getJobInstance();
+
+        List<ExportManifest.Shard> shards = new ArrayList<>(totalSegments);
+        long itemCount = 0;
+        for (int segment = 0; segment < totalSegments; segment++) {
+            StepExecution stepExecution = jobRepository.getLastStepExecution(jobInstance, workerStepName + ":segment" + segment);
+            if (stepExecution == null) {
+                throw new IllegalStateException("Segment " + segment + " of table " + table + " has not been exported");
+            }
+            ExecutionContext context = stepExecution.getExecutionContext();
+            shards.add(new ExportManifest.Shard(context.getString(ScanSegmentPartitioner.SHARD_FILE), segment, stepExecution.getWriteCount()));
+            itemCount += stepExecution.getWriteCount();
+        }
+
+        ExportManifest manifest = new ExportManifest(table, String.valueOf(LocalDateTime.now()), totalSegments, itemCount, shards);
+        Path temporary = outputDirectory.resolve(ExportManifest.FILE_NAME + ".tmp");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(temporary.toFile(), manifest);
+        Files.move(temporary, outputDirectory.resolve(ExportManifest.FILE_NAME), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        LOGGER.info("Exported {} items of table {} in {} shards to {}", itemCount, table, totalSegments, outputDirectory);
+        return RepeatStatus.FINISHED;
+    }
+}
@@ -0,0 +1,73 @@
+package dataload.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dataload.model.ExportManifest;
+import dataload.util.FilePathUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Loads a table export: one partition per shard listed in the export's manifest, each reading its
+ * shard as a whole. The grid size is ignored; the export decided the number of shards.
+ */
+public class ExportShardPartitioner implements Partitioner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExportShardPartitioner.class);
+
+    public static final String INPUT = "input";
+
+    private final Path manifestPath;
+
+    public ExportShardPartitioner(String path) {
+        this.manifestPath = manifestOf(path);
+    }
+
+    /**
+     * @param path The configured input path.
+     * @return Whether the path is an export directory or its manifest.
+     */
+    public static boolean isExport(String path) {
+        if (path.startsWith(FilePathUtils.CLASSPATH_PREFIX)) {
+            return false;
+        }
+        Path manifest = manifestOf(path);
+        return manifest.getFileName() != null && ExportManifest.FILE_NAME.equals(manifest.getFileName().toString())
+                && Files.isRegularFile(manifest);
+    }
+
+    private static Path manifestOf(String path) {
+        Path input = Paths.get(path);
+        return Files.isDirectory(input) ? input.resolve(ExportManifest.FILE_NAME) : input;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        ExportManifest manifest;
+        try {
+            manifest = new ObjectMapper().readValue(manifestPath.toFile(), ExportManifest.class);
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to read export manifest " + manifestPath, e);
+        }
+
+        Map<String, ExecutionContext> contexts = new LinkedHashMap<>();
+        for (ExportManifest.Shard shard : manifest.getShards()) {
+            ExecutionContext context = new ExecutionContext();
+            context.putString(INPUT, manifestPath.resolveSibling(shard.getFile()).toString());
+            context.putLong(ByteRangePartitioner.START_OFFSET, 0);
+            context.putLong(ByteRangePartitioner.END_OFFSET, ByteRangePartitioner.UNBOUNDED);
+            contexts.put("shard" + shard.getSegment(), context);
+        }
+        LOGGER.info("Loading export of table {} from {} shards ({} items)", manifest.getTable(), contexts.size(), manifest.getItemCount());
+        return contexts;
+    }
+}
@@ -0,0 +1,225 @@
+package dataload.batch;
+
+import dataload.model.JobProgress;
+import dataload.util.WriteRateController;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the worker steps of the running job for the progress endpoint: counts, items per second,
+ * retries, an ETA, and where the threads spend their time.
+ * <p>
+ * Progress is known for plain JSON Lines inputs, from the offsets the readers save with every chunk,
+ * and for readers with a maximum item count such as the synthetic catalog; other inputs have no ETA.
+ * Times come from Spring Batch's own item timers and the batch write, review save and throttle
+ * timers, so a load that spends most of its time reading and validating is cpu-bound, one waiting on
+ * BatchWriteItem is io-bound, and one waiting for write capacity is throttled.
+ */
+public class ProgressListener implements StepExecutionListener, RetryListener {
+
+    // Suffixes of the keys AbstractItemCountingItemStreamItemReader saves its counts under
+    private static final String READ_COUNT = ".read.count";
+    private static final String READ_COUNT_MAX = ".read.count.max";
+
+    // Recent rates are measured over this window
+    private static final long RATE_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final WriteRateController writeRateController;
+
+    private final MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    // Worker step executions of the current job execution by step name
+    private final Map<String, StepExecution> stepExecutions = new ConcurrentHashMap<>();
+
+    private final AtomicLong retries = new AtomicLong();
+
+    private final Counter retryCounter;
+
+    // The job execution the tracked steps belong to, and when its first step started
+    private volatile JobExecution jobExecution;
+    private volatile long startedAt;
+
+    // Samples of {time, items written, units of input read}, guarded by "this"
+    private final Deque<long[]> samples = new ArrayDeque<>();
+
+    public ProgressListener(WriteRateController writeRateController) {
+        this.writeRateController = writeRateController;
+        // Registered globally next to Spring Batch's own meters, which reach the actuator through it
+        this.retryCounter = Counter.builder("batchload.chunk.retries")
+                .description("Failed chunk attempts retried by the batch steps")
+                .register(meterRegistry);
+        Gauge.builder("batchload.items.per.second", this, listener -> listener.snapshot().getRecentItemsPerSecond())
+                .description("Items written per second over the last minute")
+                .register(meterRegistry);
+        Gauge.builder("batchload.eta.seconds", this, listener -> {
+                    Long eta = listener.snapshot().getEtaSeconds();
+                    return eta == null ? Double.NaN : eta;
+                })
+                .description("Estimated seconds until the input is read")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        synchronized (this) {
+            if (jobExecution == null || !jobExecution.getId().equals(stepExecution.getJobExecutionId())) {
+                // A new job execution; restarts in the same process start over
+                jobExecution = stepExecution.getJobExecution();
+                startedAt = System.nanoTime();
+                stepExecutions.clear();
+                retries.set(0);
+                samples.clear();
+            }
+        }
+        stepExecutions.put(stepExecution.getStepName(), stepExecution);
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        // Finished steps stay tracked, so their counts add up to the job's
+        return null;
+    }
+
+    @Override
+    public <T, E extends Throwable> boolean open(RetryContext context, RetryCallback<T, E> callback) {
+        return true;
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+    }
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        retries.incrementAndGet();
+        retryCounter.increment();
+    }
+
+    /**
+     * @return The progress of the job execution running, or of the last one if none is.
+     */
+    public JobProgress snapshot() {
+        JobProgress progress = new JobProgress();
+        progress.setWriteUnitsPerSecond(writeRateController.getRate());
+        progress.setThrottleEvents((long) meterRegistry.counter("batchload.throttle.events").count());
+        progress.setReadProcessSeconds(totalSeconds("spring.batch.item.read") + totalSeconds("spring.batch.item.process"));
+        progress.setDynamoDBWriteSeconds(totalSeconds("batchload.dynamodb.batch.write") + totalSeconds("batchload.review.batch.save"));
+        progress.setThrottleWaitSeconds(totalSeconds("batchload.throttle.wait"));
+        progress.setBound(bound(progress));
+
+        JobExecution current = jobExecution;
+        if (current == null) {
+            return progress;
+        }
+        progress.setJobName(current.getJobInstance().getJobName());
+        progress.setStatus(String.valueOf(current.getStatus()));
+        progress.setStartTime(String.valueOf(current.getStartTime()));
+        progress.setRetryCount(retries.get());
+
+        long doneUnits = 0;
+        long totalUnits = 0;
+        for (StepExecution stepExecution : stepExecutions.values()) {
+            if (stepExecution.getStatus().isRunning()) {
+                progress.setRunningSteps(progress.getRunningSteps() + 1);
+            }
+            progress.setReadCount(progress.getReadCount() + stepExecution.getReadCount());
+            progress.setWriteCount(progress.getWriteCount() + stepExecution.getWriteCount());
+            progress.setFilterCount(progress.getFilterCount() + stepExecution.getFilterCount());
+            progress.setSkipCount(progress.getSkipCount() + stepExecution.getSkipCount());
+
+            ExecutionContext context = stepExecution.getExecutionContext();
+            if (context.getLong(ByteRangePartitioner.INPUT_SIZE, 0) > 0) {
+                // Bytes of the input read; each range reports how far it got
+                totalUnits = context.getLong(ByteRangePartitioner.INPUT_SIZE);
+                long offset = readerOffset(context);
+                if (offset >= 0) {
+                    doneUnits += offset - context.getLong(ByteRangePartitioner.START_OFFSET, 0);
+                }
+            } else {
+                for (Map.Entry<String, Object> entry : context.entrySet()) {
+                    if (entry.getKey().endsWith(READ_COUNT_MAX)) {
+                        String prefix = entry.getKey().substring(0, entry.getKey().length() - READ_COUNT_MAX.length());
+                        totalUnits += context.getInt(entry.getKey());
+                        doneUnits += context.getInt(prefix + READ_COUNT, 0);
+                    }
+                }
+            }
+        }
+
+        long now = System.nanoTime();
+        double elapsedSeconds = (now - startedAt) / 1e9;
+        progress.setElapsedSeconds((long) elapsedSeconds);
+        progress.setItemsPerSecond(elapsedSeconds > 0 ? progress.getWriteCount() / elapsedSeconds : 0);
+
+        long[] oldest;
+        synchronized (this) {
+            samples.addLast(new long[]{now, progress.getWriteCount(), doneUnits});
+            while (samples.size() > 2 && now - samples.peekFirst()[0] > RATE_WINDOW_NANOS) {
+                samples.removeFirst();
+            }
+            oldest = samples.peekFirst();
+        }
+        double windowSeconds = (now - oldest[0]) / 1e9;
+        progress.setRecentItemsPerSecond(windowSeconds > 0 ? (progress.getWriteCount() - oldest[1]) / windowSeconds : progress.getItemsPerSecond());
+
+        if (totalUnits > 0) {
+            progress.setPercentComplete(Math.min(100.0, 100.0 * doneUnits / totalUnits));
+            // Measured over the window if the poll came late enough, since the job started otherwise
+            double unitsPerSecond = windowSeconds >= 1 ? (doneUnits - oldest[2]) / windowSeconds
+                    : elapsedSeconds > 0 ? doneUnits / elapsedSeconds : 0;
+            if (unitsPerSecond > 0) {
+                progress.setEtaSeconds((long) (Math.max(0, totalUnits - doneUnits) / unitsPerSecond));
+            }
+        }
+        return progress;
+    }
+
+    // The offset saved by a RestaurantJsonReader, or -1 before its first chunk
+    private static long readerOffset(ExecutionContext context) {
+        for (Map.Entry<String, Object> entry : context.entrySet()) {
+            if (entry.getKey().endsWith("." + RestaurantJsonReader.OFFSET_KEY)) {
+                return context.getLong(entry.getKey());
+            }
+        }
+        return -1;
+    }
+
+    private double totalSeconds(String timerName) {
+        double seconds = 0;
+        for (Timer timer : meterRegistry.find(timerName).timers()) {
+            seconds += timer.totalTime(TimeUnit.SECONDS);
+        }
+        return seconds;
+    }
+
+    private static String bound(JobProgress progress) {
+        double cpu = progress.getReadProcessSeconds();
+        double io = progress.getDynamoDBWriteSeconds();
+        double throttled = progress.getThrottleWaitSeconds();
+        if (cpu == 0 && io == 0 && throttled == 0) {
+            return null;
+        }
+        if (throttled >= io && throttled >= cpu) {
+            return "throttled";
+        }
+        return io >= cpu ? "io" : "cpu";
+    }
+}
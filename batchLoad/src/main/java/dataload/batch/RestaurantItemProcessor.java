@@ -0,0 +1,67 @@
+package dataload.batch;
+
+import dataload.util.ContentHasher;
+import model.Menu;
+import model.Restaurant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.validator.ValidationException;
+
+import java.time.LocalDateTime;
+
+/**
+ * Validates restaurants read from the input before they are written. Invalid restaurants are rejected
+ * with a {@link ValidationException}, which the step skips up to its skip limit.
+ * <p>
+ * Every restaurant is stamped with its content hash. In delta mode, restaurants whose hash matches the
+ * stored one are filtered out and show up in the step's filter count.
+ */
+public class RestaurantItemProcessor implements ItemProcessor<Restaurant, Restaurant> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RestaurantItemProcessor.class);
+
+    // Null unless the load is a delta load
+    private final ContentHashIndex contentHashIndex;
+
+    public RestaurantItemProcessor(ContentHashIndex contentHashIndex) {
+        this.contentHashIndex = contentHashIndex;
+    }
+
+    @Override
+    public Restaurant process(Restaurant restaurant) {
+        String error = validate(restaurant);
+        if (error != null) {
+            LOGGER.warn("Skipping restaurant {}: {}", restaurant.getRestaurantName(), error);
+            throw new ValidationException(error);
+        }
+        restaurant.setContentHash(ContentHasher.hash(restaurant));
+        if (contentHashIndex != null && contentHashIndex.classify(restaurant) == ContentHashIndex.Change.UNCHANGED) {
+            return null;
+        }
+        if (restaurant.getCreatedAt() == null) {
+            restaurant.setCreatedAt(String.valueOf(LocalDateTime.now()));
+        }
+        return restaurant;
+    }
+
+    private String validate(Restaurant restaurant) {
+        if (restaurant.getRestaurantName() == null || restaurant.getRestaurantName().isBlank()) {
+            return "Restaurant name is missing";
+        }
+        if (restaurant.getMenuList() == null || restaurant.getMenuList().getItems() == null) {
+            return "Menu list is missing";
+        }
+        for (Menu menu : restaurant.getMenuList().getItems()) {
+            if (menu.getItemName() == null || menu.getItemName().isBlank()) {
+                return "Menu item without a name";
+            }
+            try {
+                Double.parseDouble(menu.getPrice());
+            } catch (NullPointerException | NumberFormatException e) {
+                return "Price " + menu.getPrice() + " of item " + menu.getItemName() + " is not a number";
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,222 @@
+package dataload.batch;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dataload.util.FilePathUtils;
+import model.Restaurant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.util.ClassUtils;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Streams restaurants from a JSON array or from JSON Lines (one restaurant per line), plain or
+ * gzip-compressed, with Jackson's {@link JsonParser}. Only the restaurant being read is held in memory,
+ * so the size of the input is not limited by the heap.
+ * <p>
+ * When given a byte range (see {@link ByteRangePartitioner}) it reads only the JSON Lines that start
+ * inside that range of a plain file. Both ends of the range are moved to the start of the line they
+ * fall in or before, so every line belongs to exactly one range, wherever its object begins.
+ * <p>
+ * For plain JSON Lines files the offset after the last restaurant read is saved with every chunk, and a
+ * restarted step seeks straight to it. Other inputs are skipped forward to the saved read count.
+ */
+public class RestaurantJsonReader extends AbstractItemCountingItemStreamItemReader<Restaurant> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RestaurantJsonReader.class);
+
+    // Saved under the reader name, e.g. restaurantReader.offset
+    public static final String OFFSET_KEY = "offset";
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final String path;
+
+    private long startOffset = 0;
+    private long endOffset = ByteRangePartitioner.UNBOUNDED;
+
+    // Start of the first line at or after endOffset; objects from there on belong to the next range
+    private long endLineStart = ByteRangePartitioner.UNBOUNDED;
+
+    // File offset the parser's byte offsets are relative to
+    private long baseOffset;
+
+    private InputStream inputStream;
+    private JsonParser parser;
+
+    // Set when the parser already stands on the START_OBJECT of the next restaurant
+    private boolean pendingObject;
+
+    // Whether the input is a plain JSON Lines file, so restarts can seek to the saved offset
+    private boolean seekable;
+
+    // Offset saved by the failed execution, or -1 if the step starts from the beginning of its range
+    private long resumeOffset = -1;
+
+    // File offset just after the last restaurant read
+    private long offset;
+
+    /**
+     * @param path A filesystem path, or a class path resource prefixed with {@code classpath:}.
+     */
+    public RestaurantJsonReader(String path) {
+        this.path = path;
+        setName(ClassUtils.getShortName(RestaurantJsonReader.class));
+    }
+
+    public void setStartOffset(long startOffset) {
+        this.startOffset = startOffset;
+    }
+
+    public void setEndOffset(long endOffset) {
+        this.endOffset = endOffset;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        String offsetKey = getExecutionContextKey(OFFSET_KEY);
+        if (executionContext.containsKey(offsetKey)) {
+            resumeOffset = executionContext.getLong(offsetKey);
+        }
+        super.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        super.update(executionContext);
+        if (seekable && isSaveState()) {
+            executionContext.putLong(getExecutionContextKey(OFFSET_KEY), offset);
+        }
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        seekable = FilePathUtils.isPlainFile(path);
+        if (seekable && resumeOffset >= 0) {
+            LOGGER.info("Resuming {} at offset {}", path, resumeOffset);
+            inputStream = openAt(resumeOffset);
+        } else if (startOffset > 0) {
+            // The line crossing startOffset belongs to the previous range
+            inputStream = openAt(lineStartAtOrAfter(startOffset));
+        } else {
+            inputStream = FilePathUtils.openInput(path);
+            baseOffset = 0;
+        }
+        // The same line start the next range begins at, so a line with leading whitespace is not lost between them
+        endLineStart = endOffset == ByteRangePartitioner.UNBOUNDED ? ByteRangePartitioner.UNBOUNDED : lineStartAtOrAfter(endOffset);
+        offset = baseOffset;
+        parser = objectMapper.getFactory().createParser(inputStream);
+
+        // A top-level array is entered; JSON Lines are a sequence of root-level objects
+        JsonToken first = parser.nextToken();
+        if (first != JsonToken.START_ARRAY && first != JsonToken.START_OBJECT && first != null) {
+            throw new ItemStreamException("Expected a JSON array or JSON Lines in " + path + " but found " + first);
+        }
+        if (first == JsonToken.START_ARRAY) {
+            // Offsets inside an array cannot be resumed from; restarts skip forward by count
+            seekable = false;
+        }
+        if (first == JsonToken.START_OBJECT) {
+            // Leave the parser on the object so the first read picks it up
+            pendingObject = true;
+        }
+        LOGGER.info("Reading restaurants from {}", path);
+    }
+
+    @Override
+    protected Restaurant doRead() throws IOException {
+        if (!pendingObject) {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new ItemStreamException("Expected a restaurant object in " + path + " at "
+                        + parser.getCurrentLocation() + " but found " + token);
+            }
+        }
+        if (endLineStart != ByteRangePartitioner.UNBOUNDED
+                && baseOffset + parser.getTokenLocation().getByteOffset() >= endLineStart) {
+            // This line starts in the next range
+            return null;
+        }
+        pendingObject = false;
+        Restaurant restaurant = objectMapper.readValue(parser, Restaurant.class);
+        offset = baseOffset + parser.getCurrentLocation().getByteOffset();
+        return restaurant;
+    }
+
+    @Override
+    protected void jumpToItem(int itemIndex) throws Exception {
+        if (seekable && resumeOffset >= 0) {
+            // doOpen already positioned the parser at the saved offset
+            return;
+        }
+        super.jumpToItem(itemIndex);
+    }
+
+    // Opens the plain file at the given position
+    private InputStream openAt(long position) throws IOException {
+        InputStream stream = new BufferedInputStream(Files.newInputStream(Paths.get(path)), 64 * 1024);
+        baseOffset = skip(stream, position);
+        return stream;
+    }
+
+    // The start of the first line beginning at or after the position, or the file size if there is none
+    private long lineStartAtOrAfter(long position) throws IOException {
+        if (position <= 0) {
+            return 0;
+        }
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(Paths.get(path)), 64 * 1024)) {
+            // A line starts at the position if the byte before it ends the previous line
+            long lineStart = skip(stream, position - 1);
+            int b;
+            while ((b = stream.read()) != -1) {
+                lineStart++;
+                if (b == '\n') {
+                    break;
+                }
+            }
+            return lineStart;
+        }
+    }
+
+    private static long skip(InputStream stream, long position) throws IOException {
+        long skipped = 0;
+        while (skipped < position) {
+            long n = stream.skip(position - skipped);
+            if (n <= 0) {
+                break;
+            }
+            skipped += n;
+        }
+        return skipped;
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (parser != null) {
+            parser.close();
+        }
+        if (inputStream != null) {
+            inputStream.close();
+        }
+        parser = null;
+        inputStream = null;
+        pendingObject = false;
+        baseOffset = 0;
+        endLineStart = ByteRangePartitioner.UNBOUNDED;
+        resumeOffset = -1;
+    }
+}
@@ -0,0 +1,66 @@
+package dataload.batch;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import model.Restaurant;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.util.ClassUtils;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Reads the restaurants of one parallel scan segment page by page, so only one page is held in memory.
+ * A restarted step scans its segment again and skips the restaurants it had already read.
+ */
+public class RestaurantScanReader extends AbstractItemCountingItemStreamItemReader<Restaurant> {
+
+    private final DynamoDBMapper dynamoDBMapper;
+    private final int segment;
+    private final int totalSegments;
+    private final int pageSize;
+
+    private Iterator<Restaurant> page;
+    private Map<String, AttributeValue> lastEvaluatedKey;
+    private boolean lastPage;
+
+    public RestaurantScanReader(DynamoDBMapper dynamoDBMapper, int segment, int totalSegments, int pageSize) {
+        this.dynamoDBMapper = dynamoDBMapper;
+        this.segment = segment;
+        this.totalSegments = totalSegments;
+        this.pageSize = pageSize;
+        setName(ClassUtils.getShortName(RestaurantScanReader.class));
+    }
+
+    @Override
+    protected void doOpen() {
+        page = null;
+        lastEvaluatedKey = null;
+        lastPage = false;
+    }
+
+    @Override
+    protected Restaurant doRead() {
+        while (page == null || !page.hasNext()) {
+            if (lastPage) {
+                return null;
+            }
+            ScanResultPage<Restaurant> result = dynamoDBMapper.scanPage(Restaurant.class, new DynamoDBScanExpression()
+                    .withSegment(segment)
+                    .withTotalSegments(totalSegments)
+                    .withLimit(pageSize)
+                    .withExclusiveStartKey(lastEvaluatedKey));
+            page = result.getResults().iterator();
+            lastEvaluatedKey = result.getLastEvaluatedKey();
+            lastPage = lastEvaluatedKey == null || lastEvaluatedKey.isEmpty();
+        }
+        return page.next();
+    }
+
+    @Override
+    protected void doClose() {
+        page = null;
+    }
+}
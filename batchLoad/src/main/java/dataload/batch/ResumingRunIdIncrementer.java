@@ -0,0 +1,77 @@
+package dataload.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersIncrementer;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.repository.JobRepository;
+
+import java.util.Date;
+
+/**
+ * Starts a new job instance on every launch, like {@link RunIdIncrementer}, unless restart mode is on
+ * and the last execution of the job did not complete. The previous parameters are then returned
+ * unchanged, so the launcher restarts that execution and every step resumes from its last checkpoint.
+ * <p>
+ * An execution still marked as running belongs to a process that crashed (only one loader runs at a
+ * time); it is marked as failed first so it can be restarted.
+ */
+public class ResumingRunIdIncrementer implements JobParametersIncrementer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResumingRunIdIncrementer.class);
+
+    private final RunIdIncrementer runIdIncrementer = new RunIdIncrementer();
+
+    private final String jobName;
+    private final JobExplorer jobExplorer;
+    private final JobRepository jobRepository;
+    private final boolean restart;
+
+    public ResumingRunIdIncrementer(String jobName, JobExplorer jobExplorer, JobRepository jobRepository, boolean restart) {
+        this.jobName = jobName;
+        this.jobExplorer = jobExplorer;
+        this.jobRepository = jobRepository;
+        this.restart = restart;
+    }
+
+    @Override
+    public JobParameters getNext(JobParameters parameters) {
+        if (restart && parameters != null) {
+            JobExecution lastExecution = jobRepository.getLastJobExecution(jobName, parameters);
+            if (lastExecution != null && lastExecution.getStatus() != BatchStatus.COMPLETED
+                    && lastExecution.getStatus() != BatchStatus.ABANDONED) {
+                if (lastExecution.isRunning()) {
+                    markFailed(lastExecution);
+                }
+                LOGGER.info("Restarting {} execution {} from its last checkpoint", jobName, lastExecution.getId());
+                return parameters;
+            }
+        }
+        return runIdIncrementer.getNext(parameters);
+    }
+
+    private void markFailed(JobExecution jobExecution) {
+        LOGGER.warn("Execution {} of {} was left running by a crashed loader, marking it as failed", jobExecution.getId(), jobName);
+        Date now = new Date();
+        // Reload with its step executions, which the repository lookup leaves out
+        JobExecution execution = jobExplorer.getJobExecution(jobExecution.getId());
+        for (StepExecution stepExecution : execution.getStepExecutions()) {
+            if (stepExecution.getStatus().isRunning()) {
+                stepExecution.setStatus(BatchStatus.FAILED);
+                stepExecution.setExitStatus(ExitStatus.FAILED);
+                stepExecution.setEndTime(now);
+                jobRepository.update(stepExecution);
+            }
+        }
+        execution.setStatus(BatchStatus.FAILED);
+        execution.setExitStatus(ExitStatus.FAILED);
+        execution.setEndTime(now);
+        jobRepository.update(execution);
+    }
+}
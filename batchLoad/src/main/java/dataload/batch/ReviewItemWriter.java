@@ -0,0 +1,34 @@
+package dataload.batch;
+
+import dataload.model.ItemReview;
+import dataload.repository.ReviewRepository;
+import model.Restaurant;
+import org.springframework.batch.item.ItemWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the synthetic reviews of each chunk of generated restaurants. Review ids are stable, so a
+ * retried chunk overwrites the reviews it already wrote.
+ */
+public class ReviewItemWriter implements ItemWriter<Restaurant> {
+
+    private final ReviewRepository reviewRepository;
+
+    private final SyntheticCatalog catalog;
+
+    public ReviewItemWriter(ReviewRepository reviewRepository, SyntheticCatalog catalog) {
+        this.reviewRepository = reviewRepository;
+        this.catalog = catalog;
+    }
+
+    @Override
+    public void write(List<? extends Restaurant> restaurants) throws InterruptedException {
+        List<ItemReview> reviews = new ArrayList<>();
+        for (Restaurant restaurant : restaurants) {
+            reviews.addAll(catalog.reviews(restaurant));
+        }
+        reviewRepository.saveReviews(reviews);
+    }
+}
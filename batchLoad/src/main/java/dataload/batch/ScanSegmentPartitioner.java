@@ -0,0 +1,42 @@
+package dataload.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Splits a table export into one partition per parallel scan segment. Each partition writes its
+ * segment to a shard of its own, named after the table and the segment.
+ */
+public class ScanSegmentPartitioner implements Partitioner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScanSegmentPartitioner.class);
+
+    public static final String SEGMENT = "segment";
+    public static final String TOTAL_SEGMENTS = "totalSegments";
+    public static final String SHARD_FILE = "shardFile";
+
+    private final String table;
+
+    public ScanSegmentPartitioner(String table) {
+        this.table = table;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, ExecutionContext> contexts = new LinkedHashMap<>();
+        for (int segment = 0; segment < gridSize; segment++) {
+            ExecutionContext context = new ExecutionContext();
+            context.putInt(SEGMENT, segment);
+            context.putInt(TOTAL_SEGMENTS, gridSize);
+            context.putString(SHARD_FILE, String.format("%s-%05d-of-%05d.jsonl.gz", table, segment, gridSize));
+            contexts.put("segment" + segment, context);
+        }
+        LOGGER.info("Exporting table {} in {} segments", table, gridSize);
+        return contexts;
+    }
+}
@@ -0,0 +1,28 @@
+package dataload.batch;
+
+import dataload.repository.RestaurantRepository;
+import model.SearchRestaurant;
+import org.springframework.batch.item.ItemWriter;
+
+import java.util.List;
+
+/**
+ * Writes each chunk of search restaurants to a given table with BatchWriteItem, paced by the shared
+ * write rate. Rewriting a retried chunk is harmless because the writes overwrite.
+ */
+public class SearchRestaurantItemWriter implements ItemWriter<SearchRestaurant> {
+
+    private final RestaurantRepository restaurantRepository;
+
+    private final String tableName;
+
+    public SearchRestaurantItemWriter(RestaurantRepository restaurantRepository, String tableName) {
+        this.restaurantRepository = restaurantRepository;
+        this.tableName = tableName;
+    }
+
+    @Override
+    public void write(List<? extends SearchRestaurant> searchRestaurants) throws InterruptedException {
+        restaurantRepository.saveSearchRestaurants(searchRestaurants, tableName);
+    }
+}
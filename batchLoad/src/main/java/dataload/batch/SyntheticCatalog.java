@@ -0,0 +1,157 @@
+package dataload.batch;
+
+import dataload.model.ItemReview;
+import dataload.util.ZipfDistribution;
+import model.Menu;
+import model.MenuList;
+import model.Restaurant;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic synthetic catalog for scale testing. Restaurant i, its menu and its reviews only
+ * depend on the seed and i, so the same seed always yields the same catalog and a restarted
+ * generation carries on exactly where it stopped.
+ * <p>
+ * Dishes are ranked by popularity, the four dishes the add endpoint accepts first, and menus draw
+ * them with Zipf-skewed probability, so a few dishes are on most menus and the long tail on few.
+ * Review counts per menu item are Zipf-distributed too: most items have a handful of reviews, some
+ * have many. Names, streets and cities are drawn from word lists, cities again skewed by Zipf.
+ */
+public class SyntheticCatalog {
+
+    private static final String[] STYLES = {"Spicy", "Grilled", "Crispy", "Tandoori", "Smoked", "Garlic",
+            "Classic", "Butter", "Masala", "Cheese", "Roasted", "Stuffed"};
+    private static final String[] DISHES = {"Chicken", "Paneer", "Noodles", "Rice", "Tacos", "Wrap", "Salad",
+            "Soup", "Kebab", "Curry", "Sandwich", "Dosa", "Biryani", "Momos", "Pasta"};
+
+    private static final String[] NAME_ADJECTIVES = {"Golden", "Royal", "Spice", "Urban", "Little", "Blue",
+            "Green", "Silver", "Old", "Happy", "Lucky", "Red"};
+    private static final String[] NAME_NOUNS = {"Dragon", "Garden", "Kitchen", "Table", "Oven", "Leaf", "Bowl",
+            "Street", "Palace", "Corner", "Tandoor", "Grill"};
+    private static final String[] NAME_KINDS = {"Restaurant", "Cafe", "Diner", "Bistro", "Eatery", "House"};
+
+    private static final String[] STREETS = {"Main", "Park", "Oak", "Station", "Lake", "Hill", "Church", "Market",
+            "Mill", "River", "Bridge", "Garden", "School", "Maple", "Cedar", "Elm"};
+    private static final String[] STREET_KINDS = {"Street", "Road", "Avenue", "Lane", "Boulevard"};
+    private static final String[] CITIES = {"Mumbai", "Delhi", "Bengaluru", "Hyderabad", "Chennai", "Kolkata",
+            "Pune", "Ahmedabad", "Jaipur", "Lucknow", "Kochi", "Indore", "Nagpur", "Mysuru", "Goa", "Shimla"};
+
+    private static final String[] COMMENTS = {"Loved it", "Would order again", "Decent for the price",
+            "Too salty", "Great portion size", "Arrived cold", "Best in town", "Not bad"};
+
+    private final long seed;
+    private final int menuItems;
+    private final List<String> dishes;
+    private final ZipfDistribution dishPopularity;
+    private final ZipfDistribution cityPopularity;
+    private final ZipfDistribution wordPopularity;
+    private final ZipfDistribution reviewCounts;
+
+    /**
+     * @param seed               Seed the whole catalog is derived from.
+     * @param menuItems          Menu items per restaurant.
+     * @param dishCount          Number of distinct dishes menus are drawn from.
+     * @param exponent           Zipf exponent of dish, city and review count skew; around 1 is realistic.
+     * @param maxReviewsPerItem  Upper bound of the reviews generated for one menu item.
+     */
+    public SyntheticCatalog(long seed, int menuItems, int dishCount, double exponent, int maxReviewsPerItem) {
+        List<String> allDishes = new ArrayList<>();
+        for (Menu.ItemName itemName : Menu.ItemName.values()) {
+            allDishes.add(itemName.getValue());
+        }
+        for (String dish : DISHES) {
+            for (String style : STYLES) {
+                allDishes.add(style + " " + dish);
+            }
+        }
+        if (dishCount < 1 || dishCount > allDishes.size()) {
+            throw new IllegalArgumentException("Dish count must be between 1 and " + allDishes.size() + ", got " + dishCount);
+        }
+        if (menuItems < 1 || menuItems > dishCount) {
+            throw new IllegalArgumentException("Menu items must be between 1 and the dish count " + dishCount + ", got " + menuItems);
+        }
+
+        this.seed = seed;
+        this.menuItems = menuItems;
+        this.dishes = allDishes.subList(0, dishCount);
+        this.dishPopularity = new ZipfDistribution(dishCount, exponent);
+        this.cityPopularity = new ZipfDistribution(CITIES.length, exponent);
+        this.wordPopularity = new ZipfDistribution(NAME_ADJECTIVES.length, exponent / 2);
+        // Ranks 1..max + 1 stand for 0..max reviews
+        this.reviewCounts = new ZipfDistribution(maxReviewsPerItem + 1, exponent);
+    }
+
+    /**
+     * @param index The zero-based index of the restaurant.
+     * @return The restaurant with the given index; its name is unique within the catalog.
+     */
+    public Restaurant restaurant(long index) {
+        Random random = new Random(mix(seed, index));
+
+        String name = pick(NAME_ADJECTIVES, random) + " " + pick(NAME_NOUNS, random) + " "
+                + NAME_KINDS[random.nextInt(NAME_KINDS.length)] + " " + (index + 1);
+        String address = (1 + random.nextInt(9999)) + " " + STREETS[random.nextInt(STREETS.length)] + " "
+                + STREET_KINDS[random.nextInt(STREET_KINDS.length)] + ", " + CITIES[cityPopularity.sample(random) - 1]
+                + " " + (100000 + random.nextInt(900000));
+
+        // Distinct dishes, the popular ones more likely; bounded rejection, then the most popular unused ones
+        Set<Integer> ranks = new LinkedHashSet<>();
+        for (int attempt = 0; ranks.size() < menuItems && attempt < menuItems * 20; attempt++) {
+            ranks.add(dishPopularity.sample(random));
+        }
+        for (int rank = 1; ranks.size() < menuItems; rank++) {
+            ranks.add(rank);
+        }
+
+        List<Menu> items = new ArrayList<>(menuItems);
+        for (int rank : ranks) {
+            String price = String.format(Locale.ROOT, "%.2f", 100 + random.nextInt(10001) / 100.0);
+            String ratings = String.format(Locale.ROOT, "%.1f", 1 + random.nextInt(91) / 10.0);
+            items.add(new Menu(dishes.get(rank - 1), ratings, price));
+        }
+
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantName(name);
+        restaurant.setAddress(address);
+        restaurant.setMenuList(new MenuList(items));
+        return restaurant;
+    }
+
+    /**
+     * @param restaurant A restaurant of this catalog.
+     * @return The reviews of the restaurant's menu items, with ids that are stable across runs.
+     */
+    public List<ItemReview> reviews(Restaurant restaurant) {
+        Random random = new Random(mix(seed, restaurant.getRestaurantName().hashCode()));
+        List<ItemReview> reviews = new ArrayList<>();
+        for (Menu menu : restaurant.getMenuList().getItems()) {
+            int count = reviewCounts.sample(random) - 1;
+            double itemRating = Double.parseDouble(menu.getRatings());
+            for (int i = 0; i < count; i++) {
+                double rating = Math.max(1, Math.min(10, Math.round(itemRating + random.nextGaussian())));
+                reviews.add(new ItemReview(restaurant.getRestaurantName() + "/" + menu.getItemName() + "/" + i,
+                        restaurant.getRestaurantName(), menu.getItemName(), String.valueOf((int) rating),
+                        COMMENTS[random.nextInt(COMMENTS.length)]));
+            }
+        }
+        return reviews;
+    }
+
+    private String pick(String[] words, Random random) {
+        return words[wordPopularity.sample(random) - 1];
+    }
+
+    // SplitMix64 finalizer, so that neighbouring indexes get unrelated random streams
+    private static long mix(long seed, long index) {
+        long z = seed + index * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,39 @@
+package dataload.batch;
+
+import model.Restaurant;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Reads the first N restaurants of a {@link SyntheticCatalog}. Restaurants are generated from their
+ * index, so a restart jumps straight to the saved read count instead of regenerating what came before.
+ */
+public class SyntheticRestaurantReader extends AbstractItemCountingItemStreamItemReader<Restaurant> {
+
+    private final SyntheticCatalog catalog;
+
+    public SyntheticRestaurantReader(SyntheticCatalog catalog, int restaurants) {
+        this.catalog = catalog;
+        setName(ClassUtils.getShortName(SyntheticRestaurantReader.class));
+        setMaxItemCount(restaurants);
+    }
+
+    @Override
+    protected Restaurant doRead() {
+        // The count has already been incremented for the item being read
+        return catalog.restaurant(getCurrentItemCount() - 1);
+    }
+
+    @Override
+    protected void jumpToItem(int itemIndex) {
+        // Nothing to skip; doRead derives the next restaurant from the current item count
+    }
+
+    @Override
+    protected void doOpen() {
+    }
+
+    @Override
+    protected void doClose() {
+    }
+}
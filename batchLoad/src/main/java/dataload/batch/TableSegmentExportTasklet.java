@@ -0,0 +1,84 @@
+package dataload.batch;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.document.ItemUtils;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Scans one segment of a table and writes its items to a gzip-compressed JSON Lines shard, one item
+ * per line in the document JSON form (numbers as numbers, maps and lists nested), which is what the
+ * loader's reader expects.
+ * <p>
+ * The shard is written to a temporary file and renamed once complete, so a failed segment never
+ * leaves a truncated shard behind; a restarted export scans the failed segments again from the start.
+ */
+public class TableSegmentExportTasklet implements Tasklet {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TableSegmentExportTasklet.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final AmazonDynamoDB amazonDynamoDB;
+    private final String table;
+    private final int segment;
+    private final int totalSegments;
+    private final Path shard;
+    private final int pageSize;
+
+    public TableSegmentExportTasklet(AmazonDynamoDB amazonDynamoDB, String table, int segment, int totalSegments,
+                                     Path shard, int pageSize) {
+        this.amazonDynamoDB = amazonDynamoDB;
+        this.table = table;
+        this.segment = segment;
+        this.totalSegments = totalSegments;
+        this.shard = shard;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        Path temporary = shard.resolveSibling(shard.getFileName() + ".tmp");
+        long items = 0;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            Map<String, AttributeValue> exclusiveStartKey = null;
+            do {
+                ScanResult page = amazonDynamoDB.scan(new ScanRequest()
+                        .withTableName(table)
+                        .withSegment(segment)
+                        .withTotalSegments(totalSegments)
+                        .withLimit(pageSize)
+                        .withExclusiveStartKey(exclusiveStartKey));
+                for (Map<String, AttributeValue> item : page.getItems()) {
+                    writer.write(ItemUtils.toItem(item).toJSON());
+                    writer.write('\n');
+                }
+                items += page.getItems().size();
+                contribution.incrementWriteCount(page.getItems().size());
+                exclusiveStartKey = page.getLastEvaluatedKey();
+            } while (exclusiveStartKey != null && !exclusiveStartKey.isEmpty());
+        }
+
+        Files.move(temporary, shard, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LOGGER.info("Exported segment {} of {} of table {}: {} items to {}", segment, totalSegments, table, items, shard);
+        return RepeatStatus.FINISHED;
+    }
+}
@@ -0,0 +1,69 @@
+package dataload.config;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import dataload.batch.AntiEntropyTasklet;
+import dataload.repository.RestaurantRepository;
+import dataload.repository.TableAliasRepository;
+import model.SearchRestaurant;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Consistency check of the searchrestaurant table against the restaurant table, run with
+ * {@code --spring.batch.job.names=antiEntropyJob}, e.g. nightly. When the tables agree it costs one
+ * scan of each; only divergent buckets are read again and repaired.
+ */
+@Configuration
+public class AntiEntropyConf {
+
+    // Job builder factory for creating batch jobs
+    @Autowired
+    private JobBuilderFactory jobs;
+
+    // Step builder factory for creating batch steps
+    @Autowired
+    private StepBuilderFactory steps;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private TableAliasRepository tableAliasRepository;
+
+    // The Merkle trees have 2^depth buckets
+    @Value("${batchload.anti-entropy.depth:12}")
+    private int depth;
+
+    // Segments of the parallel scans of both tables
+    @Value("${batchload.anti-entropy.scan-segments:4}")
+    private int scanSegments;
+
+    // false only reports the divergent restaurants
+    @Value("${batchload.anti-entropy.repair:true}")
+    private boolean repair;
+
+    // Bean definition for the anti-entropy job
+    @Bean
+    public Job antiEntropyJob() {
+        return jobs.get("antiEntropyJob")
+                .incrementer(new RunIdIncrementer()) // Every check is a new job instance and rescans both tables
+                .start(antiEntropyStep())
+                .build();
+    }
+
+    // Bean definition for the step comparing both tables and repairing the divergent buckets
+    @Bean
+    public Step antiEntropyStep() {
+        String alias = DynamoDBMapperConfig.DefaultTableNameResolver.INSTANCE.getTableName(SearchRestaurant.class, DynamoDBMapperConfig.DEFAULT);
+        return steps.get("antiEntropyStep")
+                .tasklet(new AntiEntropyTasklet(restaurantRepository, tableAliasRepository, alias, depth, scanSegments, repair))
+                .build();
+    }
+}
@@ -1,16 +1,39 @@
 package dataload.config;
 
+import com.amazonaws.AmazonClientException;
+import dataload.batch.ByteRangePartitioner;
+import dataload.batch.ContentHashIndex;
+import dataload.batch.DeltaLoadReportListener;
+import dataload.batch.ExportShardPartitioner;
+import dataload.batch.ProgressListener;
+import dataload.batch.RestaurantItemProcessor;
+import dataload.batch.RestaurantItemWriter;
+import dataload.batch.RestaurantJsonReader;
+import dataload.batch.ResumingRunIdIncrementer;
 import dataload.repository.RestaurantRepository;
+import dataload.util.WriteRateController;
+import model.Restaurant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
-import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.item.validator.ValidationException;
+import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
 public class BatchConf {
@@ -22,12 +45,6 @@ public class BatchConf {
     @Autowired
     RestaurantRepository restaurantRepository;
 
-    // Bean definition for the task that loads data
-    @Autowired
-    public LoadData myTaskOne(RestaurantRepository restaurantRepository) {
-        return new LoadData(restaurantRepository);
-    }
-
     // Job builder factory for creating batch jobs
     @Autowired
     private JobBuilderFactory jobs;
@@ -36,21 +53,164 @@ public class BatchConf {
     @Autowired
     private StepBuilderFactory steps;
 
+    // Job explorer and repository, used to find and resume an unfinished load
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private WriteRateController writeRateController;
+
+    // Resume the last load if it did not complete instead of starting a new one
+    @Value("${batchload.restart:true}")
+    private boolean restart;
+
+    // Restaurants read, processed and written per transaction; the mapper splits each chunk into BatchWriteItem requests of 25
+    @Value("${batchload.chunk-size:100}")
+    private int chunkSize;
+
+    // Invalid restaurants skipped before the step fails
+    @Value("${batchload.skip-limit:100}")
+    private int skipLimit;
+
+    // Attempts per chunk when DynamoDB rejects or throttles a write
+    @Value("${batchload.retry-limit:5}")
+    private int retryLimit;
+
+    // Worker steps the input is split over; each one loads its own byte range on its own thread
+    @Value("${batchload.partitions:4}")
+    private int partitions;
+
+    // Write (and publish) only new or changed restaurants, found by comparing content hashes with the stored ones
+    @Value("${batchload.delta.enabled:false}")
+    private boolean delta;
+
+    // Segments of the parallel scan reading the stored content hashes
+    @Value("${batchload.delta.scan-segments:4}")
+    private int scanSegments;
+
+    // Input file, also read by the partitioner
+    @Value("${batchload.input:classpath:data.json}")
+    private String input;
+
     // Bean definition for the main batch job
     @Bean
     public Job demoJob() {
+        if (delta) {
+            return jobs.get("demoJob")
+                    .incrementer(new ResumingRunIdIncrementer("demoJob", jobExplorer, jobRepository, restart))
+                    .listener(new DeltaLoadReportListener(contentHashIndex(), "loadStep")) // Logs unchanged, changed and new counts
+                    .start(hashScanStep()) // Index the stored content hashes first
+                    .next(loadStep())
+                    .build();
+        }
         return jobs.get("demoJob")
-                .incrementer(new RunIdIncrementer()) // Incrementer for generating unique job run IDs
-                .start(stepOne()) // Starting point of the job: Step "stepOne"
+                .incrementer(new ResumingRunIdIncrementer("demoJob", jobExplorer, jobRepository, restart)) // New run ID, or the failed run's parameters in restart mode
+                .start(loadStep()) // Starting point of the job: Step "loadStep"
+                .build();
+    }
+
+    // Bean definition for the step scanning the stored content hashes of a delta load
+    @Bean
+    public Step hashScanStep() {
+        return steps.get("hashScanStep")
+                .tasklet((contribution, chunkContext) -> {
+                    contribution.incrementReadCount(contentHashIndex().refresh());
+                    return RepeatStatus.FINISHED;
+                })
+                .allowStartIfComplete(true) // The index lives in memory, so a restarted load has to scan again
+                .build();
+    }
+
+    // Bean definition for the content hashes shared by the processor and writer of a delta load
+    @Bean
+    public ContentHashIndex contentHashIndex() {
+        return new ContentHashIndex(restaurantRepository, scanSegments);
+    }
+
+    // Bean definition for the manager step splitting the input over the worker steps
+    @Bean
+    public Step loadStep() {
+        LOGGER.info("Loading restaurants with up to {} partitions", partitions);
+        return steps.get("loadStep")
+                .partitioner("loadWorkerStep", partitioner())
+                .step(loadWorkerStep())
+                .gridSize(partitions)
+                .taskExecutor(partitionTaskExecutor())
                 .build();
     }
 
-    // Bean definition for the first step in the batch job
+    // One partition per shard when loading a table export, byte ranges of the input file otherwise
+    private Partitioner partitioner() {
+        return ExportShardPartitioner.isExport(input) ? new ExportShardPartitioner(input) : new ByteRangePartitioner(input);
+    }
+
+    // Bean definition for the threads running the worker steps
+    @Bean
+    public ThreadPoolTaskExecutor partitionTaskExecutor() {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(partitions);
+        taskExecutor.setMaxPoolSize(partitions);
+        taskExecutor.setThreadNamePrefix("load-partition-");
+        return taskExecutor;
+    }
+
+    // Bean definition for the chunk-oriented worker step: read, validate and batch-write the restaurants of one partition
     @Bean
-    public Step stepOne() {
-        return steps.get("stepOne")
-                .tasklet(myTaskOne(restaurantRepository)) // Tasklet that executes the data loading task
+    public Step loadWorkerStep() {
+        ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
+        backOffPolicy.setInitialInterval(100);
+        backOffPolicy.setMaxInterval(5000);
+
+        LOGGER.info("Loading restaurants in chunks of {}", chunkSize);
+        return steps.get("loadWorkerStep")
+                .<Restaurant, Restaurant>chunk(chunkSize)
+                .reader(restaurantReader(null, null, null))
+                .processor(restaurantProcessor())
+                .writer(restaurantWriter())
+                .faultTolerant()
+                .skip(ValidationException.class) // Invalid restaurants are logged and left out
+                .skipLimit(skipLimit)
+                .retry(AmazonClientException.class) // Throttling, unprocessed items and transient client errors
+                .retry(AmqpException.class) // Delta load events the broker did not confirm
+                .retryLimit(retryLimit)
+                .backOffPolicy(backOffPolicy)
+                .listener((RetryListener) progressListener()) // Counts retries
+                .listener((StepExecutionListener) progressListener()) // Tracks the partition for the progress endpoint
                 .build();
     }
 
+    // Bean definition for the listener tracking the worker steps of the running job, shared by all jobs
+    @Bean
+    public ProgressListener progressListener() {
+        return new ProgressListener(writeRateController);
+    }
+
+    // Bean definition for the reader streaming one partition's restaurants from a JSON array or JSON Lines file (or export shard), optionally gzipped
+    @Bean
+    @StepScope
+    public RestaurantJsonReader restaurantReader(@Value("#{stepExecutionContext['startOffset']}") Long startOffset,
+                                                 @Value("#{stepExecutionContext['endOffset']}") Long endOffset,
+                                                 @Value("#{stepExecutionContext['input']}") String shard) {
+        RestaurantJsonReader reader = new RestaurantJsonReader(shard != null ? shard : input);
+        reader.setName("restaurantReader");
+        reader.setStartOffset(startOffset);
+        reader.setEndOffset(endOffset);
+        return reader;
+    }
+
+    // Bean definition for the processor validating and hashing each restaurant, and filtering out unchanged ones in delta mode
+    @Bean
+    public RestaurantItemProcessor restaurantProcessor() {
+        return new RestaurantItemProcessor(delta ? contentHashIndex() : null);
+    }
+
+    // Bean definition for the writer saving each chunk with BatchWriteItem, and publishing it in delta mode
+    @Bean
+    public RestaurantItemWriter restaurantWriter() {
+        return new RestaurantItemWriter(restaurantRepository, delta ? contentHashIndex() : null);
+    }
+
 }
@@ -6,6 +6,8 @@ import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import model.alias.AliasTableNameResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -30,14 +32,30 @@ public class DynamoDBConfig {
     private String dynamodbSecretKey;
 
 
+    @Value(AliasTableNameResolver.REFRESH_MS)
+    private long tableAliasRefreshMs;
+
     /**
-     * Creates a bean for the DynamoDBMapper.
+     * Creates a bean for the DynamoDBMapper. Table names are resolved through the table aliases, so
+     * loads write to whichever searchrestaurant table is current.
      *
      * @return The DynamoDBMapper object.
      */
     @Bean
     public DynamoDBMapper dynamoDBMapper() {
-        return new DynamoDBMapper(buildAmazonDynamoDB());
+        return new DynamoDBMapper(amazonDynamoDB(), DynamoDBMapperConfig.builder()
+                .withTableNameResolver(new AliasTableNameResolver(amazonDynamoDB(), tableAliasRefreshMs))
+                .build());
+    }
+
+    /**
+     * Creates a bean for the AmazonDynamoDB client, shared by the mapper and the table export.
+     *
+     * @return The AmazonDynamoDB client.
+     */
+    @Bean
+    public AmazonDynamoDB amazonDynamoDB() {
+        return buildAmazonDynamoDB();
     }
 
     /**
@@ -0,0 +1,160 @@
+package dataload.config;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dataload.batch.ExportManifestTasklet;
+import dataload.batch.ScanSegmentPartitioner;
+import dataload.batch.TableSegmentExportTasklet;
+import dataload.model.ExportManifest;
+import dataload.repository.TableAliasRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Export of a DynamoDB table to gzip-compressed JSON Lines shards plus a manifest, run with
+ * {@code --spring.batch.job.names=exportJob}. An export of the restaurant table can be loaded again
+ * by pointing {@code batchload.input} at its directory.
+ */
+@Configuration
+public class ExportConf {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExportConf.class);
+
+    private static final String EXPORT_WORKER_STEP = "exportWorkerStep";
+
+    // Job builder factory for creating batch jobs
+    @Autowired
+    private JobBuilderFactory jobs;
+
+    // Step builder factory for creating batch steps
+    @Autowired
+    private StepBuilderFactory steps;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private AmazonDynamoDB amazonDynamoDB;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TableAliasRepository tableAliasRepository;
+
+    // Table to export: restaurant, searchrestaurant, review or user
+    @Value("${batchload.export.table:restaurant}")
+    private String table;
+
+    // Parallel scan segments, each written to a shard of its own on its own thread
+    @Value("${batchload.export.segments:4}")
+    private int segments;
+
+    // Items per scan request
+    @Value("${batchload.export.page-size:1000}")
+    private int pageSize;
+
+    // Directory the export of each table is written to, in a subdirectory named after the table
+    @Value("${batchload.export.output-dir:./export}")
+    private String outputDir;
+
+    // Bean definition for the export job: clear the previous export, scan the segments, then write the manifest
+    @Bean
+    public Job exportJob() {
+        return jobs.get("exportJob")
+                .incrementer(new RunIdIncrementer()) // Every export is a new job instance and rescans all segments
+                .start(exportCleanStep())
+                .next(exportStep())
+                .next(exportManifestStep())
+                .build();
+    }
+
+    // Bean definition for the step removing the manifest and shards of a previous export of the table
+    @Bean
+    public Step exportCleanStep() {
+        return steps.get("exportCleanStep")
+                .tasklet((contribution, chunkContext) -> {
+                    Path directory = outputDirectory();
+                    Files.createDirectories(directory);
+                    Files.deleteIfExists(directory.resolve(ExportManifest.FILE_NAME));
+                    try (DirectoryStream<Path> shards = Files.newDirectoryStream(directory, table + "-*.jsonl.gz*")) {
+                        for (Path shard : shards) {
+                            Files.delete(shard);
+                        }
+                    }
+                    return RepeatStatus.FINISHED;
+                })
+                .build();
+    }
+
+    // Bean definition for the manager step spreading the scan segments over the worker steps
+    @Bean
+    public Step exportStep() {
+        LOGGER.info("Exporting table {} with {} segments to {}", table, segments, outputDir);
+        return steps.get("exportStep")
+                .partitioner(EXPORT_WORKER_STEP, new ScanSegmentPartitioner(table))
+                .step(exportWorkerStep())
+                .gridSize(segments)
+                .taskExecutor(exportTaskExecutor())
+                .build();
+    }
+
+    // Bean definition for the threads running the worker steps
+    @Bean
+    public ThreadPoolTaskExecutor exportTaskExecutor() {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(segments);
+        taskExecutor.setMaxPoolSize(segments);
+        taskExecutor.setThreadNamePrefix("export-segment-");
+        return taskExecutor;
+    }
+
+    // Bean definition for the worker step exporting one scan segment
+    @Bean
+    public Step exportWorkerStep() {
+        return steps.get(EXPORT_WORKER_STEP)
+                .tasklet(segmentExportTasklet(null, null, null))
+                .build();
+    }
+
+    // Bean definition for the tasklet scanning one segment into its shard
+    @Bean
+    @StepScope
+    public TableSegmentExportTasklet segmentExportTasklet(@Value("#{stepExecutionContext['segment']}") Integer segment,
+                                                          @Value("#{stepExecutionContext['totalSegments']}") Integer totalSegments,
+                                                          @Value("#{stepExecutionContext['shardFile']}") String shardFile) {
+        // Export whichever table the name currently points at, in case it is an alias
+        return new TableSegmentExportTasklet(amazonDynamoDB, tableAliasRepository.currentTable(table), segment, totalSegments,
+                outputDirectory().resolve(shardFile), pageSize);
+    }
+
+    // Bean definition for the step writing the manifest once every segment has been exported
+    @Bean
+    public Step exportManifestStep() {
+        return steps.get("exportManifestStep")
+                .tasklet(new ExportManifestTasklet(jobRepository, objectMapper, EXPORT_WORKER_STEP, table, segments, outputDirectory()))
+                .build();
+    }
+
+    private Path outputDirectory() {
+        return Paths.get(outputDir, table);
+    }
+}
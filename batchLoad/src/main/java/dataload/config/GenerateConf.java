@@ -0,0 +1,152 @@
+package dataload.config;
+
+import com.amazonaws.AmazonClientException;
+import dataload.batch.ProgressListener;
+import dataload.batch.ResumingRunIdIncrementer;
+import dataload.batch.RestaurantItemProcessor;
+import dataload.batch.RestaurantItemWriter;
+import dataload.batch.ReviewItemWriter;
+import dataload.batch.SyntheticCatalog;
+import dataload.batch.SyntheticRestaurantReader;
+import dataload.repository.ReviewRepository;
+import model.Restaurant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.item.support.CompositeItemWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+
+import java.util.Arrays;
+
+/**
+ * Generation of a synthetic catalog for scale testing, run with {@code --spring.batch.job.names=generateJob}.
+ * Generated restaurants go through the same processor and writer as a load, their reviews are
+ * written to the review table alongside.
+ */
+@Configuration
+public class GenerateConf {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GenerateConf.class);
+
+    // Job builder factory for creating batch jobs
+    @Autowired
+    private JobBuilderFactory jobs;
+
+    // Step builder factory for creating batch steps
+    @Autowired
+    private StepBuilderFactory steps;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private ProgressListener progressListener;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    // Processor and writer of the load pipeline
+    @Autowired
+    private RestaurantItemProcessor restaurantProcessor;
+
+    @Autowired
+    private RestaurantItemWriter restaurantWriter;
+
+    @Value("${batchload.restart:true}")
+    private boolean restart;
+
+    @Value("${batchload.chunk-size:100}")
+    private int chunkSize;
+
+    @Value("${batchload.retry-limit:5}")
+    private int retryLimit;
+
+    // Restaurants generated
+    @Value("${batchload.generate.restaurants:10000}")
+    private int restaurants;
+
+    // Menu items per restaurant
+    @Value("${batchload.generate.menu-items:8}")
+    private int menuItems;
+
+    // Distinct dishes menus are drawn from, ranked by popularity
+    @Value("${batchload.generate.dishes:100}")
+    private int dishes;
+
+    // Zipf exponent of dish popularity, city sizes and review counts
+    @Value("${batchload.generate.zipf-exponent:1.1}")
+    private double zipfExponent;
+
+    // Upper bound of the reviews of one menu item
+    @Value("${batchload.generate.max-reviews-per-item:20}")
+    private int maxReviewsPerItem;
+
+    // The same seed always generates the same catalog
+    @Value("${batchload.generate.seed:42}")
+    private long seed;
+
+    // Bean definition for the generation job
+    @Bean
+    public Job generateJob() {
+        return jobs.get("generateJob")
+                .incrementer(new ResumingRunIdIncrementer("generateJob", jobExplorer, jobRepository, restart)) // Resume a failed generation from its checkpoint
+                .start(generateStep())
+                .build();
+    }
+
+    // Bean definition for the chunk-oriented step generating, validating and writing restaurants and their reviews
+    @Bean
+    public Step generateStep() {
+        ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
+        backOffPolicy.setInitialInterval(100);
+        backOffPolicy.setMaxInterval(5000);
+
+        LOGGER.info("Generating {} restaurants with {} menu items each from seed {}", restaurants, menuItems, seed);
+        return steps.get("generateStep")
+                .<Restaurant, Restaurant>chunk(chunkSize)
+                .reader(syntheticRestaurantReader())
+                .processor(restaurantProcessor)
+                .writer(restaurantAndReviewWriter())
+                .faultTolerant()
+                .retry(AmazonClientException.class) // Throttling, unprocessed items and transient client errors
+                .retryLimit(retryLimit)
+                .backOffPolicy(backOffPolicy)
+                .listener((RetryListener) progressListener) // Counts retries
+                .listener((StepExecutionListener) progressListener) // Tracks the step for the progress endpoint
+                .build();
+    }
+
+    // Bean definition for the catalog the reader and the review writer derive from the seed
+    @Bean
+    public SyntheticCatalog syntheticCatalog() {
+        return new SyntheticCatalog(seed, menuItems, dishes, zipfExponent, maxReviewsPerItem);
+    }
+
+    // Bean definition for the reader generating restaurants by index
+    @Bean
+    public SyntheticRestaurantReader syntheticRestaurantReader() {
+        return new SyntheticRestaurantReader(syntheticCatalog(), restaurants);
+    }
+
+    // Bean definition for the writer saving each chunk of restaurants, then their reviews
+    @Bean
+    public CompositeItemWriter<Restaurant> restaurantAndReviewWriter() {
+        CompositeItemWriter<Restaurant> writer = new CompositeItemWriter<>();
+        writer.setDelegates(Arrays.asList(restaurantWriter, new ReviewItemWriter(reviewRepository, syntheticCatalog())));
+        return writer;
+    }
+}
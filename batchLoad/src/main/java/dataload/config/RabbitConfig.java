@@ -0,0 +1,36 @@
+package dataload.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import model.codec.MessageCodec;
+import model.events.RestaurantEvents;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitConfig {
+
+    /**
+     * Creates the codec for the events published by delta loads.
+     *
+     * @param objectMapper The application's ObjectMapper, used when the codec is json.
+     * @param codec        The messaging.codec setting, cbor or json.
+     * @return The MessageCodec object.
+     */
+    @Bean
+    public MessageCodec messageCodec(ObjectMapper objectMapper, @Value("${messaging.codec:cbor}") String codec) {
+        return new MessageCodec(objectMapper, codec);
+    }
+
+    /**
+     * Declares the topic exchange restaurant events are published to. Consumers declare and bind
+     * their own queues.
+     *
+     * @return The TopicExchange object.
+     */
+    @Bean
+    public TopicExchange restaurantEventsExchange() {
+        return new TopicExchange(RestaurantEvents.EXCHANGE);
+    }
+}
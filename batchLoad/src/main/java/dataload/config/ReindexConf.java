@@ -0,0 +1,258 @@
+package dataload.config;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import dataload.batch.ProgressListener;
+import dataload.batch.RestaurantScanReader;
+import dataload.batch.ResumingRunIdIncrementer;
+import dataload.batch.ScanSegmentPartitioner;
+import dataload.batch.SearchRestaurantItemWriter;
+import dataload.repository.RestaurantRepository;
+import dataload.repository.TableAliasRepository;
+import model.Restaurant;
+import model.RestaurantMapper;
+import model.SearchRestaurant;
+import model.alias.AliasTableNameResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Rebuild of searchFood's read model, run with {@code --spring.batch.job.names=reindexJob}.
+ * <p>
+ * The restaurant table is parallel-scanned into a new searchrestaurant table while searchFood keeps
+ * serving and updating the current one. The searchrestaurant alias is then switched to the new table
+ * in one conditional put. Once every searchFood instance has resolved the alias again, restaurants
+ * changed since the rebuild started are copied again, unless searchFood has already written a newer
+ * version. The previous table is kept for rollback. Writes
+ * are paced by the shared write rate, so the rebuild stays within {@code batchload.throttle}.
+ */
+@Configuration
+public class ReindexConf {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReindexConf.class);
+
+    // The searchrestaurant alias, i.e. the table name SearchRestaurant is mapped to
+    private static final String ALIAS = DynamoDBMapperConfig.DefaultTableNameResolver.INSTANCE
+            .getTableName(SearchRestaurant.class, DynamoDBMapperConfig.DEFAULT);
+
+    // Job execution context keys, shared by the steps of one rebuild
+    private static final String PREVIOUS_TABLE = "previousTable";
+    private static final String SHADOW_TABLE = "shadowTable";
+    private static final String STARTED_AT = "rebuildStartedAt";
+    private static final String SWITCHED_AT = "aliasSwitchedAt";
+
+    private static final DateTimeFormatter TABLE_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    // Job builder factory for creating batch jobs
+    @Autowired
+    private JobBuilderFactory jobs;
+
+    // Step builder factory for creating batch steps
+    @Autowired
+    private StepBuilderFactory steps;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private ProgressListener progressListener;
+
+    @Autowired
+    private DynamoDBMapper dynamoDBMapper;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private TableAliasRepository tableAliasRepository;
+
+    @Value("${batchload.restart:true}")
+    private boolean restart;
+
+    @Value("${batchload.chunk-size:100}")
+    private int chunkSize;
+
+    @Value("${batchload.retry-limit:5}")
+    private int retryLimit;
+
+    // Parallel scan segments of the restaurant table, each rebuilt on its own thread
+    @Value("${batchload.reindex.segments:4}")
+    private int segments;
+
+    // Items per scan request
+    @Value("${batchload.reindex.page-size:1000}")
+    private int pageSize;
+
+    // Restaurants changed this long before the rebuild started are copied again too, to cover clock skew
+    @Value("${batchload.reindex.catch-up-margin-minutes:5}")
+    private long catchUpMarginMinutes;
+
+    // How long searchFood keeps resolving the previous table after the switch
+    @Value(AliasTableNameResolver.REFRESH_MS)
+    private long tableAliasRefreshMs;
+
+    // Extra wait after the refresh interval, for writes that resolved the previous table just before it ran out
+    @Value("${batchload.reindex.switch-margin-ms:5000}")
+    private long switchMarginMs;
+
+    // Bean definition for the rebuild job
+    @Bean
+    public Job reindexJob() {
+        return jobs.get("reindexJob")
+                .incrementer(new ResumingRunIdIncrementer("reindexJob", jobExplorer, jobRepository, restart)) // A failed rebuild resumes with the same shadow table
+                .start(reindexPrepareStep())
+                .next(reindexStep())
+                .next(reindexSwitchStep())
+                .next(reindexCatchUpStep())
+                .build();
+    }
+
+    // Bean definition for the step creating the shadow table
+    @Bean
+    public Step reindexPrepareStep() {
+        return steps.get("reindexPrepareStep")
+                .tasklet((contribution, chunkContext) -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    String shadowTable = ALIAS + "_" + now.format(TABLE_SUFFIX);
+                    ExecutionContext jobContext = jobContext(chunkContext);
+                    jobContext.putString(PREVIOUS_TABLE, tableAliasRepository.currentTable(ALIAS));
+                    jobContext.putString(SHADOW_TABLE, shadowTable);
+                    jobContext.putString(STARTED_AT, String.valueOf(now.minusMinutes(catchUpMarginMinutes)));
+                    tableAliasRepository.createTableFor(SearchRestaurant.class, shadowTable);
+                    LOGGER.info("Rebuilding {} into {}", jobContext.getString(PREVIOUS_TABLE), shadowTable);
+                    return RepeatStatus.FINISHED;
+                })
+                .build();
+    }
+
+    // Bean definition for the manager step spreading the scan segments over the worker steps
+    @Bean
+    public Step reindexStep() {
+        return steps.get("reindexStep")
+                .partitioner("reindexWorkerStep", new ScanSegmentPartitioner("restaurant"))
+                .step(reindexWorkerStep())
+                .gridSize(segments)
+                .taskExecutor(reindexTaskExecutor())
+                .build();
+    }
+
+    // Bean definition for the threads running the worker steps
+    @Bean
+    public ThreadPoolTaskExecutor reindexTaskExecutor() {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(segments);
+        taskExecutor.setMaxPoolSize(segments);
+        taskExecutor.setThreadNamePrefix("reindex-segment-");
+        return taskExecutor;
+    }
+
+    // Bean definition for the chunk-oriented worker step copying one scan segment into the shadow table
+    @Bean
+    public Step reindexWorkerStep() {
+        ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
+        backOffPolicy.setInitialInterval(100);
+        backOffPolicy.setMaxInterval(5000);
+
+        ItemProcessor<Restaurant, SearchRestaurant> toSearchRestaurant = RestaurantMapper::toSearchRestaurant;
+        return steps.get("reindexWorkerStep")
+                .<Restaurant, SearchRestaurant>chunk(chunkSize)
+                .reader(restaurantScanReader(null, null))
+                .processor(toSearchRestaurant)
+                .writer(shadowTableWriter(null))
+                .faultTolerant()
+                .retry(AmazonClientException.class) // Throttling, unprocessed items and transient client errors
+                .retryLimit(retryLimit)
+                .backOffPolicy(backOffPolicy)
+                .listener((RetryListener) progressListener) // Counts retries
+                .listener((StepExecutionListener) progressListener) // Tracks the step for the progress endpoint
+                .build();
+    }
+
+    // Bean definition for the reader scanning one segment of the restaurant table
+    @Bean
+    @StepScope
+    public RestaurantScanReader restaurantScanReader(@Value("#{stepExecutionContext['segment']}") Integer segment,
+                                                     @Value("#{stepExecutionContext['totalSegments']}") Integer totalSegments) {
+        return new RestaurantScanReader(dynamoDBMapper, segment, totalSegments, pageSize);
+    }
+
+    // Bean definition for the writer saving each chunk to the shadow table
+    @Bean
+    @StepScope
+    public SearchRestaurantItemWriter shadowTableWriter(@Value("#{jobExecutionContext['shadowTable']}") String shadowTable) {
+        return new SearchRestaurantItemWriter(restaurantRepository, shadowTable);
+    }
+
+    // Bean definition for the step pointing the alias at the shadow table
+    @Bean
+    public Step reindexSwitchStep() {
+        return steps.get("reindexSwitchStep")
+                .tasklet((contribution, chunkContext) -> {
+                    ExecutionContext jobContext = jobContext(chunkContext);
+                    tableAliasRepository.switchAlias(ALIAS, jobContext.getString(PREVIOUS_TABLE), jobContext.getString(SHADOW_TABLE));
+                    jobContext.putLong(SWITCHED_AT, System.currentTimeMillis());
+                    LOGGER.info("Table {} is kept for rollback; switch the alias back to it or drop it", jobContext.getString(PREVIOUS_TABLE));
+                    return RepeatStatus.FINISHED;
+                })
+                .build();
+    }
+
+    // Bean definition for the step copying restaurants changed during the rebuild, without overwriting newer versions
+    @Bean
+    public Step reindexCatchUpStep() {
+        return steps.get("reindexCatchUpStep")
+                .tasklet((contribution, chunkContext) -> {
+                    ExecutionContext jobContext = jobContext(chunkContext);
+                    String shadowTable = jobContext.getString(SHADOW_TABLE);
+
+                    // Until then searchFood may still write changes to the previous table only
+                    long wait = jobContext.getLong(SWITCHED_AT) + tableAliasRefreshMs + switchMarginMs - System.currentTimeMillis();
+                    if (wait > 0) {
+                        LOGGER.info("Waiting {} ms for searchFood to resolve {} to {}", wait, ALIAS, shadowTable);
+                        Thread.sleep(wait);
+                    }
+
+                    int written = 0;
+                    for (Restaurant restaurant : restaurantRepository.findRestaurantsChangedSince(jobContext.getString(STARTED_AT))) {
+                        contribution.incrementReadCount();
+                        if (restaurantRepository.saveSearchRestaurantIfNewer(RestaurantMapper.toSearchRestaurant(restaurant), shadowTable)) {
+                            written++;
+                        }
+                    }
+                    contribution.incrementWriteCount(written);
+                    LOGGER.info("Caught up {} restaurants changed during the rebuild", written);
+                    return RepeatStatus.FINISHED;
+                })
+                .build();
+    }
+
+    private static ExecutionContext jobContext(ChunkContext chunkContext) {
+        return chunkContext.getStepContext().getStepExecution().getJobExecution().getExecutionContext();
+    }
+}
@@ -0,0 +1,22 @@
+package dataload.controller;
+
+import dataload.batch.ProgressListener;
+import dataload.model.JobProgress;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController //class is a REST controller
+@RequestMapping("/batchload/api/v1") //Mapping the controller to the specified base URL path.
+public class ProgressController {
+
+    @Autowired
+    private ProgressListener progressListener;
+
+    // Progress of the running job; poll it while a load runs to see its rate, ETA and whether it is cpu-bound, io-bound or throttled
+    @GetMapping("/progress")
+    public JobProgress progress() {
+        return progressListener.snapshot();
+    }
+}
@@ -0,0 +1,32 @@
+package dataload.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data // Lombok annotation to generate getters, setters, equals, hashCode, and toString methods
+@AllArgsConstructor // Lombok annotation to generate a constructor with all arguments
+@NoArgsConstructor // Lombok annotation to generate a no-argument constructor
+public class ExportManifest {
+
+    public static final String FILE_NAME = "manifest.json";
+
+    private String table; // Name of the exported table
+    private String createdAt; // Time the export completed
+    private int totalSegments; // Number of scan segments, one shard each
+    private long itemCount; // Total number of items over all shards
+    private List<Shard> shards; // Shards in segment order
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Shard {
+
+        private String file; // File name of the shard, relative to the manifest
+        private int segment; // Scan segment the shard was written from
+        private long itemCount; // Number of items (lines) in the shard
+
+    }
+}
@@ -0,0 +1,31 @@
+package dataload.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data // Lombok annotation to generate getters, setters, equals, hashCode, and toString methods
+@NoArgsConstructor // Lombok annotation to generate a no-argument constructor
+public class JobProgress {
+
+    private String jobName; // Name of the job running or last run, null before the first step starts
+    private String status; // Batch status of the job execution
+    private String startTime; // Time the job execution started
+    private long elapsedSeconds; // Seconds since the first step started
+    private int runningSteps; // Worker steps currently running
+    private long readCount; // Items read by all steps of the execution
+    private long writeCount; // Items written
+    private long filterCount; // Items filtered out by the processor, e.g. unchanged restaurants of a delta load
+    private long skipCount; // Items skipped as invalid
+    private long retryCount; // Failed chunk attempts retried by the steps
+    private double itemsPerSecond; // Items written per second since the first step started
+    private double recentItemsPerSecond; // Items written per second over the last minute
+    private Double percentComplete; // Share of the input read, if the input size is known
+    private Long etaSeconds; // Estimated seconds until the input is read, if the input size is known
+    private double writeUnitsPerSecond; // Rate batch writes are currently paced at
+    private long throttleEvents; // Batch writes throttled or left with unprocessed items
+    private double readProcessSeconds; // Thread time spent reading, parsing and validating items
+    private double dynamoDBWriteSeconds; // Thread time spent in BatchWriteItem requests and review batch saves
+    private double throttleWaitSeconds; // Thread time spent waiting for write capacity or backing off
+    private String bound; // cpu, io or throttled: whichever of the three times above is largest
+
+}
@@ -1,19 +1,51 @@
 package dataload.repository;
 
 
-import dataload.model.Restaurant;
+import model.Restaurant;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
-import dataload.model.SearchRestaurant;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBDeleteExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputExceededException;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import dataload.util.WriteRateController;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import model.RestaurantMapper;
+import model.SearchRestaurant;
+import model.codec.MessageCodec;
+import model.events.RestaurantEvents;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageBuilder;
 import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Repository
 public class RestaurantRepository {
@@ -31,34 +63,423 @@ public class RestaurantRepository {
     @Autowired
     private DynamoDBMapper dynamoDBMapper;
 
+    @Autowired
+    private WriteRateController writeRateController;
+
+    @Autowired
+    private MessageCodec messageCodec;
+
+    @Value("${batchload.throttle.max-retries:10}")
+    private int maxRetries;
+
+    @Value("${batchload.publish.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs = 5000;
+
+    @Value("${batchload.publish.max-attempts:3}")
+    private int publishMaxAttempts = 3;
+
+    // Latency of each BatchWriteItem round trip, as a histogram; shared with ReviewRepository
+    private final Timer batchWriteLatency = Timer.builder("batchload.dynamodb.batch.write")
+            .description("Latency of BatchWriteItem requests")
+            .publishPercentileHistogram()
+            .register(Metrics.globalRegistry);
+
+    private final Counter unprocessedItems = Counter.builder("batchload.write.unprocessed")
+            .description("Items DynamoDB left unprocessed and batch writes retried")
+            .register(Metrics.globalRegistry);
+
+    // BatchWriteItem takes at most 25 items; an even count keeps a restaurant and its projection together
+    private static final int ITEMS_PER_REQUEST = 24;
+
+    // The mapper hands unprocessed items back at once; retries are paced by writeRateController instead
+    private static final DynamoDBMapperConfig NO_RETRY_CONFIG = DynamoDBMapperConfig.builder()
+            .withBatchWriteRetryStrategy(new DynamoDBMapperConfig.BatchWriteRetryStrategy() {
+                @Override
+                public int getMaxRetryOnUnprocessedItems(Map<String, List<WriteRequest>> batchWriteItemInput) {
+                    return 0;
+                }
+
+                @Override
+                public long getDelayBeforeRetryUnprocessedItems(Map<String, List<WriteRequest>> unprocessedItems, int retriesAttempted) {
+                    return 0;
+                }
+            })
+            .build();
+
     /**
-     * Saves a restaurant in the repository.
+     * Saves a chunk of restaurants and their search projections with BatchWriteItem, overwriting
+     * whatever is stored under the same names.
+     * <p>
+     * Each restaurant is written in the same multi-table request as its search projection, so both
+     * tables advance together and a chunk of n restaurants costs n / 12 round trips instead of two
+     * per restaurant.
      *
-     * @param restaurant The restaurant to be saved.
-     * @return The saved restaurant.
+     * @param restaurants The restaurants to be saved.
+     * @throws SdkClientException if some items are still unprocessed after the configured retries.
+     * @throws InterruptedException if the thread is interrupted while waiting for write capacity.
      */
-    public Restaurant saveRestaurant(Restaurant restaurant) {
+    public void saveRestaurants(List<? extends Restaurant> restaurants) throws InterruptedException {
+        List<Object> items = new ArrayList<>(restaurants.size() * 2);
+        for (Restaurant restaurant : restaurants) {
+            // BatchWriteItem cannot check or bump versions; loaded restaurants start at version 1
+            if (restaurant.getVersion() == null) {
+                restaurant.setVersion(1L);
+            }
+            items.add(restaurant);
+            items.add(RestaurantMapper.toSearchRestaurant(restaurant));
+        }
+
+        for (int from = 0; from < items.size(); from += ITEMS_PER_REQUEST) {
+            writeBatch(items.subList(from, Math.min(from + ITEMS_PER_REQUEST, items.size())), NO_RETRY_CONFIG);
+        }
+        LOGGER.info("Saved {} restaurants", restaurants.size());
+    }
+
+    /**
+     * Saves search restaurants to the given table with BatchWriteItem, overwriting whatever is stored
+     * under the same names, at the shared write rate.
+     *
+     * @param searchRestaurants The search restaurants to be saved.
+     * @param tableName         The physical table to write to, whatever the alias points at.
+     * @throws SdkClientException if some items are still unprocessed after the configured retries.
+     * @throws InterruptedException if the thread is interrupted while waiting for write capacity.
+     */
+    public void saveSearchRestaurants(List<? extends SearchRestaurant> searchRestaurants, String tableName) throws InterruptedException {
+        DynamoDBMapperConfig config = DynamoDBMapperConfig.builder()
+                .withBatchWriteRetryStrategy(NO_RETRY_CONFIG.getBatchWriteRetryStrategy())
+                .withTableNameOverride(DynamoDBMapperConfig.TableNameOverride.withTableNameReplacement(tableName))
+                .build();
+        for (int from = 0; from < searchRestaurants.size(); from += ITEMS_PER_REQUEST) {
+            writeBatch(new ArrayList<>(searchRestaurants.subList(from, Math.min(from + ITEMS_PER_REQUEST, searchRestaurants.size()))), config);
+        }
+        LOGGER.info("Saved {} search restaurants to table {}", searchRestaurants.size(), tableName);
+    }
+
+    /**
+     * Saves a search restaurant to the given table unless a newer or equal version is stored there,
+     * with the same conditional put searchFood uses for its commands. A search restaurant without a
+     * version is saved unconditionally.
+     *
+     * @param searchRestaurant The search restaurant to be saved.
+     * @param tableName        The physical table to write to.
+     * @return true if it was saved, false if a newer or equal version is already stored.
+     * @throws InterruptedException if the thread is interrupted while waiting for write capacity.
+     */
+    public boolean saveSearchRestaurantIfNewer(SearchRestaurant searchRestaurant, String tableName) throws InterruptedException {
+        return saveSearchRestaurantIf(searchRestaurant, tableName, "<");
+    }
+
+    /**
+     * Saves a search restaurant to the given table unless a newer version is stored there. Unlike
+     * {@link #saveSearchRestaurantIfNewer}, a copy of the same version is overwritten, which repairs
+     * a copy whose content drifted without a version change.
+     *
+     * @param searchRestaurant The search restaurant to be saved.
+     * @param tableName        The physical table to write to.
+     * @return true if it was saved, false if a newer version is already stored.
+     * @throws InterruptedException if the thread is interrupted while waiting for write capacity.
+     */
+    public boolean saveSearchRestaurantUnlessNewer(SearchRestaurant searchRestaurant, String tableName) throws InterruptedException {
+        return saveSearchRestaurantIf(searchRestaurant, tableName, "<=");
+    }
+
+    /**
+     * Deletes a search restaurant from the given table if it still has the version it was read with.
+     *
+     * @param searchRestaurant The search restaurant as read.
+     * @param tableName        The physical table to delete from.
+     * @return true if it was deleted, false if it has been written since.
+     * @throws InterruptedException if the thread is interrupted while waiting for write capacity.
+     */
+    public boolean deleteSearchRestaurantIfUnchanged(SearchRestaurant searchRestaurant, String tableName) throws InterruptedException {
+        Map<String, String> names = new HashMap<>();
+        names.put("#version", "version");
+        DynamoDBDeleteExpression deleteExpression = new DynamoDBDeleteExpression().withExpressionAttributeNames(names);
+        if (searchRestaurant.getVersion() == null) {
+            deleteExpression.withConditionExpression("attribute_not_exists(#version)");
+        } else {
+            deleteExpression.withConditionExpression("#version = :version")
+                    .withExpressionAttributeValues(Collections.singletonMap(":version",
+                            new AttributeValue().withN(String.valueOf(searchRestaurant.getVersion()))));
+        }
+        writeRateController.acquire(1);
         try {
-            dynamoDBMapper.save(restaurant);
+            dynamoDBMapper.delete(searchRestaurant, deleteExpression, tableNameConfig(tableName));
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    // Conditional put comparing the stored version with the one saved, e.g. "<" to only save newer versions
+    private boolean saveSearchRestaurantIf(SearchRestaurant searchRestaurant, String tableName, String storedVersionIs) throws InterruptedException {
+        DynamoDBMapperConfig config = tableNameConfig(tableName);
+        writeRateController.acquire(1);
+        if (searchRestaurant.getVersion() == null) {
+            dynamoDBMapper.save(searchRestaurant, config);
+            return true;
+        }
+
+        Map<String, String> names = new HashMap<>();
+        names.put("#version", "version");
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":version", new AttributeValue().withN(String.valueOf(searchRestaurant.getVersion())));
+        DynamoDBSaveExpression saveExpression = new DynamoDBSaveExpression()
+                .withConditionExpression("attribute_not_exists(#version) OR #version " + storedVersionIs + " :version")
+                .withExpressionAttributeNames(names)
+                .withExpressionAttributeValues(values);
+        try {
+            dynamoDBMapper.save(searchRestaurant, saveExpression, config);
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    // Writes one request's worth of items at the controlled rate, retrying unprocessed ones with jittered backoff
+    private void writeBatch(List<Object> items, DynamoDBMapperConfig config) throws InterruptedException {
+        // Both projections share the restaurant name as key, so pending items are keyed by table and name
+        Map<Class<?>, String> tableNames = new HashMap<>();
+        Map<String, Object> pending = new LinkedHashMap<>();
+        for (Object item : items) {
+            String tableName = tableNames.computeIfAbsent(item.getClass(), type -> tableNameOf(type, config));
+            pending.put(itemKey(tableName, restaurantNameOf(item)), item);
+        }
+
+        for (int attempt = 0; ; attempt++) {
+            writeRateController.acquire(pending.size());
+            long start = System.nanoTime();
+            List<DynamoDBMapper.FailedBatch> failedBatches = dynamoDBMapper.batchSave(pending.values(), config);
+            batchWriteLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (failedBatches.isEmpty()) {
+                writeRateController.onSuccess();
+                return;
+            }
+
+            Set<String> unprocessed = new HashSet<>();
+            for (DynamoDBMapper.FailedBatch failedBatch : failedBatches) {
+                Exception exception = failedBatch.getException();
+                if (exception != null && !(exception instanceof ProvisionedThroughputExceededException)) {
+                    throw new SdkClientException("Batch write failed", exception);
+                }
+                for (Map.Entry<String, List<WriteRequest>> entry : failedBatch.getUnprocessedItems().entrySet()) {
+                    for (WriteRequest writeRequest : entry.getValue()) {
+                        unprocessed.add(itemKey(entry.getKey(), writeRequest.getPutRequest().getItem().get("restaurantName").getS()));
+                    }
+                }
+            }
+            if (attempt >= maxRetries) {
+                throw new SdkClientException(unprocessed.size() + " items could not be written after " + maxRetries + " retries");
+            }
 
-            //SearchRestaurant searchRestaurant = restaurant;
+            // Throttled, or items were left unprocessed: slow down everyone and retry only what is left
+            writeRateController.onThrottle();
+            unprocessedItems.increment(unprocessed.size());
+            pending.keySet().retainAll(unprocessed);
+            writeRateController.backoff(attempt);
+        }
+    }
 
-            LOGGER.info("Restaurant saved successfully: {}", restaurant.getRestaurantName());
+    /**
+     * Reads the name, content hash and version of every stored restaurant with a parallel scan.
+     *
+     * @param totalSegments The number of segments scanned in parallel.
+     * @return The projected restaurants by name.
+     */
+    public Map<String, Restaurant> findContentHashes(int totalSegments) {
+        Map<String, String> attributeNames = new HashMap<>();
+        attributeNames.put("#name", "restaurantName");
+        attributeNames.put("#hash", "contentHash");
+        attributeNames.put("#version", "version");
+        DynamoDBScanExpression scanExpression = new DynamoDBScanExpression()
+                .withProjectionExpression("#name, #hash, #version")
+                .withExpressionAttributeNames(attributeNames);
 
-            SearchRestaurant searchRestaurant = new SearchRestaurant();
-            searchRestaurant.setRestaurantName(restaurant.getRestaurantName());
-            searchRestaurant.setAddress(restaurant.getAddress());
-            searchRestaurant.setMenuList(restaurant.getMenuList());
-            searchRestaurant.setCreatedAt(restaurant.getCreatedAt());
-            searchRestaurant.setUpdatedAt(restaurant.getUpdatedAt());
-            dynamoDBMapper.save(searchRestaurant);
+        Map<String, Restaurant> contentHashes = new HashMap<>();
+        for (Restaurant restaurant : dynamoDBMapper.parallelScan(Restaurant.class, scanExpression, totalSegments)) {
+            contentHashes.put(restaurant.getRestaurantName(), restaurant);
+        }
+        return contentHashes;
+    }
 
+    /**
+     * Scans the restaurant table with a parallel scan. Pages are fetched while the result is iterated
+     * and dropped once iterated, so a scan of any size runs in constant memory; the result can only
+     * be iterated once.
+     *
+     * @param totalSegments The number of segments scanned in parallel.
+     * @return The restaurants, in no particular order.
+     */
+    public Iterable<Restaurant> scanRestaurants(int totalSegments) {
+        DynamoDBMapperConfig config = DynamoDBMapperConfig.builder()
+                .withPaginationLoadingStrategy(DynamoDBMapperConfig.PaginationLoadingStrategy.ITERATION_ONLY)
+                .build();
+        return dynamoDBMapper.parallelScan(Restaurant.class, new DynamoDBScanExpression(), totalSegments, config);
+    }
 
-        } catch (Exception e) {
-            LOGGER.error("Failed to save restaurant: {}", restaurant.getRestaurantName(), e);
-            //throw e; // Rethrow the exception to be handled by the caller
+    /**
+     * Scans a search restaurant table with a parallel scan, in constant memory like
+     * {@link #scanRestaurants}.
+     *
+     * @param totalSegments The number of segments scanned in parallel.
+     * @param tableName     The physical table to scan.
+     * @return The search restaurants, in no particular order.
+     */
+    public Iterable<SearchRestaurant> scanSearchRestaurants(int totalSegments, String tableName) {
+        DynamoDBMapperConfig config = DynamoDBMapperConfig.builder()
+                .withPaginationLoadingStrategy(DynamoDBMapperConfig.PaginationLoadingStrategy.ITERATION_ONLY)
+                .withTableNameOverride(DynamoDBMapperConfig.TableNameOverride.withTableNameReplacement(tableName))
+                .build();
+        return dynamoDBMapper.parallelScan(SearchRestaurant.class, new DynamoDBScanExpression(), totalSegments, config);
+    }
+
+    /**
+     * Reads restaurants by name with strongly consistent BatchGetItem requests.
+     *
+     * @param restaurantNames The names of the restaurants.
+     * @return The restaurants found by name; names without a restaurant are missing.
+     */
+    public Map<String, Restaurant> findRestaurants(Collection<String> restaurantNames) {
+        if (restaurantNames.isEmpty()) {
+            return Collections.emptyMap();
         }
-        return restaurant;
+        List<Restaurant> keys = new ArrayList<>(restaurantNames.size());
+        for (String restaurantName : restaurantNames) {
+            Restaurant key = new Restaurant();
+            key.setRestaurantName(restaurantName);
+            keys.add(key);
+        }
+        DynamoDBMapperConfig config = DynamoDBMapperConfig.builder()
+                .withConsistentReads(DynamoDBMapperConfig.ConsistentReads.CONSISTENT)
+                .build();
+
+        Map<String, Restaurant> restaurants = new HashMap<>();
+        for (List<Object> items : dynamoDBMapper.batchLoad(keys, config).values()) {
+            for (Object item : items) {
+                Restaurant restaurant = (Restaurant) item;
+                restaurants.put(restaurant.getRestaurantName(), restaurant);
+            }
+        }
+        return restaurants;
+    }
+
+    /**
+     * Scans for restaurants created or updated at or after the given time. The result is loaded
+     * page by page while it is iterated.
+     *
+     * @param since A {@link java.time.LocalDateTime} string, compared with createdAt and updatedAt.
+     * @return The matching restaurants.
+     */
+    public List<Restaurant> findRestaurantsChangedSince(String since) {
+        Map<String, String> names = new HashMap<>();
+        names.put("#createdAt", "createdAt");
+        names.put("#updatedAt", "updatedAt");
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":since", new AttributeValue(since));
+        DynamoDBScanExpression scanExpression = new DynamoDBScanExpression()
+                .withFilterExpression("#createdAt >= :since OR #updatedAt >= :since")
+                .withExpressionAttributeNames(names)
+                .withExpressionAttributeValues(values);
+        return dynamoDBMapper.scan(Restaurant.class, scanExpression);
+    }
+
+    /**
+     * Publishes a {@code restaurant.added} event per restaurant, carrying the version it was written with.
+     * <p>
+     * The events are published like OutboxRelay publishes its outbox: all of them before waiting for
+     * any confirm, as mandatory, and nacked, returned or unconfirmed ones are sent again a bounded
+     * number of times. Consumers ignore versions they already have, so duplicates are harmless.
+     * <p>
+     * {@link #saveRestaurants} has already written the search projection, so searchFood serves the load
+     * even if an event is lost, e.g. when a failed load is restarted after its chunk was written and the
+     * restaurants are no longer seen as changed. The events are for the other consumers of the topic.
+     *
+     * @param restaurants The restaurants to publish.
+     * @throws JsonProcessingException if a restaurant cannot be encoded.
+     * @throws AmqpException if some events are still unconfirmed after the configured attempts.
+     * @throws InterruptedException if the thread is interrupted while waiting for confirms.
+     */
+    public void publishRestaurants(List<? extends Restaurant> restaurants) throws JsonProcessingException, InterruptedException {
+        List<Message> pending = new ArrayList<>(restaurants.size());
+        for (Restaurant restaurant : restaurants) {
+            pending.add(MessageBuilder
+                    .withBody(messageCodec.encode(RestaurantMapper.toAddRestaurantCommand(restaurant)))
+                    .setContentType(messageCodec.getContentType())
+                    .build());
+        }
+        for (int attempt = 1; attempt <= publishMaxAttempts && !pending.isEmpty(); attempt++) {
+            pending = publishOnce(pending);
+        }
+        if (!pending.isEmpty()) {
+            throw new AmqpException(pending.size() + " restaurant events were not confirmed after " + publishMaxAttempts + " attempts");
+        }
+        LOGGER.info("Published {} restaurants", restaurants.size());
+    }
+
+    // Sends all messages before waiting for any confirm; returns the messages that have to be sent again
+    private List<Message> publishOnce(List<Message> messages) throws InterruptedException {
+        List<CorrelationData> correlations = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            CorrelationData correlationData = new CorrelationData();
+            try {
+                // Mandatory is set by spring.rabbitmq.template.mandatory, so unroutable events come back on correlationData
+                rabbitTemplate.convertAndSend(RestaurantEvents.EXCHANGE, RestaurantEvents.RESTAURANT_ADDED, message, correlationData);
+            } catch (RuntimeException e) {
+                correlationData.getFuture().setException(e);
+            }
+            correlations.add(correlationData);
+        }
+
+        List<Message> retry = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        for (int i = 0; i < messages.size(); i++) {
+            CorrelationData correlationData = correlations.get(i);
+            try {
+                CorrelationData.Confirm confirm = correlationData.getFuture()
+                        .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                // A returned message arrives before its ack
+                ReturnedMessage returned = correlationData.getReturned();
+                if (confirm.isAck() && returned == null) {
+                    continue;
+                }
+                if (returned != null) {
+                    LOGGER.warn("Broker returned restaurant event as unroutable: {}", returned.getReplyText());
+                } else {
+                    LOGGER.warn("Broker nacked restaurant event: {}", confirm.getReason());
+                }
+            } catch (ExecutionException e) {
+                LOGGER.warn("Failed to publish restaurant event", e.getCause());
+            } catch (TimeoutException e) {
+                LOGGER.warn("Restaurant event was not confirmed within {} ms", confirmTimeoutMs);
+            }
+            retry.add(messages.get(i));
+        }
+        return retry;
+    }
+
+    private static DynamoDBMapperConfig tableNameConfig(String tableName) {
+        return DynamoDBMapperConfig.builder()
+                .withTableNameOverride(DynamoDBMapperConfig.TableNameOverride.withTableNameReplacement(tableName))
+                .build();
+    }
+
+    // The table the mapper writes items of the type to; resolved per request since table aliases can switch
+    private String tableNameOf(Class<?> type, DynamoDBMapperConfig config) {
+        DynamoDBMapperConfig.TableNameOverride override = config.getTableNameOverride();
+        if (override != null && override.getTableName() != null) {
+            return override.getTableName();
+        }
+        return dynamoDBMapper.generateCreateTableRequest(type).getTableName();
+    }
+
+    private static String restaurantNameOf(Object item) {
+        return item instanceof Restaurant
+                ? ((Restaurant) item).getRestaurantName()
+                : ((SearchRestaurant) item).getRestaurantName();
+    }
+
+    private static String itemKey(String tableName, String restaurantName) {
+        return tableName + "/" + restaurantName;
     }
 
-}
\ No newline at end of file
+}
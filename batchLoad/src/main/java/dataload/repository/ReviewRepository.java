@@ -0,0 +1,57 @@
+package dataload.repository;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import dataload.model.ItemReview;
+import dataload.util.WriteRateController;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Repository
+public class ReviewRepository {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReviewRepository.class);
+
+    @Autowired
+    private DynamoDBMapper dynamoDBMapper;
+
+    @Autowired
+    private WriteRateController writeRateController;
+
+    // Times whole batchSave calls, so it is kept apart from the per-request batchload.dynamodb.batch.write
+    private final Timer batchSaveLatency = Timer.builder("batchload.review.batch.save")
+            .description("Latency of review batchSave calls, each split by the mapper into BatchWriteItem requests of up to 25 items")
+            .publishPercentileHistogram()
+            .register(Metrics.globalRegistry);
+
+    /**
+     * Saves reviews with BatchWriteItem, overwriting reviews with the same ids, at the write rate shared
+     * with the restaurant writes.
+     *
+     * @param reviews The reviews to be saved.
+     * @throws SdkClientException if some reviews could not be written after the mapper's retries.
+     * @throws InterruptedException if the thread is interrupted while waiting for write capacity.
+     */
+    public void saveReviews(List<ItemReview> reviews) throws InterruptedException {
+        if (reviews.isEmpty()) {
+            return;
+        }
+        writeRateController.acquire(reviews.size());
+        long start = System.nanoTime();
+        List<DynamoDBMapper.FailedBatch> failedBatches = dynamoDBMapper.batchSave(reviews);
+        batchSaveLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!failedBatches.isEmpty()) {
+            writeRateController.onThrottle();
+            throw new SdkClientException(failedBatches.size() + " review batches could not be written", failedBatches.get(0).getException());
+        }
+        writeRateController.onSuccess();
+        LOGGER.info("Saved {} reviews", reviews.size());
+    }
+}
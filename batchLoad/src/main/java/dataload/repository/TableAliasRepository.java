@@ -0,0 +1,117 @@
+package dataload.repository;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.AttributeDefinition;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BillingMode;
+import com.amazonaws.services.dynamodbv2.model.CreateTableRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.KeySchemaElement;
+import com.amazonaws.services.dynamodbv2.model.KeyType;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.ResourceNotFoundException;
+import com.amazonaws.services.dynamodbv2.model.ScalarAttributeType;
+import com.amazonaws.services.dynamodbv2.util.TableUtils;
+import model.alias.AliasTableNameResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Creates tables and switches the table aliases resolved by {@link AliasTableNameResolver}. Reads and
+ * writes go through the plain client, since the alias table is not a mapped class.
+ */
+@Repository
+public class TableAliasRepository {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TableAliasRepository.class);
+
+    @Autowired
+    private AmazonDynamoDB amazonDynamoDB;
+
+    @Autowired
+    private DynamoDBMapper dynamoDBMapper;
+
+    /**
+     * @param alias The alias, which is also the table name used while there is no alias item.
+     * @return The table the alias currently points at.
+     */
+    public String currentTable(String alias) {
+        try {
+            Map<String, AttributeValue> item = amazonDynamoDB.getItem(new GetItemRequest()
+                    .withTableName(AliasTableNameResolver.ALIAS_TABLE)
+                    .withKey(Collections.singletonMap(AliasTableNameResolver.ALIAS, new AttributeValue(alias)))
+                    .withConsistentRead(true)).getItem();
+            return item == null || !item.containsKey(AliasTableNameResolver.TABLE_NAME)
+                    ? alias : item.get(AliasTableNameResolver.TABLE_NAME).getS();
+        } catch (ResourceNotFoundException e) {
+            return alias;
+        }
+    }
+
+    /**
+     * Creates an on-demand table with the key schema and indexes of a mapped class, unless it exists,
+     * and waits until it is active.
+     *
+     * @param type      The mapped class.
+     * @param tableName The name of the new table.
+     * @throws InterruptedException if the thread is interrupted while waiting for the table.
+     */
+    public void createTableFor(Class<?> type, String tableName) throws InterruptedException {
+        CreateTableRequest createTableRequest = dynamoDBMapper.generateCreateTableRequest(type)
+                .withTableName(tableName)
+                .withBillingMode(BillingMode.PAY_PER_REQUEST);
+        if (TableUtils.createTableIfNotExists(amazonDynamoDB, createTableRequest)) {
+            LOGGER.info("Created table {}", tableName);
+        }
+        TableUtils.waitUntilActive(amazonDynamoDB, tableName);
+    }
+
+    /**
+     * Points an alias at another table in a single conditional put, creating the alias table on first use.
+     *
+     * @param alias     The alias to switch.
+     * @param fromTable The table the alias is expected to point at.
+     * @param toTable   The table the alias points at afterwards.
+     * @throws com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException if the alias was
+     *         switched by someone else in the meantime.
+     * @throws InterruptedException if the thread is interrupted while waiting for the alias table.
+     */
+    public void switchAlias(String alias, String fromTable, String toTable) throws InterruptedException {
+        TableUtils.createTableIfNotExists(amazonDynamoDB, new CreateTableRequest()
+                .withTableName(AliasTableNameResolver.ALIAS_TABLE)
+                .withKeySchema(new KeySchemaElement(AliasTableNameResolver.ALIAS, KeyType.HASH))
+                .withAttributeDefinitions(new AttributeDefinition(AliasTableNameResolver.ALIAS, ScalarAttributeType.S))
+                .withBillingMode(BillingMode.PAY_PER_REQUEST));
+        TableUtils.waitUntilActive(amazonDynamoDB, AliasTableNameResolver.ALIAS_TABLE);
+
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put(AliasTableNameResolver.ALIAS, new AttributeValue(alias));
+        item.put(AliasTableNameResolver.TABLE_NAME, new AttributeValue(toTable));
+        item.put(AliasTableNameResolver.UPDATED_AT, new AttributeValue(String.valueOf(LocalDateTime.now())));
+        Map<String, String> names = new HashMap<>();
+        names.put("#tableName", AliasTableNameResolver.TABLE_NAME);
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":from", new AttributeValue(fromTable));
+        String condition = "#tableName = :from";
+        if (fromTable.equals(alias)) {
+            // Without an alias item the alias resolves to itself, so that counts as pointing at the alias
+            names.put("#alias", AliasTableNameResolver.ALIAS);
+            condition = "attribute_not_exists(#alias) OR " + condition;
+        }
+        amazonDynamoDB.putItem(new PutItemRequest()
+                .withTableName(AliasTableNameResolver.ALIAS_TABLE)
+                .withItem(item)
+                .withConditionExpression(condition)
+                .withExpressionAttributeNames(names)
+                .withExpressionAttributeValues(values));
+        LOGGER.info("Switched table alias {} from {} to {}", alias, fromTable, toTable);
+    }
+}
@@ -0,0 +1,64 @@
+package dataload.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import model.Restaurant;
+import model.SearchRestaurant;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Computes a stable hash of the content of a restaurant: its name, address and menu. Timestamps,
+ * version and the hash itself are left out, so reloading the same catalog yields the same hashes.
+ * Search restaurants are digested with their version, so a stale copy differs from a current one.
+ */
+public final class ContentHasher {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private ContentHasher() {
+    }
+
+    /**
+     * @param restaurant The restaurant to hash.
+     * @return The SHA-256 of the restaurant's content as 64 hex digits.
+     */
+    public static String hash(Restaurant restaurant) {
+        try {
+            // A fixed-order array, so the hash does not depend on the declaration order of Restaurant
+            byte[] content = OBJECT_MAPPER.writeValueAsBytes(Arrays.asList(
+                    restaurant.getRestaurantName(), restaurant.getAddress(), restaurant.getMenuList()));
+            return toHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot hash restaurant " + restaurant.getRestaurantName(), e);
+        }
+    }
+
+    /**
+     * @param searchRestaurant The search restaurant to digest.
+     * @return The SHA-256 of the search restaurant's content and version, 32 bytes.
+     */
+    public static byte[] digest(SearchRestaurant searchRestaurant) {
+        try {
+            byte[] content = OBJECT_MAPPER.writeValueAsBytes(Arrays.asList(searchRestaurant.getRestaurantName(),
+                    searchRestaurant.getAddress(), searchRestaurant.getMenuList(), searchRestaurant.getVersion()));
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot digest search restaurant " + searchRestaurant.getRestaurantName(), e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(hex);
+    }
+}
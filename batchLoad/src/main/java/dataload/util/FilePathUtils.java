@@ -2,11 +2,21 @@ package dataload.util;
 
 import io.micrometer.core.instrument.util.IOUtils;
 
+import java.io.BufferedInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.zip.GZIPInputStream;
 
 public class FilePathUtils {
+
+    public static final String CLASSPATH_PREFIX = "classpath:";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     public static String readFileToString(String path, Class aClazz) throws IOException {
 
         try (InputStream stream = aClazz.getClassLoader().getResourceAsStream(path)) {
@@ -16,4 +26,49 @@ public class FilePathUtils {
             return IOUtils.toString(stream, Charset.defaultCharset());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Opens a filesystem path, or a class path resource prefixed with {@code classpath:}, for buffered
+     * reading. Gzip-compressed input is recognised by its magic bytes and decompressed on the fly.
+     *
+     * @param path The path of the input.
+     * @return The opened stream; the caller closes it.
+     * @throws IOException if the input cannot be opened.
+     */
+    public static InputStream openInput(String path) throws IOException {
+        InputStream raw;
+        if (path.startsWith(CLASSPATH_PREFIX)) {
+            raw = FilePathUtils.class.getClassLoader().getResourceAsStream(path.substring(CLASSPATH_PREFIX.length()));
+            if (raw == null) {
+                throw new FileNotFoundException("Class path resource not found: " + path);
+            }
+        } else {
+            raw = Files.newInputStream(Paths.get(path));
+        }
+
+        InputStream buffered = new BufferedInputStream(raw, BUFFER_SIZE);
+        return isGzip(buffered) ? new BufferedInputStream(new GZIPInputStream(buffered, BUFFER_SIZE), BUFFER_SIZE) : buffered;
+    }
+
+    /**
+     * @param path The path of the input.
+     * @return Whether the input is an uncompressed file that can be read from an arbitrary offset.
+     * @throws IOException if the input cannot be opened.
+     */
+    public static boolean isPlainFile(String path) throws IOException {
+        if (path.startsWith(CLASSPATH_PREFIX)) {
+            return false;
+        }
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(Paths.get(path)), 2)) {
+            return !isGzip(stream);
+        }
+    }
+
+    private static boolean isGzip(InputStream stream) throws IOException {
+        stream.mark(2);
+        int first = stream.read();
+        int second = stream.read();
+        stream.reset();
+        return first == 0x1f && second == 0x8b;
+    }
+}
@@ -0,0 +1,132 @@
+package dataload.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Merkle tree over 2^depth buckets of the key hash range. Each item is added to the bucket of its
+ * key; a leaf is the XOR of the digests of its items, so the order items are added in does not
+ * matter, and an inner node is the SHA-256 of its two children.
+ * <p>
+ * Two trees of the same depth built over copies of the same data have equal roots. When they do
+ * not, comparing them top-down finds the divergent buckets while skipping every equal subtree.
+ * Memory is bounded by the number of buckets, not by the number of items.
+ */
+public class MerkleTree {
+
+    private static final int DIGEST_LENGTH = 32;
+
+    private static final int MAX_DEPTH = 20;
+
+    private final int depth;
+
+    // Heap layout: the root is at 1, the children of i are at 2i and 2i + 1, the leaves from 2^depth on
+    private final byte[][] nodes;
+
+    private boolean built;
+
+    public MerkleTree(int depth) {
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH + ": " + depth);
+        }
+        this.depth = depth;
+        this.nodes = new byte[2 << depth][];
+        for (int i = 1; i < nodes.length; i++) {
+            nodes[i] = new byte[DIGEST_LENGTH];
+        }
+    }
+
+    /**
+     * @param key The key of an item.
+     * @return The bucket of the key, between 0 and 2^depth - 1.
+     */
+    public int bucketOf(String key) {
+        byte[] hash = sha256().digest(key.getBytes(StandardCharsets.UTF_8));
+        int prefix = ((hash[0] & 0xff) << 24) | ((hash[1] & 0xff) << 16) | ((hash[2] & 0xff) << 8) | (hash[3] & 0xff);
+        return prefix >>> (Integer.SIZE - depth);
+    }
+
+    /**
+     * Folds an item into the leaf of its key.
+     *
+     * @param key    The key of the item.
+     * @param digest A 32-byte digest of the item's content.
+     */
+    public void add(String key, byte[] digest) {
+        if (built) {
+            throw new IllegalStateException("Items cannot be added once the tree has been compared");
+        }
+        byte[] leaf = nodes[leafIndex(bucketOf(key))];
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            leaf[i] ^= digest[i];
+        }
+    }
+
+    /**
+     * Compares this tree with another one top-down, descending only into subtrees whose hashes differ.
+     *
+     * @param other A tree of the same depth, built over the other copy.
+     * @return The divergent buckets, in ascending order.
+     */
+    public List<Integer> diff(MerkleTree other) {
+        if (other.depth != depth) {
+            throw new IllegalArgumentException("Cannot compare trees of depth " + depth + " and " + other.depth);
+        }
+        build();
+        other.build();
+
+        List<Integer> divergent = new ArrayList<>();
+        Deque<Integer> pending = new ArrayDeque<>();
+        pending.push(1);
+        while (!pending.isEmpty()) {
+            int node = pending.pop();
+            if (Arrays.equals(nodes[node], other.nodes[node])) {
+                continue;
+            }
+            if (node >= leafIndex(0)) {
+                divergent.add(node - leafIndex(0));
+            } else {
+                // Right first, so the left child is popped first and buckets come out in order
+                pending.push(2 * node + 1);
+                pending.push(2 * node);
+            }
+        }
+        return divergent;
+    }
+
+    public int getBucketCount() {
+        return 1 << depth;
+    }
+
+    // Hashes the inner nodes bottom-up; the leaves are final from then on
+    private void build() {
+        if (built) {
+            return;
+        }
+        MessageDigest sha256 = sha256();
+        for (int node = leafIndex(0) - 1; node >= 1; node--) {
+            sha256.update(nodes[2 * node]);
+            sha256.update(nodes[2 * node + 1]);
+            nodes[node] = sha256.digest();
+        }
+        built = true;
+    }
+
+    private int leafIndex(int bucket) {
+        return (1 << depth) + bucket;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package dataload.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces batch writes of all partitions together with an additive-increase/multiplicative-decrease
+ * rate, so a load backs off as soon as DynamoDB throttles and never exceeds the configured ceiling.
+ * <p>
+ * The rate is in write units per second, counted as one unit per item. Items larger than 1 KB use more
+ * capacity than that, so the ceiling should leave some headroom.
+ * <p>
+ * The current rate, throttle events and the time spent waiting for capacity or backing off are
+ * published as {@code batchload.write.rate}, {@code batchload.throttle.events} and
+ * {@code batchload.throttle.wait}.
+ */
+@Component
+public class WriteRateController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteRateController.class);
+
+    // Rate cuts closer together than this count as one throttle event
+    private static final long DECREASE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Value("${batchload.throttle.max-write-units:1000}")
+    private double maxRate;
+
+    @Value("${batchload.throttle.initial-write-units:100}")
+    private double initialRate;
+
+    @Value("${batchload.throttle.min-write-units:10}")
+    private double minRate;
+
+    @Value("${batchload.throttle.additive-increase:10}")
+    private double additiveIncrease;
+
+    @Value("${batchload.throttle.multiplicative-decrease:0.5}")
+    private double multiplicativeDecrease;
+
+    @Value("${batchload.throttle.backoff-base-ms:50}")
+    private long backoffBaseMs;
+
+    @Value("${batchload.throttle.backoff-max-ms:5000}")
+    private long backoffMaxMs;
+
+    // Current rate and pacing state, guarded by "this"
+    private double rate;
+    private long nextFreeAt;
+    // nanoTime has an arbitrary origin, so the first cut must not be measured against 0
+    private long lastDecreaseAt = System.nanoTime() - DECREASE_INTERVAL_NANOS;
+
+    private Counter throttleEvents;
+    private Timer throttleWait;
+
+    @PostConstruct
+    public synchronized void start() {
+        rate = Math.min(initialRate, maxRate);
+        // Registered globally next to Spring Batch's own meters, which reach the actuator through it
+        Gauge.builder("batchload.write.rate", this, WriteRateController::getRate)
+                .description("Write units per second batch writes are currently paced at")
+                .register(Metrics.globalRegistry);
+        throttleEvents = Counter.builder("batchload.throttle.events")
+                .description("Batch writes throttled or left with unprocessed items")
+                .register(Metrics.globalRegistry);
+        throttleWait = Timer.builder("batchload.throttle.wait")
+                .description("Time batch writes waited for write capacity or backed off before a retry")
+                .register(Metrics.globalRegistry);
+    }
+
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    /**
+     * Blocks until the given number of write units may be spent at the current rate.
+     *
+     * @param units The write units the next request consumes.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public void acquire(int units) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(now, nextFreeAt);
+            nextFreeAt = start + (long) (units * TimeUnit.SECONDS.toNanos(1) / rate);
+            waitNanos = start - now;
+        }
+        throttleWait.record(Math.max(waitNanos, 0), TimeUnit.NANOSECONDS);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Raises the rate by the additive step after a request was fully processed.
+     */
+    public synchronized void onSuccess() {
+        rate = Math.min(maxRate, rate + additiveIncrease);
+    }
+
+    /**
+     * Cuts the rate after a throttling error or unprocessed items, at most once per second so that
+     * concurrent partitions hitting the same throttle do not collapse it.
+     */
+    public synchronized void onThrottle() {
+        throttleEvents.increment();
+        long now = System.nanoTime();
+        if (now - lastDecreaseAt < DECREASE_INTERVAL_NANOS) {
+            return;
+        }
+        lastDecreaseAt = now;
+        rate = Math.max(minRate, rate * multiplicativeDecrease);
+        LOGGER.info("Write throttled, lowering rate to {} write units/s", Math.round(rate));
+    }
+
+    /**
+     * @param attempt The number of retries so far, starting at 0.
+     * @return A random delay between zero and the exponential backoff bound ("full jitter").
+     */
+    public long backoffMillis(int attempt) {
+        long bound = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    /**
+     * Sleeps for {@link #backoffMillis(int)} before a retry.
+     *
+     * @param attempt The number of retries so far, starting at 0.
+     * @throws InterruptedException if the thread is interrupted while sleeping.
+     */
+    public void backoff(int attempt) throws InterruptedException {
+        long millis = backoffMillis(attempt);
+        throttleWait.record(millis, TimeUnit.MILLISECONDS);
+        Thread.sleep(millis);
+    }
+}
@@ -0,0 +1,50 @@
+package dataload.util;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Zipf distribution over the ranks 1..n: rank k is drawn with a probability proportional to
+ * 1 / k^exponent. Sampling is a binary search over the precomputed cumulative distribution, and is
+ * deterministic for a given {@link Random}.
+ */
+public class ZipfDistribution {
+
+    private final double exponent;
+
+    private final double[] cumulative;
+
+    public ZipfDistribution(int n, double exponent) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Zipf distribution needs at least one rank, got " + n);
+        }
+        this.exponent = exponent;
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += weight(rank);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    /**
+     * @param rank A rank from 1 to n.
+     * @return The unnormalised weight 1 / rank^exponent of the rank.
+     */
+    public double weight(int rank) {
+        return 1.0 / Math.pow(rank, exponent);
+    }
+
+    /**
+     * @param random The source of randomness.
+     * @return A rank from 1 to n.
+     */
+    public int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        // Not found (the usual case) yields -(insertion point) - 1
+        return Math.min(index >= 0 ? index + 1 : -index, cumulative.length);
+    }
+}
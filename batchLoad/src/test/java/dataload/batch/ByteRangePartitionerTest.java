@@ -0,0 +1,132 @@
+package dataload.batch;
+
+import model.Restaurant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteRangePartitionerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void partition_LargeJsonLinesFile_EveryLineIsReadByExactlyOneRange() throws Exception {
+        // Arrange: about 3 MB, with some lines indented so boundaries also fall into leading whitespace
+        List<String> expected = new ArrayList<>();
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; content.length() < 3 * 1024 * 1024; i++) {
+            String name = "Restaurant " + i;
+            expected.add(name);
+            content.append(i % 7 == 0 ? "      " : "").append(restaurantLine(name)).append('\n');
+        }
+        Path input = write("large.jsonl", content.toString());
+
+        // Act
+        Map<String, ExecutionContext> partitions = new ByteRangePartitioner(input.toString()).partition(4);
+        List<String> read = new ArrayList<>();
+        for (ExecutionContext context : partitions.values()) {
+            read.addAll(readRange(input, context.getLong(ByteRangePartitioner.START_OFFSET),
+                    context.getLong(ByteRangePartitioner.END_OFFSET)));
+        }
+
+        // Assert
+        assertEquals(3, partitions.size(), "Ranges are at least 1 MB, so a 3 MB file gets 3 of the 4 requested");
+        assertEquals(ByteRangePartitioner.UNBOUNDED, partitions.get("partition2").getLong(ByteRangePartitioner.END_OFFSET));
+        assertEquals(Files.size(input), partitions.get("partition0").getLong(ByteRangePartitioner.INPUT_SIZE));
+        assertEquals(expected, read);
+    }
+
+    @Test
+    void partition_JsonArray_ReturnsSinglePartitionWithoutSize() throws Exception {
+        // Arrange
+        Path input = write("array.json", "  [" + restaurantLine("Restaurant A") + "]");
+
+        // Act
+        Map<String, ExecutionContext> partitions = new ByteRangePartitioner(input.toString()).partition(4);
+
+        // Assert
+        assertEquals(1, partitions.size());
+        ExecutionContext context = partitions.get("partition0");
+        assertEquals(0, context.getLong(ByteRangePartitioner.START_OFFSET));
+        assertEquals(ByteRangePartitioner.UNBOUNDED, context.getLong(ByteRangePartitioner.END_OFFSET));
+        assertEquals(0, context.getLong(ByteRangePartitioner.INPUT_SIZE));
+    }
+
+    @Test
+    void read_BoundaryInsideLine_LineBelongsToTheRangeItStartsIn() throws Exception {
+        // Arrange
+        String first = restaurantLine("Restaurant A") + "\n";
+        String second = restaurantLine("Restaurant B") + "\n";
+        Path input = write("boundary.jsonl", first + second + restaurantLine("Restaurant C") + "\n");
+        long boundary = first.length() + second.length() / 2;
+
+        // Act
+        List<String> left = readRange(input, 0, boundary);
+        List<String> right = readRange(input, boundary, ByteRangePartitioner.UNBOUNDED);
+
+        // Assert
+        assertEquals(List.of("Restaurant A", "Restaurant B"), left);
+        assertEquals(List.of("Restaurant C"), right);
+    }
+
+    @Test
+    void read_BoundaryInsideLeadingWhitespace_LineBelongsToTheRangeItStartsIn() throws Exception {
+        // Arrange: the boundary falls between the start of the indented line and its object
+        String first = restaurantLine("Restaurant A") + "\n";
+        Path input = write("indented.jsonl", first + "        " + restaurantLine("Restaurant B") + "\n");
+        long boundary = first.length() + 4;
+
+        // Act
+        List<String> left = readRange(input, 0, boundary);
+        List<String> right = readRange(input, boundary, ByteRangePartitioner.UNBOUNDED);
+
+        // Assert
+        assertEquals(List.of("Restaurant A", "Restaurant B"), left);
+        assertEquals(List.of(), right);
+    }
+
+    private List<String> readRange(Path input, long startOffset, long endOffset) throws Exception {
+        RestaurantJsonReader reader = reader(input, startOffset, endOffset);
+        reader.open(new ExecutionContext());
+        try {
+            return readAll(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static RestaurantJsonReader reader(Path input, long startOffset, long endOffset) {
+        RestaurantJsonReader reader = new RestaurantJsonReader(input.toString());
+        reader.setName("restaurantReader");
+        reader.setStartOffset(startOffset);
+        reader.setEndOffset(endOffset);
+        return reader;
+    }
+
+    private static List<String> readAll(RestaurantJsonReader reader) throws Exception {
+        List<String> names = new ArrayList<>();
+        Restaurant restaurant;
+        while ((restaurant = reader.read()) != null) {
+            names.add(restaurant.getRestaurantName());
+        }
+        return names;
+    }
+
+    private Path write(String fileName, String content) throws Exception {
+        return Files.write(tempDir.resolve(fileName), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String restaurantLine(String name) {
+        return "{\"restaurantName\":\"" + name + "\",\"address\":\"1 Main Street\"}";
+    }
+}
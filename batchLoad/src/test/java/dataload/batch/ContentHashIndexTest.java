@@ -0,0 +1,108 @@
+package dataload.batch;
+
+import dataload.repository.RestaurantRepository;
+import model.Restaurant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ContentHashIndexTest {
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    private ContentHashIndex contentHashIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(restaurantRepository.findContentHashes(4)).thenReturn(Map.of(
+                "Restaurant A", stored("Restaurant A", "hash-a", 3L),
+                "Restaurant B", stored("Restaurant B", "hash-b", null)));
+        contentHashIndex = new ContentHashIndex(restaurantRepository, 4);
+        contentHashIndex.refresh();
+    }
+
+    @Test
+    void classify_UnknownName_ReturnsNew() {
+        // Arrange
+        Restaurant restaurant = hashed("Restaurant C", "hash-c");
+
+        // Act
+        ContentHashIndex.Change change = contentHashIndex.classify(restaurant);
+
+        // Assert
+        assertEquals(ContentHashIndex.Change.NEW, change);
+        assertNull(restaurant.getVersion());
+    }
+
+    @Test
+    void classify_SameHash_ReturnsUnchanged() {
+        // Arrange
+        Restaurant restaurant = hashed("Restaurant A", "hash-a");
+
+        // Act
+        ContentHashIndex.Change change = contentHashIndex.classify(restaurant);
+
+        // Assert
+        assertEquals(ContentHashIndex.Change.UNCHANGED, change);
+        assertNull(restaurant.getVersion());
+    }
+
+    @Test
+    void classify_DifferentHash_ReturnsChangedWithNextVersion() {
+        // Arrange
+        Restaurant restaurant = hashed("Restaurant A", "hash-a2");
+
+        // Act
+        ContentHashIndex.Change change = contentHashIndex.classify(restaurant);
+
+        // Assert
+        assertEquals(ContentHashIndex.Change.CHANGED, change);
+        assertEquals(4L, restaurant.getVersion());
+    }
+
+    @Test
+    void classify_DifferentHashOfUnversionedRow_ReturnsChangedWithVersionOne() {
+        // Arrange
+        Restaurant restaurant = hashed("Restaurant B", "hash-b2");
+
+        // Act
+        ContentHashIndex.Change change = contentHashIndex.classify(restaurant);
+
+        // Assert
+        assertEquals(ContentHashIndex.Change.CHANGED, change);
+        assertEquals(1L, restaurant.getVersion());
+    }
+
+    @Test
+    void recordWritten_NewAndStoredRestaurants_CountsThemSeparately() {
+        // Act
+        contentHashIndex.recordWritten(List.of(hashed("Restaurant A", "hash-a2"), hashed("Restaurant C", "hash-c"),
+                hashed("Restaurant D", "hash-d")));
+
+        // Assert
+        assertEquals(2, contentHashIndex.getNewCount());
+        assertEquals(1, contentHashIndex.getChangedCount());
+    }
+
+    private static Restaurant stored(String name, String contentHash, Long version) {
+        Restaurant restaurant = hashed(name, contentHash);
+        restaurant.setVersion(version);
+        return restaurant;
+    }
+
+    private static Restaurant hashed(String name, String contentHash) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantName(name);
+        restaurant.setContentHash(contentHash);
+        return restaurant;
+    }
+}
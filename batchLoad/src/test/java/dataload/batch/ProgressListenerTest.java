@@ -0,0 +1,192 @@
+package dataload.batch;
+
+import dataload.model.JobProgress;
+import dataload.util.WriteRateController;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProgressListenerTest {
+
+    @Mock
+    private WriteRateController writeRateController;
+
+    // The global registry keeps no values without a registry added to it; a new one per test starts at zero
+    private final SimpleMeterRegistry simpleMeterRegistry = new SimpleMeterRegistry();
+
+    private ProgressListener progressListener;
+
+    private JobExecution jobExecution;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Metrics.addRegistry(simpleMeterRegistry);
+        when(writeRateController.getRate()).thenReturn(100.0);
+        progressListener = new ProgressListener(writeRateController);
+        jobExecution = new JobExecution(new JobInstance(1L, "loadJob"), 1L, new JobParameters(), null);
+        jobExecution.setStatus(BatchStatus.STARTED);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Metrics.removeRegistry(simpleMeterRegistry);
+    }
+
+    @Test
+    void snapshot_NoJobYet_ReportsRateWithoutJob() {
+        // Act
+        JobProgress progress = progressListener.snapshot();
+
+        // Assert
+        assertNull(progress.getJobName());
+        assertNull(progress.getBound());
+        assertNull(progress.getEtaSeconds());
+        assertEquals(100.0, progress.getWriteUnitsPerSecond());
+    }
+
+    @Test
+    void snapshot_JsonLinesInput_EstimatesEtaFromBytesReadSinceStart() {
+        // Arrange
+        StepExecution stepExecution = rangeStep("loadStep:partition0", 0, 250);
+        progressListener.beforeStep(stepExecution);
+        ReflectionTestUtils.setField(progressListener, "startedAt", System.nanoTime() - TimeUnit.SECONDS.toNanos(10));
+
+        // Act
+        JobProgress progress = progressListener.snapshot();
+
+        // Assert: 250 of 1000 bytes in 10 seconds leaves 750 bytes at 25 bytes per second
+        assertEquals("loadJob", progress.getJobName());
+        assertEquals(1, progress.getRunningSteps());
+        assertEquals(25.0, progress.getPercentComplete());
+        assertTrue(progress.getEtaSeconds() >= 29 && progress.getEtaSeconds() <= 30, "ETA " + progress.getEtaSeconds());
+    }
+
+    @Test
+    void snapshot_EarlierSampleInWindow_EstimatesEtaFromRecentRate() {
+        // Arrange
+        progressListener.beforeStep(rangeStep("loadStep:partition0", 0, 250));
+        ReflectionTestUtils.setField(progressListener, "startedAt", System.nanoTime() - TimeUnit.SECONDS.toNanos(10));
+        @SuppressWarnings("unchecked")
+        Deque<long[]> samples = (Deque<long[]>) ReflectionTestUtils.getField(progressListener, "samples");
+        samples.addLast(new long[]{System.nanoTime() - TimeUnit.SECONDS.toNanos(5), 0, 200});
+
+        // Act
+        JobProgress progress = progressListener.snapshot();
+
+        // Assert: 50 bytes in the last 5 seconds leaves 750 bytes at 10 bytes per second
+        assertTrue(progress.getEtaSeconds() >= 74 && progress.getEtaSeconds() <= 75, "ETA " + progress.getEtaSeconds());
+    }
+
+    @Test
+    void snapshot_SeveralRanges_AddsBytesReadPerRange() {
+        // Arrange
+        progressListener.beforeStep(rangeStep("loadStep:partition0", 0, 300));
+        progressListener.beforeStep(rangeStep("loadStep:partition1", 500, 700));
+
+        // Act
+        JobProgress progress = progressListener.snapshot();
+
+        // Assert
+        assertEquals(50.0, progress.getPercentComplete());
+    }
+
+    @Test
+    void snapshot_ReaderWithMaxItemCount_ReportsShareOfItemsRead() {
+        // Arrange
+        StepExecution stepExecution = jobExecution.createStepExecution("generateStep");
+        stepExecution.getExecutionContext().putInt("syntheticRestaurantReader.read.count.max", 200);
+        stepExecution.getExecutionContext().putInt("syntheticRestaurantReader.read.count", 50);
+        progressListener.beforeStep(stepExecution);
+
+        // Act
+        JobProgress progress = progressListener.snapshot();
+
+        // Assert
+        assertEquals(25.0, progress.getPercentComplete());
+    }
+
+    @Test
+    void snapshot_NoInputSize_HasNoEta() {
+        // Arrange
+        progressListener.beforeStep(jobExecution.createStepExecution("reindexWorkerStep:partition0"));
+
+        // Act
+        JobProgress progress = progressListener.snapshot();
+
+        // Assert
+        assertNull(progress.getPercentComplete());
+        assertNull(progress.getEtaSeconds());
+    }
+
+    @Test
+    void snapshot_MostTimeWaitingForCapacity_IsThrottled() {
+        // Arrange
+        record("batchload.throttle.wait", 3);
+        record("batchload.dynamodb.batch.write", 2);
+        record("spring.batch.item.read", 1);
+
+        // Act & Assert
+        assertEquals("throttled", progressListener.snapshot().getBound());
+    }
+
+    @Test
+    void snapshot_MostTimeInBatchWrites_IsIoBound() {
+        // Arrange
+        record("batchload.dynamodb.batch.write", 2);
+        record("batchload.review.batch.save", 1);
+        record("spring.batch.item.read", 2);
+
+        // Act & Assert
+        assertEquals("io", progressListener.snapshot().getBound());
+    }
+
+    @Test
+    void snapshot_MostTimeReadingAndProcessing_IsCpuBound() {
+        // Arrange
+        record("spring.batch.item.read", 2);
+        record("spring.batch.item.process", 2);
+        record("batchload.dynamodb.batch.write", 3);
+
+        // Act
+        JobProgress progress = progressListener.snapshot();
+
+        // Assert
+        assertEquals(4.0, progress.getReadProcessSeconds(), 0.01);
+        assertEquals("cpu", progress.getBound());
+    }
+
+    // A worker step of a JSON Lines load whose range starts at the given offset and has read up to the other
+    private StepExecution rangeStep(String stepName, long startOffset, long offset) {
+        StepExecution stepExecution = jobExecution.createStepExecution(stepName);
+        stepExecution.setStatus(BatchStatus.STARTED);
+        ExecutionContext context = stepExecution.getExecutionContext();
+        context.putLong(ByteRangePartitioner.INPUT_SIZE, 1000);
+        context.putLong(ByteRangePartitioner.START_OFFSET, startOffset);
+        context.putLong("restaurantJsonReader." + RestaurantJsonReader.OFFSET_KEY, offset);
+        return stepExecution;
+    }
+
+    private void record(String timerName, long seconds) {
+        Timer.builder(timerName).register(Metrics.globalRegistry).record(Duration.ofSeconds(seconds));
+    }
+}
@@ -0,0 +1,108 @@
+package dataload.batch;
+
+import model.Restaurant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestaurantJsonReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void open_SavedOffset_ResumesAfterTheLastRestaurantRead() throws Exception {
+        // Arrange
+        Path input = write("resume.jsonl", restaurantLine("Restaurant A") + "\n" + restaurantLine("Restaurant B") + "\n"
+                + restaurantLine("Restaurant C") + "\n" + restaurantLine("Restaurant D") + "\n");
+        ExecutionContext context = new ExecutionContext();
+        RestaurantJsonReader failedReader = reader(input, 0, ByteRangePartitioner.UNBOUNDED);
+        failedReader.open(context);
+        failedReader.read();
+        failedReader.read();
+        failedReader.update(context);
+        failedReader.close();
+
+        // Act
+        RestaurantJsonReader restartedReader = reader(input, 0, ByteRangePartitioner.UNBOUNDED);
+        restartedReader.open(context);
+        List<String> read = readAll(restartedReader);
+        restartedReader.close();
+
+        // Assert
+        assertTrue(context.containsKey("restaurantReader." + RestaurantJsonReader.OFFSET_KEY));
+        assertEquals(List.of("Restaurant C", "Restaurant D"), read);
+    }
+
+    @Test
+    void open_SavedOffsetInsideRange_StopsAtTheEndOfTheRange() throws Exception {
+        // Arrange
+        String first = restaurantLine("Restaurant A") + "\n";
+        String second = restaurantLine("Restaurant B") + "\n";
+        Path input = write("range.jsonl", first + second + restaurantLine("Restaurant C") + "\n");
+        long end = first.length() + second.length();
+        ExecutionContext context = new ExecutionContext();
+        RestaurantJsonReader failedReader = reader(input, 0, end);
+        failedReader.open(context);
+        failedReader.read();
+        failedReader.update(context);
+        failedReader.close();
+
+        // Act
+        RestaurantJsonReader restartedReader = reader(input, 0, end);
+        restartedReader.open(context);
+        List<String> read = readAll(restartedReader);
+        restartedReader.close();
+
+        // Assert
+        assertEquals(List.of("Restaurant B"), read);
+    }
+
+    @Test
+    void read_JsonArray_ReadsEveryRestaurant() throws Exception {
+        // Arrange
+        Path input = write("array.json", "[" + restaurantLine("Restaurant A") + ",\n" + restaurantLine("Restaurant B") + "]");
+        RestaurantJsonReader reader = reader(input, 0, ByteRangePartitioner.UNBOUNDED);
+
+        // Act
+        reader.open(new ExecutionContext());
+        List<String> read = readAll(reader);
+        reader.close();
+
+        // Assert
+        assertEquals(List.of("Restaurant A", "Restaurant B"), read);
+    }
+
+    private static RestaurantJsonReader reader(Path input, long startOffset, long endOffset) {
+        RestaurantJsonReader reader = new RestaurantJsonReader(input.toString());
+        reader.setName("restaurantReader");
+        reader.setStartOffset(startOffset);
+        reader.setEndOffset(endOffset);
+        return reader;
+    }
+
+    private static List<String> readAll(RestaurantJsonReader reader) throws Exception {
+        List<String> names = new ArrayList<>();
+        Restaurant restaurant;
+        while ((restaurant = reader.read()) != null) {
+            names.add(restaurant.getRestaurantName());
+        }
+        return names;
+    }
+
+    private Path write(String fileName, String content) throws Exception {
+        return Files.write(tempDir.resolve(fileName), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String restaurantLine(String name) {
+        return "{\"restaurantName\":\"" + name + "\",\"address\":\"1 Main Street\"}";
+    }
+}
@@ -0,0 +1,125 @@
+package dataload.batch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ResumingRunIdIncrementerTest {
+
+    private static final String JOB_NAME = "loadJob";
+
+    @Mock
+    private JobExplorer jobExplorer;
+
+    @Mock
+    private JobRepository jobRepository;
+
+    private final JobParameters parameters = new JobParametersBuilder().addLong("run.id", 3L).toJobParameters();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void getNext_RestartOff_StartsNewInstance() {
+        // Arrange
+        ResumingRunIdIncrementer incrementer = new ResumingRunIdIncrementer(JOB_NAME, jobExplorer, jobRepository, false);
+
+        // Act
+        JobParameters next = incrementer.getNext(parameters);
+
+        // Assert
+        assertEquals(4L, next.getLong("run.id"));
+        verifyNoInteractions(jobRepository, jobExplorer);
+    }
+
+    @Test
+    void getNext_LastExecutionFailed_ReturnsSameParameters() {
+        // Arrange
+        when(jobRepository.getLastJobExecution(JOB_NAME, parameters)).thenReturn(finished(BatchStatus.FAILED));
+        ResumingRunIdIncrementer incrementer = new ResumingRunIdIncrementer(JOB_NAME, jobExplorer, jobRepository, true);
+
+        // Act
+        JobParameters next = incrementer.getNext(parameters);
+
+        // Assert
+        assertSame(parameters, next);
+        verify(jobRepository, never()).update(any(JobExecution.class));
+    }
+
+    @Test
+    void getNext_LastExecutionCompleted_StartsNewInstance() {
+        // Arrange
+        when(jobRepository.getLastJobExecution(JOB_NAME, parameters)).thenReturn(finished(BatchStatus.COMPLETED));
+        ResumingRunIdIncrementer incrementer = new ResumingRunIdIncrementer(JOB_NAME, jobExplorer, jobRepository, true);
+
+        // Act
+        JobParameters next = incrementer.getNext(parameters);
+
+        // Assert
+        assertEquals(4L, next.getLong("run.id"));
+    }
+
+    @Test
+    void getNext_NoPreviousExecution_StartsNewInstance() {
+        // Arrange
+        ResumingRunIdIncrementer incrementer = new ResumingRunIdIncrementer(JOB_NAME, jobExplorer, jobRepository, true);
+
+        // Act
+        JobParameters next = incrementer.getNext(parameters);
+
+        // Assert
+        assertEquals(4L, next.getLong("run.id"));
+    }
+
+    @Test
+    void getNext_LastExecutionLeftRunning_MarksItFailedAndReturnsSameParameters() {
+        // Arrange
+        JobExecution lastExecution = new JobExecution(7L);
+        lastExecution.setStatus(BatchStatus.STARTED);
+        lastExecution.setStartTime(new Date());
+        JobExecution loadedExecution = new JobExecution(7L);
+        loadedExecution.setStatus(BatchStatus.STARTED);
+        StepExecution runningStep = loadedExecution.createStepExecution("loadStep");
+        runningStep.setStatus(BatchStatus.STARTED);
+        StepExecution finishedStep = loadedExecution.createStepExecution("indexStep");
+        finishedStep.setStatus(BatchStatus.COMPLETED);
+        when(jobRepository.getLastJobExecution(JOB_NAME, parameters)).thenReturn(lastExecution);
+        when(jobExplorer.getJobExecution(7L)).thenReturn(loadedExecution);
+        ResumingRunIdIncrementer incrementer = new ResumingRunIdIncrementer(JOB_NAME, jobExplorer, jobRepository, true);
+
+        // Act
+        JobParameters next = incrementer.getNext(parameters);
+
+        // Assert
+        assertSame(parameters, next);
+        assertEquals(BatchStatus.FAILED, runningStep.getStatus());
+        assertEquals(BatchStatus.COMPLETED, finishedStep.getStatus());
+        assertEquals(BatchStatus.FAILED, loadedExecution.getStatus());
+        assertNotNull(loadedExecution.getEndTime());
+        verify(jobRepository).update(runningStep);
+        verify(jobRepository, never()).update(finishedStep);
+        verify(jobRepository).update(loadedExecution);
+    }
+
+    private static JobExecution finished(BatchStatus status) {
+        JobExecution execution = new JobExecution(5L);
+        execution.setStatus(status);
+        execution.setEndTime(new Date());
+        return execution;
+    }
+}
@@ -0,0 +1,69 @@
+package dataload.batch;
+
+import model.Menu;
+import model.Restaurant;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticCatalogTest {
+
+    @Test
+    void restaurant_SameSeed_ReturnsSameCatalog() {
+        // Arrange
+        SyntheticCatalog first = new SyntheticCatalog(42L, 5, 30, 1.0, 20);
+        SyntheticCatalog second = new SyntheticCatalog(42L, 5, 30, 1.0, 20);
+
+        // Act & Assert: also in a different order, as restarted generations read from the middle
+        for (long index = 99; index >= 0; index--) {
+            Restaurant restaurant = first.restaurant(index);
+            assertEquals(restaurant, second.restaurant(index));
+            assertEquals(first.reviews(restaurant), second.reviews(restaurant));
+        }
+    }
+
+    @Test
+    void restaurant_DifferentSeed_ReturnsDifferentCatalog() {
+        // Arrange
+        SyntheticCatalog first = new SyntheticCatalog(42L, 5, 30, 1.0, 20);
+        SyntheticCatalog second = new SyntheticCatalog(43L, 5, 30, 1.0, 20);
+
+        // Act
+        int differing = 0;
+        for (long index = 0; index < 20; index++) {
+            if (!first.restaurant(index).equals(second.restaurant(index))) {
+                differing++;
+            }
+        }
+
+        // Assert
+        assertTrue(differing > 0);
+    }
+
+    @Test
+    void restaurant_AnyIndex_HasUniqueNameAndDistinctMenuItems() {
+        // Arrange
+        SyntheticCatalog catalog = new SyntheticCatalog(7L, 8, 10, 1.2, 5);
+        Set<String> names = new HashSet<>();
+
+        // Act & Assert
+        for (long index = 0; index < 200; index++) {
+            Restaurant restaurant = catalog.restaurant(index);
+            assertTrue(names.add(restaurant.getRestaurantName()), "Duplicate name " + restaurant.getRestaurantName());
+            Set<String> items = new HashSet<>();
+            for (Menu menu : restaurant.getMenuList().getItems()) {
+                assertTrue(items.add(menu.getItemName()), "Duplicate menu item " + menu.getItemName());
+            }
+            assertEquals(8, items.size());
+        }
+    }
+
+    @Test
+    void constructor_MoreMenuItemsThanDishes_Throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new SyntheticCatalog(1L, 11, 10, 1.0, 5));
+    }
+}
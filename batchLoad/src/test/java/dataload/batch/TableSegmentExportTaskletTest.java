@@ -0,0 +1,131 @@
+package dataload.batch;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TableSegmentExportTaskletTest {
+
+    @Mock
+    private AmazonDynamoDB amazonDynamoDB;
+
+    @TempDir
+    Path directory;
+
+    private StepExecution stepExecution;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        stepExecution = new StepExecution("exportStep", new JobExecution(1L));
+    }
+
+    @Test
+    void execute_SeveralPages_WritesEveryItemAsJsonLine() throws Exception {
+        // Arrange
+        Map<String, AttributeValue> lastKey = Collections.singletonMap("restaurantName", new AttributeValue("B"));
+        when(amazonDynamoDB.scan(any(ScanRequest.class)))
+                .thenReturn(new ScanResult().withItems(List.of(item("A", "12.5"), item("B", "3"))).withLastEvaluatedKey(lastKey))
+                .thenReturn(new ScanResult().withItems(List.of(item("C", "7"))));
+        Path shard = directory.resolve("restaurant-00001.jsonl.gz");
+        TableSegmentExportTasklet tasklet = new TableSegmentExportTasklet(amazonDynamoDB, "restaurant", 1, 4, shard, 100);
+        StepContribution contribution = stepExecution.createStepContribution();
+
+        // Act
+        RepeatStatus status = tasklet.execute(contribution, null);
+
+        // Assert
+        assertEquals(RepeatStatus.FINISHED, status);
+        List<String> lines = readShard(shard);
+        assertEquals(3, lines.size());
+        JsonNode first = new ObjectMapper().readTree(lines.get(0));
+        assertEquals("A", first.get("restaurantName").asText());
+        // Numbers are written as JSON numbers, not as DynamoDB's typed strings
+        assertTrue(first.get("rating").isNumber());
+        assertEquals(3, contribution.getWriteCount());
+        assertFalse(Files.exists(directory.resolve("restaurant-00001.jsonl.gz.tmp")));
+
+        ArgumentCaptor<ScanRequest> requests = ArgumentCaptor.forClass(ScanRequest.class);
+        verify(amazonDynamoDB, times(2)).scan(requests.capture());
+        ScanRequest firstRequest = requests.getAllValues().get(0);
+        assertEquals("restaurant", firstRequest.getTableName());
+        assertEquals(1, firstRequest.getSegment());
+        assertEquals(4, firstRequest.getTotalSegments());
+        assertEquals(100, firstRequest.getLimit());
+        assertNull(firstRequest.getExclusiveStartKey());
+        assertEquals(lastKey, requests.getAllValues().get(1).getExclusiveStartKey());
+    }
+
+    @Test
+    void execute_EmptySegment_WritesEmptyShard() throws Exception {
+        // Arrange
+        when(amazonDynamoDB.scan(any(ScanRequest.class))).thenReturn(new ScanResult().withItems(Collections.emptyList()));
+        Path shard = directory.resolve("restaurant-00000.jsonl.gz");
+        TableSegmentExportTasklet tasklet = new TableSegmentExportTasklet(amazonDynamoDB, "restaurant", 0, 4, shard, 100);
+
+        // Act
+        tasklet.execute(stepExecution.createStepContribution(), null);
+
+        // Assert
+        assertTrue(readShard(shard).isEmpty());
+    }
+
+    @Test
+    void execute_ScanFails_LeavesNoShardBehind() {
+        // Arrange
+        when(amazonDynamoDB.scan(any(ScanRequest.class)))
+                .thenReturn(new ScanResult().withItems(List.of(item("A", "1")))
+                        .withLastEvaluatedKey(Collections.singletonMap("restaurantName", new AttributeValue("A"))))
+                .thenThrow(new AmazonServiceException("Scan failed"));
+        Path shard = directory.resolve("restaurant-00002.jsonl.gz");
+        TableSegmentExportTasklet tasklet = new TableSegmentExportTasklet(amazonDynamoDB, "restaurant", 2, 4, shard, 100);
+
+        // Act & Assert
+        assertThrows(AmazonServiceException.class, () -> tasklet.execute(stepExecution.createStepContribution(), null));
+        assertFalse(Files.exists(shard));
+    }
+
+    private static Map<String, AttributeValue> item(String restaurantName, String rating) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("restaurantName", new AttributeValue(restaurantName));
+        item.put("rating", new AttributeValue().withN(rating));
+        return item;
+    }
+
+    private static List<String> readShard(Path shard) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(shard)), StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package dataload.config;
+
+import dataload.repository.RestaurantRepository;
+import dataload.repository.TableAliasRepository;
+import model.Restaurant;
+import model.SearchRestaurant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.step.tasklet.TaskletStep;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReindexConfTest {
+
+    private static final String STARTED_AT = "2024-01-01T10:00";
+
+    @Mock
+    private JobRepository jobRepository;
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    @Mock
+    private TableAliasRepository tableAliasRepository;
+
+    private ReindexConf reindexConf;
+
+    private StepExecution stepExecution;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        reindexConf = new ReindexConf();
+        ReflectionTestUtils.setField(reindexConf, "steps", new StepBuilderFactory(jobRepository, new ResourcelessTransactionManager()));
+        ReflectionTestUtils.setField(reindexConf, "restaurantRepository", restaurantRepository);
+        ReflectionTestUtils.setField(reindexConf, "tableAliasRepository", tableAliasRepository);
+        ReflectionTestUtils.setField(reindexConf, "tableAliasRefreshMs", 200L);
+        ReflectionTestUtils.setField(reindexConf, "switchMarginMs", 100L);
+
+        stepExecution = new StepExecution("reindexStep", new JobExecution(1L));
+        ExecutionContext jobContext = stepExecution.getJobExecution().getExecutionContext();
+        jobContext.putString("previousTable", "searchrestaurant");
+        jobContext.putString("shadowTable", "searchrestaurant_20240101100500");
+        jobContext.putString("rebuildStartedAt", STARTED_AT);
+    }
+
+    @Test
+    void reindexSwitchStep_Executed_SwitchesAliasFromPreviousToShadowTable() throws Exception {
+        // Arrange
+        long before = System.currentTimeMillis();
+
+        // Act
+        execute(reindexConf.reindexSwitchStep());
+
+        // Assert
+        verify(tableAliasRepository).switchAlias("searchrestaurant", "searchrestaurant", "searchrestaurant_20240101100500");
+        long switchedAt = stepExecution.getJobExecution().getExecutionContext().getLong("aliasSwitchedAt");
+        assertTrue(switchedAt >= before && switchedAt <= System.currentTimeMillis());
+    }
+
+    @Test
+    void reindexSwitchStep_AliasSwitchedByOthers_FailsWithoutRecordingSwitch() throws Exception {
+        // Arrange
+        doThrow(new IllegalStateException("Alias switched concurrently"))
+                .when(tableAliasRepository).switchAlias(anyString(), anyString(), anyString());
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> execute(reindexConf.reindexSwitchStep()));
+        assertFalse(stepExecution.getJobExecution().getExecutionContext().containsKey("aliasSwitchedAt"));
+    }
+
+    @Test
+    void reindexCatchUpStep_ChangedRestaurants_CopiesOnlyThoseNewerThanShadowCopies() throws Exception {
+        // Arrange
+        stepExecution.getJobExecution().getExecutionContext().putLong("aliasSwitchedAt", System.currentTimeMillis() - 60_000);
+        when(restaurantRepository.findRestaurantsChangedSince(STARTED_AT)).thenReturn(List.of(restaurant("A"), restaurant("B")));
+        when(restaurantRepository.saveSearchRestaurantIfNewer(any(SearchRestaurant.class), eq("searchrestaurant_20240101100500")))
+                .thenReturn(true, false);
+
+        // Act
+        StepContribution contribution = execute(reindexConf.reindexCatchUpStep());
+
+        // Assert
+        verify(restaurantRepository, times(2)).saveSearchRestaurantIfNewer(any(SearchRestaurant.class), eq("searchrestaurant_20240101100500"));
+        assertEquals(2, contribution.getReadCount());
+        assertEquals(1, contribution.getWriteCount());
+    }
+
+    @Test
+    void reindexCatchUpStep_RightAfterSwitch_WaitsForAliasRefreshAndMargin() throws Exception {
+        // Arrange
+        long switchedAt = System.currentTimeMillis();
+        stepExecution.getJobExecution().getExecutionContext().putLong("aliasSwitchedAt", switchedAt);
+        long[] readAt = new long[1];
+        when(restaurantRepository.findRestaurantsChangedSince(STARTED_AT)).thenAnswer(invocation -> {
+            readAt[0] = System.currentTimeMillis();
+            return List.of();
+        });
+
+        // Act
+        execute(reindexConf.reindexCatchUpStep());
+
+        // Assert: changes are only read once searchFood can no longer write to the previous table
+        assertTrue(readAt[0] - switchedAt >= 300, "Read after " + (readAt[0] - switchedAt) + " ms");
+    }
+
+    private StepContribution execute(Step step) throws Exception {
+        StepContribution contribution = stepExecution.createStepContribution();
+        ((TaskletStep) step).getTasklet().execute(contribution, new ChunkContext(new StepContext(stepExecution)));
+        return contribution;
+    }
+
+    private static Restaurant restaurant(String restaurantName) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantName(restaurantName);
+        return restaurant;
+    }
+}
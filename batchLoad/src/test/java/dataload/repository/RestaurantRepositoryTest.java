@@ -0,0 +1,244 @@
+package dataload.repository;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputExceededException;
+import com.amazonaws.services.dynamodbv2.model.PutRequest;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dataload.util.WriteRateController;
+import model.Restaurant;
+import model.SearchRestaurant;
+import model.codec.MessageCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RestaurantRepositoryTest {
+
+    private static final String TABLE_NAME = "searchrestaurant_v2";
+
+    @Mock
+    private DynamoDBMapper dynamoDBMapper;
+
+    @Mock
+    private WriteRateController writeRateController;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private RestaurantRepository restaurantRepository;
+
+    // Names in each batchSave call, copied at call time since the repository passes a live view
+    private final List<List<String>> writtenNames = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        restaurantRepository = new RestaurantRepository(rabbitTemplate);
+        ReflectionTestUtils.setField(restaurantRepository, "dynamoDBMapper", dynamoDBMapper);
+        ReflectionTestUtils.setField(restaurantRepository, "writeRateController", writeRateController);
+        ReflectionTestUtils.setField(restaurantRepository, "maxRetries", 2);
+        ReflectionTestUtils.setField(restaurantRepository, "messageCodec", new MessageCodec(new ObjectMapper(), "json"));
+    }
+
+    @Test
+    void saveSearchRestaurants_AllProcessed_WritesOnceAndRaisesRate() throws InterruptedException {
+        // Arrange
+        stubBatchSave(Collections.emptyList());
+
+        // Act
+        restaurantRepository.saveSearchRestaurants(searchRestaurants("A", "B", "C"), TABLE_NAME);
+
+        // Assert
+        assertEquals(List.of(List.of("A", "B", "C")), writtenNames);
+        verify(writeRateController).acquire(3);
+        verify(writeRateController).onSuccess();
+        verify(writeRateController, never()).onThrottle();
+    }
+
+    @Test
+    void saveSearchRestaurants_SomeUnprocessed_RetriesOnlyUnprocessedItems() throws InterruptedException {
+        // Arrange
+        stubBatchSave(List.of(unprocessed("B", "C")), Collections.emptyList());
+
+        // Act
+        restaurantRepository.saveSearchRestaurants(searchRestaurants("A", "B", "C"), TABLE_NAME);
+
+        // Assert
+        assertEquals(List.of(List.of("A", "B", "C"), List.of("B", "C")), writtenNames);
+        verify(writeRateController).onThrottle();
+        verify(writeRateController).backoff(0);
+        verify(writeRateController).acquire(2);
+        verify(writeRateController).onSuccess();
+    }
+
+    @Test
+    void saveSearchRestaurants_StillUnprocessedAfterMaxRetries_Throws() throws InterruptedException {
+        // Arrange
+        stubBatchSave(List.of(unprocessed("B")), List.of(unprocessed("B")), List.of(unprocessed("B")));
+
+        // Act & Assert
+        assertThrows(SdkClientException.class,
+                () -> restaurantRepository.saveSearchRestaurants(searchRestaurants("A", "B"), TABLE_NAME));
+        assertEquals(3, writtenNames.size());
+        verify(writeRateController, times(2)).backoff(anyInt());
+        verify(writeRateController, never()).onSuccess();
+    }
+
+    @Test
+    void saveSearchRestaurants_ThrottledBatch_RetriesAfterBackoff() throws InterruptedException {
+        // Arrange
+        DynamoDBMapper.FailedBatch throttled = unprocessed("A");
+        throttled.setException(new ProvisionedThroughputExceededException("Throughput exceeded"));
+        stubBatchSave(List.of(throttled), Collections.emptyList());
+
+        // Act
+        restaurantRepository.saveSearchRestaurants(searchRestaurants("A"), TABLE_NAME);
+
+        // Assert
+        assertEquals(2, writtenNames.size());
+        verify(writeRateController).onThrottle();
+        verify(writeRateController).onSuccess();
+    }
+
+    @Test
+    void saveSearchRestaurants_NonThrottleFailure_ThrowsWithoutRetry() throws InterruptedException {
+        // Arrange
+        DynamoDBMapper.FailedBatch failed = unprocessed("A");
+        failed.setException(new IllegalStateException("Validation failed"));
+        stubBatchSave(List.of(failed));
+
+        // Act
+        SdkClientException exception = assertThrows(SdkClientException.class,
+                () -> restaurantRepository.saveSearchRestaurants(searchRestaurants("A"), TABLE_NAME));
+
+        // Assert
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertEquals(1, writtenNames.size());
+        verify(writeRateController, never()).onThrottle();
+        verify(writeRateController, never()).backoff(anyInt());
+    }
+
+    @Test
+    void publishRestaurants_AllAcked_PublishesEachOnce() throws Exception {
+        // Arrange
+        stubPublish(ack());
+
+        // Act
+        restaurantRepository.publishRestaurants(List.of(restaurant("A"), restaurant("B")));
+
+        // Assert
+        verify(rabbitTemplate, times(2)).convertAndSend(eq("restaurant.events"), eq("restaurant.added"), any(Object.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void publishRestaurants_NackedOnce_SendsItAgain() throws Exception {
+        // Arrange
+        stubPublish(correlationData -> correlationData.getFuture().set(new CorrelationData.Confirm(false, "nack")), ack());
+
+        // Act
+        restaurantRepository.publishRestaurants(List.of(restaurant("A")));
+
+        // Assert
+        verify(rabbitTemplate, times(2)).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void publishRestaurants_ReturnedAsUnroutable_SendsItAgain() throws Exception {
+        // Arrange
+        stubPublish(correlationData -> {
+            correlationData.setReturned(new ReturnedMessage(new Message(new byte[0], new MessageProperties()), 312, "NO_ROUTE", "restaurant.events", "restaurant.added"));
+            correlationData.getFuture().set(new CorrelationData.Confirm(true, null));
+        }, ack());
+
+        // Act
+        restaurantRepository.publishRestaurants(List.of(restaurant("A")));
+
+        // Assert
+        verify(rabbitTemplate, times(2)).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void publishRestaurants_NeverConfirmed_ThrowsAfterMaxAttempts() {
+        // Arrange: nothing completes the confirms
+        ReflectionTestUtils.setField(restaurantRepository, "confirmTimeoutMs", 10L);
+
+        // Act & Assert
+        assertThrows(AmqpException.class, () -> restaurantRepository.publishRestaurants(List.of(restaurant("A"))));
+        verify(rabbitTemplate, times(3)).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+    }
+
+    // Completes the confirm of each send with the next outcome; the last one repeats
+    @SafeVarargs
+    private void stubPublish(Consumer<CorrelationData>... outcomes) {
+        int[] call = {0};
+        doAnswer(invocation -> {
+            outcomes[Math.min(call[0]++, outcomes.length - 1)].accept(invocation.getArgument(3));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+    }
+
+    private static Consumer<CorrelationData> ack() {
+        return correlationData -> correlationData.getFuture().set(new CorrelationData.Confirm(true, null));
+    }
+
+    private static Restaurant restaurant(String restaurantName) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantName(restaurantName);
+        restaurant.setVersion(1L);
+        return restaurant;
+    }
+
+    @SafeVarargs
+    private void stubBatchSave(List<DynamoDBMapper.FailedBatch>... results) {
+        int[] call = {0};
+        when(dynamoDBMapper.batchSave(anyCollection(), any(DynamoDBMapperConfig.class))).thenAnswer(invocation -> {
+            List<String> names = new ArrayList<>();
+            for (Object item : (Collection<?>) invocation.getArgument(0)) {
+                names.add(((SearchRestaurant) item).getRestaurantName());
+            }
+            writtenNames.add(names);
+            return results[Math.min(call[0]++, results.length - 1)];
+        });
+    }
+
+    private static List<SearchRestaurant> searchRestaurants(String... names) {
+        List<SearchRestaurant> searchRestaurants = new ArrayList<>();
+        for (String name : names) {
+            SearchRestaurant searchRestaurant = new SearchRestaurant();
+            searchRestaurant.setRestaurantName(name);
+            searchRestaurants.add(searchRestaurant);
+        }
+        return searchRestaurants;
+    }
+
+    private static DynamoDBMapper.FailedBatch unprocessed(String... names) {
+        List<WriteRequest> writeRequests = new ArrayList<>();
+        for (String name : names) {
+            writeRequests.add(new WriteRequest(new PutRequest(Collections.singletonMap("restaurantName", new AttributeValue(name)))));
+        }
+        DynamoDBMapper.FailedBatch failedBatch = new DynamoDBMapper.FailedBatch();
+        failedBatch.setUnprocessedItems(Collections.singletonMap(TABLE_NAME, writeRequests));
+        return failedBatch;
+    }
+}
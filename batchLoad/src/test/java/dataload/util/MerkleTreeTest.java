@@ -0,0 +1,88 @@
+package dataload.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MerkleTreeTest {
+
+    @Test
+    void diff_SameItemsInDifferentOrder_ReturnsNoBuckets() throws Exception {
+        // Arrange
+        MerkleTree left = new MerkleTree(8);
+        MerkleTree right = new MerkleTree(8);
+        for (int i = 0; i < 100; i++) {
+            left.add("Restaurant " + i, digest("content " + i));
+        }
+        for (int i = 99; i >= 0; i--) {
+            right.add("Restaurant " + i, digest("content " + i));
+        }
+
+        // Act
+        List<Integer> divergent = left.diff(right);
+
+        // Assert
+        assertTrue(divergent.isEmpty());
+    }
+
+    @Test
+    void diff_ChangedAndMissingItems_ReturnsTheirBucketsInOrder() throws Exception {
+        // Arrange
+        MerkleTree left = new MerkleTree(8);
+        MerkleTree right = new MerkleTree(8);
+        for (int i = 0; i < 100; i++) {
+            left.add("Restaurant " + i, digest("content " + i));
+            if (i == 42) {
+                right.add("Restaurant " + i, digest("changed content"));
+            } else if (i != 7) {
+                right.add("Restaurant " + i, digest("content " + i));
+            }
+        }
+        int changedBucket = left.bucketOf("Restaurant 42");
+        int missingBucket = left.bucketOf("Restaurant 7");
+
+        // Act
+        List<Integer> divergent = left.diff(right);
+
+        // Assert
+        List<Integer> expected = changedBucket == missingBucket ? List.of(changedBucket)
+                : List.of(Math.min(changedBucket, missingBucket), Math.max(changedBucket, missingBucket));
+        assertEquals(expected, divergent);
+    }
+
+    @Test
+    void diff_DifferentDepths_Throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new MerkleTree(4).diff(new MerkleTree(5)));
+    }
+
+    @Test
+    void add_AfterDiff_Throws() {
+        // Arrange
+        MerkleTree tree = new MerkleTree(4);
+        tree.diff(new MerkleTree(4));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> tree.add("Restaurant A", new byte[32]));
+    }
+
+    @Test
+    void bucketOf_AnyKey_IsWithinTheBucketCount() {
+        // Arrange
+        MerkleTree tree = new MerkleTree(3);
+
+        // Act & Assert
+        for (int i = 0; i < 1000; i++) {
+            int bucket = tree.bucketOf("Restaurant " + i);
+            assertTrue(bucket >= 0 && bucket < tree.getBucketCount(), "Bucket out of range: " + bucket);
+        }
+    }
+
+    private static byte[] digest(String content) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,90 @@
+package dataload.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteRateControllerTest {
+
+    private WriteRateController writeRateController;
+
+    @BeforeEach
+    void setUp() {
+        writeRateController = new WriteRateController();
+        ReflectionTestUtils.setField(writeRateController, "maxRate", 120.0);
+        ReflectionTestUtils.setField(writeRateController, "initialRate", 100.0);
+        ReflectionTestUtils.setField(writeRateController, "minRate", 10.0);
+        ReflectionTestUtils.setField(writeRateController, "additiveIncrease", 10.0);
+        ReflectionTestUtils.setField(writeRateController, "multiplicativeDecrease", 0.5);
+        ReflectionTestUtils.setField(writeRateController, "backoffBaseMs", 50L);
+        ReflectionTestUtils.setField(writeRateController, "backoffMaxMs", 400L);
+        writeRateController.start();
+    }
+
+    @Test
+    void onSuccess_BelowCeiling_IncreasesRateAdditivelyUpToMax() {
+        // Act
+        writeRateController.onSuccess();
+        double once = writeRateController.getRate();
+        for (int i = 0; i < 10; i++) {
+            writeRateController.onSuccess();
+        }
+
+        // Assert
+        assertEquals(110.0, once);
+        assertEquals(120.0, writeRateController.getRate());
+    }
+
+    @Test
+    void onThrottle_Throttled_HalvesRateOncePerInterval() {
+        // Act
+        writeRateController.onThrottle();
+        writeRateController.onThrottle();
+
+        // Assert: the second cut within a second counts as the same throttle event
+        assertEquals(50.0, writeRateController.getRate());
+    }
+
+    @Test
+    void onThrottle_FirstThrottleRightAfterStart_CutsRate() {
+        // Arrange: a controller created moments ago has no earlier cut to be grouped with
+        WriteRateController fresh = new WriteRateController();
+        ReflectionTestUtils.setField(fresh, "maxRate", 100.0);
+        ReflectionTestUtils.setField(fresh, "initialRate", 100.0);
+        ReflectionTestUtils.setField(fresh, "minRate", 10.0);
+        ReflectionTestUtils.setField(fresh, "multiplicativeDecrease", 0.5);
+        fresh.start();
+
+        // Act
+        fresh.onThrottle();
+
+        // Assert
+        assertEquals(50.0, fresh.getRate());
+    }
+
+    @Test
+    void onThrottle_RepeatedOverIntervals_StopsAtMinRate() {
+        // Act
+        for (int i = 0; i < 6; i++) {
+            writeRateController.onThrottle();
+            // Moves the last cut back past the interval instead of sleeping
+            ReflectionTestUtils.setField(writeRateController, "lastDecreaseAt", System.nanoTime() - 2_000_000_000L);
+        }
+
+        // Assert
+        assertEquals(10.0, writeRateController.getRate());
+    }
+
+    @Test
+    void backoffMillis_LaterAttempts_StayWithinTheCappedExponentialBound() {
+        // Act & Assert
+        for (int i = 0; i < 100; i++) {
+            long first = writeRateController.backoffMillis(0);
+            long late = writeRateController.backoffMillis(30);
+            assertTrue(first >= 0 && first <= 50, "First backoff out of range: " + first);
+            assertTrue(late >= 0 && late <= 400, "Capped backoff out of range: " + late);
+        }
+    }
+}
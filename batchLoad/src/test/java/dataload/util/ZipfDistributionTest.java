@@ -0,0 +1,47 @@
+package dataload.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipfDistributionTest {
+
+    @Test
+    void sample_SameSeed_ReturnsSameRanks() {
+        // Arrange
+        ZipfDistribution distribution = new ZipfDistribution(50, 1.0);
+        Random first = new Random(42);
+        Random second = new Random(42);
+
+        // Act & Assert
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(distribution.sample(first), distribution.sample(second));
+        }
+    }
+
+    @Test
+    void sample_ManyDraws_StaysInRangeAndFavoursLowRanks() {
+        // Arrange
+        ZipfDistribution distribution = new ZipfDistribution(10, 1.0);
+        Random random = new Random(7);
+        int[] counts = new int[11];
+
+        // Act
+        for (int i = 0; i < 10000; i++) {
+            int rank = distribution.sample(random);
+            assertTrue(rank >= 1 && rank <= 10, "Rank out of range: " + rank);
+            counts[rank]++;
+        }
+
+        // Assert
+        assertTrue(counts[1] > counts[2] && counts[2] > counts[10], "Rank 1 should be drawn most, rank 10 least");
+    }
+
+    @Test
+    void constructor_NoRanks_Throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new ZipfDistribution(0, 1.0));
+    }
+}
@@ -0,0 +1,31 @@
+package apigateway.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class SchedulerConfig {
+
+    // Threads that may run user lookups at the same time
+    @Value("${gateway.user-lookup.thread-cap:50}")
+    private int threadCap;
+
+    // Lookups waiting for a thread before requests are rejected with 503
+    @Value("${gateway.user-lookup.queued-task-cap:1000}")
+    private int queuedTaskCap;
+
+    /**
+     * Creates the scheduler blocking user lookups run on, so they never hold up a Netty event loop.
+     * Its executor metrics (active, queued and completed tasks) are published under the name user-lookup.
+     *
+     * @return The bounded elastic scheduler.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler userLookupScheduler() {
+        Schedulers.enableMetrics();
+        return Schedulers.newBoundedElastic(threadCap, queuedTaskCap, "user-lookup");
+    }
+}
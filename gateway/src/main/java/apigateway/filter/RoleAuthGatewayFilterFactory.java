@@ -9,9 +9,11 @@ import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @Component
 public class RoleAuthGatewayFilterFactory extends AbstractGatewayFilterFactory<RoleAuthGatewayFilterFactory.Config> {
@@ -30,22 +32,27 @@ public class RoleAuthGatewayFilterFactory extends AbstractGatewayFilterFactory<R
         return (exchange, chain) -> {
             var request = exchange.getRequest();
             LOGGER.info("Inside Gateway Filter");
-            try {
-                if (!jwtTokenUtil.hasRole(request, config.getRole())) {
-                    // If the role is not available in the token, return an unauthorized response
-                    var response = exchange.getResponse();
-                    response.setStatusCode(HttpStatus.UNAUTHORIZED);
-                    return response.setComplete();
-                }
-            } catch (Exception e) {
-                LOGGER.info("Authorization failed");
-                var response = exchange.getResponse();
-                response.setStatusCode(HttpStatus.UNAUTHORIZED);
-                return response.setComplete();
-            }
-
-            // If the role is available, continue to the next filter in the chain
-            return chain.filter(exchange);
+            return jwtTokenUtil.hasRole(request, config.getRole())
+                    .map(hasRole -> hasRole ? HttpStatus.OK : HttpStatus.UNAUTHORIZED)
+                    .onErrorResume(e -> {
+                        if (e instanceof RejectedExecutionException) {
+                            // Too many user lookups are already waiting; shed the request instead of queueing it
+                            LOGGER.warn("User lookup rejected, too many lookups pending");
+                            return Mono.just(HttpStatus.SERVICE_UNAVAILABLE);
+                        }
+                        LOGGER.info("Authorization failed");
+                        return Mono.just(HttpStatus.UNAUTHORIZED);
+                    })
+                    .flatMap(status -> {
+                        if (status == HttpStatus.OK) {
+                            // If the role is available, continue to the next filter in the chain
+                            return chain.filter(exchange);
+                        }
+                        // If the role is not available in the token, return an unauthorized response
+                        var response = exchange.getResponse();
+                        response.setStatusCode(status);
+                        return response.setComplete();
+                    });
         };
     }
 
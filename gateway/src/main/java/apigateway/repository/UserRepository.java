@@ -3,8 +3,11 @@ package apigateway.repository;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import apigateway.model.AppUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
+import reactor.core.scheduler.Schedulers;
 
 @Repository
 public class UserRepository {
@@ -12,6 +15,10 @@ public class UserRepository {
     @Autowired
     private DynamoDBMapper dynamoDBMapper;
 
+    // Lookups by the kind of thread they blocked; the event-loop count stays at 0 unless a lookup escapes the scheduler
+    private Timer eventLoopLookups;
+    private Timer workerLookups;
+
     /**
      * Saves a appUser to the DynamoDB table.
      *
@@ -24,13 +31,33 @@ public class UserRepository {
     }
 
     /**
-     * Retrieves a customer by email from the DynamoDB table.
+     * Retrieves a customer by email from the DynamoDB table. The call blocks, so callers on a
+     * non-blocking thread must offload it; lookups are timed by the kind of thread they ran on.
      *
      * @param email The email of the customer to retrieve.
      * @return The retrieved customer or null if not found.
      */
     public AppUser getUserByEmail(String email) {
-        return dynamoDBMapper.load(AppUser.class, email);
+        Timer timer = Schedulers.isInNonBlockingThread() ? eventLoopLookups : workerLookups;
+        return timer.record(() -> dynamoDBMapper.load(AppUser.class, email));
+    }
+
+    /**
+     * Registers the lookup timers with the given registry.
+     *
+     * @param meterRegistry The registry to publish the timers to.
+     */
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        eventLoopLookups = Timer.builder("gateway.user.lookup")
+                .description("Blocking user lookups in DynamoDB, by the kind of thread they ran on")
+                .tag("thread", "event-loop")
+                .register(meterRegistry);
+        workerLookups = Timer.builder("gateway.user.lookup")
+                .description("Blocking user lookups in DynamoDB, by the kind of thread they ran on")
+                .tag("thread", "worker")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     /**
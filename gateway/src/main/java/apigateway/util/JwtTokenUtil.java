@@ -12,6 +12,9 @@ import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.Date;
 import java.util.HashMap;
@@ -27,6 +30,9 @@ public class JwtTokenUtil {
     @Autowired
     private AppUserDetailsService appUserDetailsService;
 
+    @Autowired
+    private Scheduler userLookupScheduler;
+
     private String SECRET_KEY = "secret";
 
     // Extract the username from the token
@@ -78,37 +84,46 @@ public class JwtTokenUtil {
         return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
     }
 
-    // Check if the user has the specified role based on the token
-    public boolean hasRole(ServerHttpRequest request, String role) {
-        LOGGER.info("Checking user role");
-        final List<String> authorizationHeaders = request.getHeaders().get(HttpHeaders.AUTHORIZATION);
-
-        String username = null;
-        String jwt = null;
-
-        if (authorizationHeaders != null && !authorizationHeaders.isEmpty()) {
-            String authorizationHeader = authorizationHeaders.get(0);
-            LOGGER.info("Header contains bearer token");
-            if (authorizationHeader.startsWith("Bearer ")) {
-                jwt = authorizationHeader.substring(7);
-                username = extractUsername(jwt);
+    // Check if the user has the specified role based on the token; the user lookup blocks, so it runs on the user lookup scheduler
+    public Mono<Boolean> hasRole(ServerHttpRequest request, String role) {
+        return Mono.defer(() -> {
+            LOGGER.info("Checking user role");
+            final List<String> authorizationHeaders = request.getHeaders().get(HttpHeaders.AUTHORIZATION);
+
+            String username = null;
+            String jwt = null;
+
+            if (authorizationHeaders != null && !authorizationHeaders.isEmpty()) {
+                String authorizationHeader = authorizationHeaders.get(0);
+                LOGGER.info("Header contains bearer token");
+                if (authorizationHeader.startsWith("Bearer ")) {
+                    jwt = authorizationHeader.substring(7);
+                    username = extractUsername(jwt);
+                }
             }
-        }
-
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = appUserDetailsService.loadUserByUsername(username);
 
-            if (validateToken(jwt, userDetails)) {
-                LOGGER.info("JWT Token is Valid.");
-                LOGGER.info(userDetails.getAuthorities().toString());
-                LOGGER.info(role);
-                if (userDetails.getAuthorities().toString().contains(role)) {
-                    return true;
-                }
+            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                final String token = jwt;
+                final String email = username;
+                return Mono.fromCallable(() -> appUserDetailsService.loadUserByUsername(email))
+                        .subscribeOn(userLookupScheduler)
+                        .publishOn(Schedulers.parallel()) // The rest of the filter chain continues off the lookup threads
+                        .map(userDetails -> {
+                            if (validateToken(token, userDetails)) {
+                                LOGGER.info("JWT Token is Valid.");
+                                LOGGER.info(userDetails.getAuthorities().toString());
+                                LOGGER.info(role);
+                                if (userDetails.getAuthorities().toString().contains(role)) {
+                                    return true;
+                                }
+                            }
+                            LOGGER.info("Role is not found");
+                            return false;
+                        });
             }
-        }
 
-        LOGGER.info("Role is not found");
-        return false;
+            LOGGER.info("Role is not found");
+            return Mono.just(false);
+        });
     }
 }
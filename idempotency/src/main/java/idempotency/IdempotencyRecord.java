@@ -0,0 +1,35 @@
+package idempotency;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBAttribute;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBHashKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data // Lombok annotation to automatically generate getters, setters, equals, hashCode, and toString methods
+@AllArgsConstructor // Lombok annotation to generate a constructor with all arguments
+@NoArgsConstructor // Lombok annotation to generate a no-argument constructor
+@DynamoDBTable(tableName = "idempotency") // Table with TTL enabled on the expiresAt attribute
+public class IdempotencyRecord {
+
+    @DynamoDBHashKey
+    @DynamoDBAttribute
+    private String idempotencyKey; // Endpoint-scoped key, e.g. "add-restaurant:<Idempotency-Key header>"
+
+    @DynamoDBAttribute
+    private String requestHash; // Hash of the request the key was first used with
+
+    @DynamoDBAttribute
+    private Integer statusCode; // HTTP status of the recorded response, null while the request is executing
+
+    @DynamoDBAttribute
+    private String body; // Body of the recorded response
+
+    @DynamoDBAttribute
+    private String createdAt; // When the key was claimed
+
+    @DynamoDBAttribute
+    private Long expiresAt; // Epoch seconds after which DynamoDB TTL removes the record, or another request may take over the claim
+
+}
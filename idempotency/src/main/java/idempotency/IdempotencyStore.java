@@ -0,0 +1,316 @@
+package idempotency;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the responses of admin requests carrying an {@code Idempotency-Key} header so that client
+ * retries are answered without repeating the write or the Rabbit publish.
+ * <p>
+ * Before a request runs, its key is claimed in the {@code idempotency} table with a conditional put,
+ * so of two replicas receiving the same key only one executes it; the other answers 409 until the
+ * response is recorded. The claim stores a hash of the request, and a key reused with a different
+ * request is answered 422. A claim left behind by a crashed replica expires after the claim timeout.
+ * <p>
+ * Recorded responses are also kept in a bounded in-memory LRU cache; the TTL on {@code expiresAt}
+ * expires old records.
+ */
+@Repository
+public class IdempotencyStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    // The key is free if it was never claimed, or its claim or recorded response has expired
+    private static final String CLAIM_CONDITION = "attribute_not_exists(idempotencyKey) OR expiresAt < :now";
+
+    private static final DynamoDBMapperConfig CONSISTENT_READ = DynamoDBMapperConfig.builder()
+            .withConsistentReads(DynamoDBMapperConfig.ConsistentReads.CONSISTENT)
+            .build();
+
+    @Autowired
+    private DynamoDBMapper dynamoDBMapper;
+
+    @Value("${idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    @Value("${idempotency.claim-seconds:60}")
+    private long claimSeconds;
+
+    @Value("${idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    // How long a concurrent duplicate waits for the first request before it is answered 409
+    @Value("${idempotency.wait-ms:10000}")
+    private long waitMs = 10000;
+
+    private Map<String, IdempotencyRecord> cache;
+
+    // Requests currently executing per key, so concurrent duplicates wait for the first one
+    private final Map<String, InFlightRequest> inFlight = new ConcurrentHashMap<>();
+
+    public void setDynamoDBMapper(DynamoDBMapper dynamoDBMapper) {
+        this.dynamoDBMapper = dynamoDBMapper;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public void setClaimSeconds(long claimSeconds) {
+        this.claimSeconds = claimSeconds;
+    }
+
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    public void setWaitMs(long waitMs) {
+        this.waitMs = waitMs;
+    }
+
+    @PostConstruct
+    public void init() {
+        cache = Collections.synchronizedMap(new LinkedHashMap<String, IdempotencyRecord>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Hashes the parts of a request, e.g. a path variable and the request body, for {@link #execute}.
+     *
+     * @param parts The parts identifying the request, serialized as JSON.
+     * @return The Base64-encoded SHA-256 hash of the parts.
+     */
+    public static String hashOf(Object... parts) {
+        try {
+            byte[] json = OBJECT_MAPPER.writeValueAsBytes(Arrays.asList(parts));
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("Failed to hash request", e);
+        }
+    }
+
+    /**
+     * Runs the action once per key. Repeats of a key with the same request return the recorded
+     * response instead; repeats with a different request are rejected. Server errors are not
+     * recorded so that the client can retry them.
+     *
+     * @param scope       The endpoint the key belongs to.
+     * @param key         The value of the Idempotency-Key header.
+     * @param requestHash The hash of the request, see {@link #hashOf}.
+     * @param action      The request handling to run when the key has not been seen.
+     * @return The recorded response for a repeated key, 422 for a key reused with a different request,
+     * 409 while another replica executes the key or while a duplicate on this replica is still running
+     * after {@code idempotency.wait-ms}, otherwise the response of the action.
+     */
+    public ResponseEntity<String> execute(String scope, String key, String requestHash, Supplier<ResponseEntity<String>> action) {
+        String scopedKey = scope + ":" + key;
+
+        IdempotencyRecord record = find(scopedKey);
+        if (record != null) {
+            return answerRepeat(record, requestHash);
+        }
+
+        CompletableFuture<ResponseEntity<String>> future = new CompletableFuture<>();
+        InFlightRequest running = inFlight.putIfAbsent(scopedKey, new InFlightRequest(requestHash, future));
+        if (running != null) {
+            return awaitInFlight(scopedKey, running, requestHash);
+        }
+
+        try {
+            IdempotencyRecord claim;
+            try {
+                claim = claim(scopedKey, requestHash);
+            } catch (ConditionalCheckFailedException e) {
+                // Claimed by another replica since the lookup above
+                IdempotencyRecord current = dynamoDBMapper.load(IdempotencyRecord.class, scopedKey, CONSISTENT_READ);
+                ResponseEntity<String> response = current != null
+                        ? answerRepeat(current, requestHash)
+                        : ResponseEntity.status(HttpStatus.CONFLICT).body("A request with this Idempotency-Key is in progress");
+                future.complete(response);
+                return response;
+            } catch (RuntimeException e) {
+                // Without the claim, another replica could run the same request; let the client retry
+                LOGGER.error("Failed to claim idempotency key: {}", scopedKey, e);
+                ResponseEntity<String> response = ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body("Idempotency store unavailable, retry the request");
+                future.complete(response);
+                return response;
+            }
+
+            ResponseEntity<String> response;
+            try {
+                response = action.get();
+            } catch (RuntimeException e) {
+                release(claim);
+                throw e;
+            }
+            if (response.getStatusCode().is5xxServerError()) {
+                release(claim);
+            } else {
+                record(claim, response);
+            }
+            future.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(scopedKey);
+        }
+    }
+
+    // Answers a duplicate of a request executing on this replica once it is done, without running it again
+    private ResponseEntity<String> awaitInFlight(String scopedKey, InFlightRequest running, String requestHash) {
+        if (!running.requestHash.equals(requestHash)) {
+            LOGGER.warn("Idempotency key reused with a different request: {}", scopedKey);
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body("Idempotency-Key was already used with a different request");
+        }
+
+        LOGGER.info("Waiting for in-flight request with idempotency key: {}", scopedKey);
+        ResponseEntity<String> response;
+        try {
+            response = running.response.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("A request with this Idempotency-Key is in progress");
+        } catch (TimeoutException e) {
+            LOGGER.warn("In-flight request with idempotency key {} still running after {} ms", scopedKey, waitMs);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("A request with this Idempotency-Key is in progress");
+        } catch (ExecutionException e) {
+            // The first request failed and released the key, so the client may retry it
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("A request with this Idempotency-Key failed, retry the request");
+        }
+        IdempotencyRecord recorded = cache.get(scopedKey);
+        return recorded != null ? answerRepeat(recorded, requestHash) : response;
+    }
+
+    /**
+     * Looks up a recorded response, first in memory and then in DynamoDB.
+     *
+     * @param scopedKey The endpoint-scoped idempotency key.
+     * @return The unexpired record, or null if the key has not been seen. The record of a request
+     * still executing has no status code.
+     */
+    public IdempotencyRecord find(String scopedKey) {
+        long now = Instant.now().getEpochSecond();
+        IdempotencyRecord record = cache.get(scopedKey);
+        if (record == null) {
+            try {
+                record = dynamoDBMapper.load(IdempotencyRecord.class, scopedKey);
+            } catch (Exception e) {
+                // The claim below decides whether the request runs; a failed lookup only costs a round trip
+                LOGGER.error("Failed to load idempotency record: {}", scopedKey, e);
+                return null;
+            }
+            if (record != null && record.getStatusCode() != null) {
+                cache.put(scopedKey, record);
+            }
+        }
+        // DynamoDB TTL deletes lazily, so expired records can still be returned for a while
+        if (record != null && record.getExpiresAt() != null && record.getExpiresAt() <= now) {
+            cache.remove(scopedKey);
+            return null;
+        }
+        return record;
+    }
+
+    // The recorded response, or the reason the repeated key cannot be answered with it
+    private ResponseEntity<String> answerRepeat(IdempotencyRecord record, String requestHash) {
+        if (record.getRequestHash() != null && !record.getRequestHash().equals(requestHash)) {
+            LOGGER.warn("Idempotency key reused with a different request: {}", record.getIdempotencyKey());
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body("Idempotency-Key was already used with a different request");
+        }
+        if (record.getStatusCode() == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("A request with this Idempotency-Key is in progress");
+        }
+        LOGGER.info("Replaying recorded response for idempotency key: {}", record.getIdempotencyKey());
+        return ResponseEntity.status(record.getStatusCode()).body(record.getBody());
+    }
+
+    // Writes the claim unless the key is held by an unexpired claim or response
+    private IdempotencyRecord claim(String scopedKey, String requestHash) {
+        long now = Instant.now().getEpochSecond();
+        IdempotencyRecord claim = new IdempotencyRecord();
+        claim.setIdempotencyKey(scopedKey);
+        claim.setRequestHash(requestHash);
+        claim.setCreatedAt(String.valueOf(LocalDateTime.now()));
+        claim.setExpiresAt(now + claimSeconds);
+
+        DynamoDBSaveExpression saveExpression = new DynamoDBSaveExpression()
+                .withConditionExpression(CLAIM_CONDITION)
+                .withExpressionAttributeValues(Collections.singletonMap(":now", new AttributeValue().withN(String.valueOf(now))));
+        dynamoDBMapper.save(claim, saveExpression);
+        return claim;
+    }
+
+    private void record(IdempotencyRecord claim, ResponseEntity<String> response) {
+        claim.setStatusCode(response.getStatusCodeValue());
+        claim.setBody(response.getBody());
+        claim.setExpiresAt(Instant.now().getEpochSecond() + ttlSeconds);
+
+        cache.put(claim.getIdempotencyKey(), claim);
+        try {
+            dynamoDBMapper.save(claim);
+        } catch (Exception e) {
+            // The claim expires after the claim timeout, after which a retry runs the request again
+            LOGGER.error("Failed to save idempotency record: {}", claim.getIdempotencyKey(), e);
+        }
+    }
+
+    // Frees the key after a failed request so that the client can retry it
+    private void release(IdempotencyRecord claim) {
+        try {
+            dynamoDBMapper.delete(claim);
+        } catch (Exception e) {
+            LOGGER.error("Failed to release idempotency claim: {}", claim.getIdempotencyKey(), e);
+        }
+    }
+
+    // A request executing on this replica, with the hash duplicates must match to share its response
+    private static class InFlightRequest {
+        private final String requestHash;
+        private final CompletableFuture<ResponseEntity<String>> response;
+
+        private InFlightRequest(String requestHash, CompletableFuture<ResponseEntity<String>> response) {
+            this.requestHash = requestHash;
+            this.response = response;
+        }
+    }
+}
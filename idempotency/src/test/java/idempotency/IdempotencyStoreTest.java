@@ -0,0 +1,255 @@
+package idempotency;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyStoreTest {
+
+    @Mock
+    private DynamoDBMapper dynamoDBMapper;
+
+    private IdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        idempotencyStore = new IdempotencyStore();
+        idempotencyStore.setDynamoDBMapper(dynamoDBMapper);
+        idempotencyStore.setTtlSeconds(60);
+        idempotencyStore.setClaimSeconds(10);
+        idempotencyStore.setCacheSize(10);
+        idempotencyStore.init();
+    }
+
+    @Test
+    void execute_RepeatedKey_RunsActionOnce() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+        String hash = IdempotencyStore.hashOf("request");
+
+        // Act
+        ResponseEntity<String> first = idempotencyStore.execute("scope", "key-1", hash, () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.ok("done");
+        });
+        ResponseEntity<String> second = idempotencyStore.execute("scope", "key-1", hash, () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.ok("done again");
+        });
+
+        // Assert
+        assertEquals(1, calls.get());
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertEquals(first.getBody(), second.getBody());
+        verify(dynamoDBMapper, times(1)).save(any(IdempotencyRecord.class), any(DynamoDBSaveExpression.class));
+        verify(dynamoDBMapper, times(1)).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void execute_RepeatedKeyWithDifferentRequest_Returns422() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+        idempotencyStore.execute("scope", "key-2", IdempotencyStore.hashOf("request"), () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.ok("done");
+        });
+
+        // Act
+        ResponseEntity<String> response = idempotencyStore.execute("scope", "key-2", IdempotencyStore.hashOf("other request"), () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.ok("done again");
+        });
+
+        // Assert
+        assertEquals(1, calls.get());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+    }
+
+    @Test
+    void execute_KeyClaimedByAnotherReplica_Returns409WithoutRunningAction() {
+        // Arrange
+        String hash = IdempotencyStore.hashOf("request");
+        IdempotencyRecord claim = new IdempotencyRecord("scope:key-3", hash, null, null, "now", Instant.now().getEpochSecond() + 10);
+        doThrow(ConditionalCheckFailedException.class)
+                .when(dynamoDBMapper).save(any(IdempotencyRecord.class), any(DynamoDBSaveExpression.class));
+        when(dynamoDBMapper.load(eq(IdempotencyRecord.class), eq("scope:key-3"), any(DynamoDBMapperConfig.class))).thenReturn(claim);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        ResponseEntity<String> response = idempotencyStore.execute("scope", "key-3", hash, () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.ok("done");
+        });
+
+        // Assert
+        assertEquals(0, calls.get());
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void execute_ClaimFails_Returns503WithoutRunningAction() {
+        // Arrange
+        doThrow(RuntimeException.class)
+                .when(dynamoDBMapper).save(any(IdempotencyRecord.class), any(DynamoDBSaveExpression.class));
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        ResponseEntity<String> response = idempotencyStore.execute("scope", "key-4", IdempotencyStore.hashOf("request"), () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.ok("done");
+        });
+
+        // Assert
+        assertEquals(0, calls.get());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    }
+
+    @Test
+    void execute_ServerError_ReleasesClaim() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+        String hash = IdempotencyStore.hashOf("request");
+
+        // Act
+        idempotencyStore.execute("scope", "key-5", hash, () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.status(500).body("Internal Server Error");
+        });
+        idempotencyStore.execute("scope", "key-5", hash, () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.ok("done");
+        });
+
+        // Assert
+        assertEquals(2, calls.get());
+        verify(dynamoDBMapper, times(1)).delete(any(IdempotencyRecord.class));
+        verify(dynamoDBMapper, times(1)).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void execute_InFlightWithDifferentRequest_Returns422WithoutWaiting() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<String>> first = runBlocked("key-6", started, release, () -> ResponseEntity.ok("done"));
+        started.await();
+
+        // Act
+        ResponseEntity<String> response = idempotencyStore.execute("scope", "key-6", IdempotencyStore.hashOf("other request"),
+                () -> ResponseEntity.ok("done again"));
+        release.countDown();
+
+        // Assert
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+        assertEquals(HttpStatus.OK, first.get(5, TimeUnit.SECONDS).getStatusCode());
+    }
+
+    @Test
+    void execute_InFlightLongerThanWait_Returns409() throws Exception {
+        // Arrange
+        idempotencyStore.setWaitMs(50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<String>> first = runBlocked("key-7", started, release, () -> ResponseEntity.ok("done"));
+        started.await();
+
+        // Act
+        ResponseEntity<String> response = idempotencyStore.execute("scope", "key-7", IdempotencyStore.hashOf("request"),
+                () -> ResponseEntity.ok("done again"));
+        release.countDown();
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(HttpStatus.OK, first.get(5, TimeUnit.SECONDS).getStatusCode());
+    }
+
+    @Test
+    void execute_InFlightRequestThrows_Returns409() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<String>> first = runBlocked("key-8", started, release, () -> {
+            throw new IllegalStateException("Write failed");
+        });
+        started.await();
+
+        // Act
+        CompletableFuture<ResponseEntity<String>> waiter = CompletableFuture.supplyAsync(() -> idempotencyStore.execute(
+                "scope", "key-8", IdempotencyStore.hashOf("request"), () -> ResponseEntity.ok("done again")));
+        // Give the waiter time to find the first request in flight
+        Thread.sleep(100);
+        release.countDown();
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, waiter.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void find_RecordOnlyInTable_ReturnsAndCachesIt() {
+        // Arrange
+        IdempotencyRecord record = new IdempotencyRecord("scope:key-6", "hash", 400, "Bad", "now", Instant.now().getEpochSecond() + 60);
+        when(dynamoDBMapper.load(IdempotencyRecord.class, "scope:key-6")).thenReturn(record);
+
+        // Act
+        IdempotencyRecord first = idempotencyStore.find("scope:key-6");
+        IdempotencyRecord second = idempotencyStore.find("scope:key-6");
+
+        // Assert
+        assertEquals(record, first);
+        assertEquals(record, second);
+        verify(dynamoDBMapper, times(1)).load(IdempotencyRecord.class, "scope:key-6");
+    }
+
+    @Test
+    void find_ExpiredRecord_ReturnsNull() {
+        // Arrange
+        IdempotencyRecord record = new IdempotencyRecord("scope:key-7", "hash", 200, "OK", "then", Instant.now().getEpochSecond() - 1);
+        when(dynamoDBMapper.load(IdempotencyRecord.class, "scope:key-7")).thenReturn(record);
+
+        // Act & Assert
+        assertNull(idempotencyStore.find("scope:key-7"));
+    }
+
+    @Test
+    void find_TableUnavailable_ReturnsNull() {
+        // Arrange
+        when(dynamoDBMapper.load(IdempotencyRecord.class, "scope:key-8")).thenThrow(RuntimeException.class);
+
+        // Act & Assert
+        assertNull(idempotencyStore.find("scope:key-8"));
+    }
+
+    // Runs a request with the given key on another thread, holding it in flight until released
+    private CompletableFuture<ResponseEntity<String>> runBlocked(String key, CountDownLatch started, CountDownLatch release,
+                                                                 Supplier<ResponseEntity<String>> action) {
+        return CompletableFuture.supplyAsync(() -> idempotencyStore.execute("scope", key, IdempotencyStore.hashOf("request"), () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return action.get();
+        }));
+    }
+}
@@ -1,4 +1,4 @@
-package addRestaurant.model;
+package model;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -12,5 +12,10 @@ public class AddRestaurantCommand {
     private String restaurantName; // Represents the name of the restaurant
     private String address; // Represents the address of the restaurant
     private MenuList menuList; // Represents the menu list of the restaurant
+    private Long version; // Represents the version of the restaurant this command was written with
+
+    public AddRestaurantCommand(String restaurantName, String address, MenuList menuList) {
+        this(restaurantName, address, menuList, null);
+    }
 
 }
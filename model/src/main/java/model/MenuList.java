@@ -1,4 +1,4 @@
-package addRestaurant.model;
+package model;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBAttribute;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBDocument;
@@ -16,4 +16,4 @@ public class MenuList {
 
     @DynamoDBAttribute // Indicates that this field is mapped to a DynamoDB attribute
     private List<Menu> items; // Represents a list of Menu objects
-}
\ No newline at end of file
+}
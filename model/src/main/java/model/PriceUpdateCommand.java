@@ -1,6 +1,5 @@
-package updatePrice.model;
+package model;
 
-import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBAttribute;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -14,4 +13,5 @@ public class PriceUpdateCommand {
     private MenuList menuList;
     private String createdAt;
     private String updatedAt;
+    private Long version; // Version of the restaurant written together with this command
 }
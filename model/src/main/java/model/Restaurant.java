@@ -1,4 +1,4 @@
-package addRestaurant.model;
+package model;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.*;
 import lombok.AllArgsConstructor;
@@ -27,4 +27,10 @@ public class Restaurant {
     @DynamoDBAttribute // Specifies that the field is mapped to a DynamoDB attribute
     private String updatedAt; // Represents the last update timestamp of the restaurant
 
+    @DynamoDBAttribute // Specifies that the field is mapped to a DynamoDB attribute
+    private String contentHash; // Hash of the name, address and menu as last written by batchLoad; compared by delta loads
+
+    @DynamoDBVersionAttribute // Set to 1 on insert and incremented on every save; the save fails if the stored version differs
+    private Long version; // Represents the version of the restaurant, carried in every command
+
 }
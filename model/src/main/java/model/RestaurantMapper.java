@@ -0,0 +1,75 @@
+package model;
+
+/**
+ * Plain field copies between the restaurant types, written out by hand so that no mapping framework
+ * has to reflect over the classes at runtime. The menu list is shared, not copied.
+ */
+public final class RestaurantMapper {
+
+    private RestaurantMapper() {
+    }
+
+    /**
+     * @param command The command to map.
+     * @return A new restaurant without timestamps or version.
+     */
+    public static Restaurant toRestaurant(AddRestaurantCommand command) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantName(command.getRestaurantName());
+        restaurant.setAddress(command.getAddress());
+        restaurant.setMenuList(command.getMenuList());
+        return restaurant;
+    }
+
+    /**
+     * @param restaurant The restaurant to map.
+     * @return A command with the name, address, menu and version of the restaurant.
+     */
+    public static AddRestaurantCommand toAddRestaurantCommand(Restaurant restaurant) {
+        return new AddRestaurantCommand(restaurant.getRestaurantName(), restaurant.getAddress(),
+                restaurant.getMenuList(), restaurant.getVersion());
+    }
+
+    /**
+     * @param restaurant The restaurant to map.
+     * @return A command with all fields of the restaurant, including its current version.
+     */
+    public static PriceUpdateCommand toPriceUpdateCommand(Restaurant restaurant) {
+        PriceUpdateCommand command = new PriceUpdateCommand();
+        command.setRestaurantName(restaurant.getRestaurantName());
+        command.setAddress(restaurant.getAddress());
+        command.setMenuList(restaurant.getMenuList());
+        command.setCreatedAt(restaurant.getCreatedAt());
+        command.setUpdatedAt(restaurant.getUpdatedAt());
+        command.setVersion(restaurant.getVersion());
+        return command;
+    }
+
+    /**
+     * @param command The command to map.
+     * @return A search restaurant without timestamps.
+     */
+    public static SearchRestaurant toSearchRestaurant(AddRestaurantCommand command) {
+        SearchRestaurant searchRestaurant = new SearchRestaurant();
+        searchRestaurant.setRestaurantName(command.getRestaurantName());
+        searchRestaurant.setAddress(command.getAddress());
+        searchRestaurant.setMenuList(command.getMenuList());
+        searchRestaurant.setVersion(command.getVersion());
+        return searchRestaurant;
+    }
+
+    /**
+     * @param restaurant The restaurant to map.
+     * @return A search restaurant with all fields of the restaurant.
+     */
+    public static SearchRestaurant toSearchRestaurant(Restaurant restaurant) {
+        SearchRestaurant searchRestaurant = new SearchRestaurant();
+        searchRestaurant.setRestaurantName(restaurant.getRestaurantName());
+        searchRestaurant.setAddress(restaurant.getAddress());
+        searchRestaurant.setMenuList(restaurant.getMenuList());
+        searchRestaurant.setCreatedAt(restaurant.getCreatedAt());
+        searchRestaurant.setUpdatedAt(restaurant.getUpdatedAt());
+        searchRestaurant.setVersion(restaurant.getVersion());
+        return searchRestaurant;
+    }
+}
@@ -1,16 +1,14 @@
-package searchFood.model;
+package model;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.time.LocalDateTime;
-
 @Data // Lombok annotation to automatically generate getters, setters, equals, hashCode, and toString methods
 @AllArgsConstructor // Lombok annotation to generate a constructor with all arguments
 @NoArgsConstructor // Lombok annotation to generate a no-argument constructor
-@DynamoDBTable(tableName = "searchrestaurant")
+@DynamoDBTable(tableName = "searchrestaurant") // Read model of searchFood, built from the restaurant commands
 public class SearchRestaurant {
 
     @DynamoDBHashKey
@@ -29,4 +27,8 @@ public class SearchRestaurant {
     @DynamoDBAttribute
     private String updatedAt;
 
-}
\ No newline at end of file
+    // Version of the restaurant this copy was built from; older versions are never written over newer ones
+    @DynamoDBAttribute
+    private Long version;
+
+}
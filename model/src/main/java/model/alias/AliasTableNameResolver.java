@@ -0,0 +1,97 @@
+package model.alias;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Resolves the table name of a mapped class through the alias table, so a rebuilt table can replace
+ * the one in use by switching a single alias item instead of redeploying every service.
+ * <p>
+ * The name from {@code @DynamoDBTable} is the alias. If the alias table or the alias does not exist,
+ * the alias itself is the table name. Lookups are cached for the refresh interval, so a switch
+ * reaches every service within that interval.
+ */
+public class AliasTableNameResolver implements DynamoDBMapperConfig.TableNameResolver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AliasTableNameResolver.class);
+
+    // Table holding one item per alias; read with the plain client so resolving never recurses
+    public static final String ALIAS_TABLE = "table_alias";
+    public static final String ALIAS = "alias";
+    public static final String TABLE_NAME = "tableName";
+    public static final String UPDATED_AT = "updatedAt";
+
+    // The refresh interval setting of every service resolving aliases, with its one default. The reindex
+    // job waits this long after a switch, so it has to be the interval searchFood caches for
+    public static final String REFRESH_MS = "${table-alias.refresh-ms:10000}";
+
+    private final AmazonDynamoDB amazonDynamoDB;
+
+    private final long refreshMillis;
+
+    private final LongSupplier clock;
+
+    private final Map<String, Resolved> cache = new ConcurrentHashMap<>();
+
+    public AliasTableNameResolver(AmazonDynamoDB amazonDynamoDB, long refreshMillis) {
+        this(amazonDynamoDB, refreshMillis, System::currentTimeMillis);
+    }
+
+    AliasTableNameResolver(AmazonDynamoDB amazonDynamoDB, long refreshMillis, LongSupplier clock) {
+        this.amazonDynamoDB = amazonDynamoDB;
+        this.refreshMillis = refreshMillis;
+        this.clock = clock;
+    }
+
+    @Override
+    public String getTableName(Class<?> clazz, DynamoDBMapperConfig config) {
+        String alias = DynamoDBMapperConfig.DefaultTableNameResolver.INSTANCE.getTableName(clazz, config);
+        long now = clock.getAsLong();
+        Resolved resolved = cache.get(alias);
+        if (resolved == null || now - resolved.resolvedAt >= refreshMillis) {
+            resolved = new Resolved(lookup(alias, resolved), now);
+            cache.put(alias, resolved);
+        }
+        return resolved.tableName;
+    }
+
+    // The aliased table name; the alias itself if there is none, the previous name if the lookup fails
+    private String lookup(String alias, Resolved previous) {
+        try {
+            Map<String, AttributeValue> item = amazonDynamoDB.getItem(new GetItemRequest()
+                    .withTableName(ALIAS_TABLE)
+                    .withKey(Collections.singletonMap(ALIAS, new AttributeValue(alias)))
+                    .withConsistentRead(true)).getItem();
+            String tableName = item == null || !item.containsKey(TABLE_NAME) ? alias : item.get(TABLE_NAME).getS();
+            if (previous != null && !previous.tableName.equals(tableName)) {
+                LOGGER.info("Table alias {} switched from {} to {}", alias, previous.tableName, tableName);
+            }
+            return tableName;
+        } catch (ResourceNotFoundException e) {
+            return alias;
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to resolve table alias {}, keeping the current table name", alias, e);
+            return previous != null ? previous.tableName : alias;
+        }
+    }
+
+    private static class Resolved {
+        private final String tableName;
+        private final long resolvedAt;
+
+        private Resolved(String tableName, long resolvedAt) {
+            this.tableName = tableName;
+            this.resolvedAt = resolvedAt;
+        }
+    }
+}
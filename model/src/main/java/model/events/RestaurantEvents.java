@@ -0,0 +1,21 @@
+package model.events;
+
+/**
+ * Names of the topic exchange that carries restaurant change events and of its routing keys.
+ * <p>
+ * Producers only publish to the exchange. Every consumer declares its own queue and binds it with the
+ * keys it needs, so each one gets its own copy of the events and its own prefetch and concurrency.
+ */
+public final class RestaurantEvents {
+
+    public static final String EXCHANGE = "restaurant.events";
+
+    // Payload: AddRestaurantCommand
+    public static final String RESTAURANT_ADDED = "restaurant.added";
+
+    // Payload: PriceUpdateCommand
+    public static final String PRICE_CHANGED = "price.changed";
+
+    private RestaurantEvents() {
+    }
+}
@@ -1,4 +1,4 @@
-package addRestaurant.model;
+package model;
 
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -1,4 +1,4 @@
-package addRestaurant.model;
+package model;
 
 import org.junit.jupiter.api.Test;
 
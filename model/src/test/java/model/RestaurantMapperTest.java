@@ -0,0 +1,85 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RestaurantMapperTest {
+
+    @Test
+    void toRestaurant_CopiesCommandFieldsWithoutVersion() {
+        // Arrange
+        MenuList menuList = new MenuList(List.of(new Menu("Pizza", "8.5", "150")));
+        AddRestaurantCommand command = new AddRestaurantCommand("Restaurant A", "123 Main St", menuList, 3L);
+
+        // Act
+        Restaurant restaurant = RestaurantMapper.toRestaurant(command);
+
+        // Assert
+        assertEquals("Restaurant A", restaurant.getRestaurantName());
+        assertEquals("123 Main St", restaurant.getAddress());
+        assertSame(menuList, restaurant.getMenuList());
+        assertNull(restaurant.getVersion());
+    }
+
+    @Test
+    void toAddRestaurantCommand_CopiesFieldsWithVersion() {
+        // Arrange
+        Restaurant restaurant = createRestaurant();
+
+        // Act
+        AddRestaurantCommand command = RestaurantMapper.toAddRestaurantCommand(restaurant);
+
+        // Assert
+        assertEquals(new AddRestaurantCommand("Restaurant A", "123 Main St", restaurant.getMenuList(), 2L), command);
+    }
+
+    @Test
+    void toPriceUpdateCommand_CopiesAllFields() {
+        // Arrange
+        Restaurant restaurant = createRestaurant();
+
+        // Act
+        PriceUpdateCommand command = RestaurantMapper.toPriceUpdateCommand(restaurant);
+
+        // Assert
+        assertEquals(new PriceUpdateCommand("Restaurant A", "123 Main St", restaurant.getMenuList(),
+                "2024-01-01T10:00", "2024-01-02T10:00", 2L), command);
+    }
+
+    @Test
+    void toSearchRestaurant_FromRestaurant_CopiesAllFields() {
+        // Arrange
+        Restaurant restaurant = createRestaurant();
+
+        // Act
+        SearchRestaurant searchRestaurant = RestaurantMapper.toSearchRestaurant(restaurant);
+
+        // Assert
+        assertEquals(new SearchRestaurant("Restaurant A", "123 Main St", restaurant.getMenuList(),
+                "2024-01-01T10:00", "2024-01-02T10:00", 2L), searchRestaurant);
+    }
+
+    @Test
+    void toSearchRestaurant_FromCommand_CarriesVersion() {
+        // Arrange
+        AddRestaurantCommand command = new AddRestaurantCommand("Restaurant A", "123 Main St", new MenuList(), 1L);
+
+        // Act
+        SearchRestaurant searchRestaurant = RestaurantMapper.toSearchRestaurant(command);
+
+        // Assert
+        assertEquals("Restaurant A", searchRestaurant.getRestaurantName());
+        assertEquals(1L, searchRestaurant.getVersion());
+        assertNull(searchRestaurant.getCreatedAt());
+    }
+
+    private Restaurant createRestaurant() {
+        MenuList menuList = new MenuList(List.of(new Menu("Pizza", "8.5", "150")));
+        return new Restaurant("Restaurant A", "123 Main St", menuList, "2024-01-01T10:00", "2024-01-02T10:00", null, 2L);
+    }
+}
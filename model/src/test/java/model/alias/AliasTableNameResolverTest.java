@@ -0,0 +1,105 @@
+package model.alias;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.ResourceNotFoundException;
+import model.SearchRestaurant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class AliasTableNameResolverTest {
+
+    @Mock
+    private AmazonDynamoDB amazonDynamoDB;
+
+    private final AtomicLong now = new AtomicLong();
+
+    private AliasTableNameResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        resolver = new AliasTableNameResolver(amazonDynamoDB, 1000, now::get);
+    }
+
+    @Test
+    void getTableName_NoAlias_ReturnsAnnotatedName() {
+        // Arrange
+        when(amazonDynamoDB.getItem(any(GetItemRequest.class))).thenReturn(new GetItemResult());
+
+        // Act
+        String tableName = resolve();
+
+        // Assert
+        assertEquals("searchrestaurant", tableName);
+    }
+
+    @Test
+    void getTableName_NoAliasTable_ReturnsAnnotatedName() {
+        // Arrange
+        when(amazonDynamoDB.getItem(any(GetItemRequest.class))).thenThrow(new ResourceNotFoundException("table_alias"));
+
+        // Act
+        String tableName = resolve();
+
+        // Assert
+        assertEquals("searchrestaurant", tableName);
+    }
+
+    @Test
+    void getTableName_Aliased_ReturnsTargetAndCachesItUntilRefresh() {
+        // Arrange
+        when(amazonDynamoDB.getItem(any(GetItemRequest.class)))
+                .thenReturn(aliasItem("searchrestaurant_1"))
+                .thenReturn(aliasItem("searchrestaurant_2"));
+
+        // Act
+        String first = resolve();
+        now.set(999);
+        String cached = resolve();
+        now.set(1000);
+        String refreshed = resolve();
+
+        // Assert
+        assertEquals("searchrestaurant_1", first);
+        assertEquals("searchrestaurant_1", cached);
+        assertEquals("searchrestaurant_2", refreshed);
+        verify(amazonDynamoDB, times(2)).getItem(any(GetItemRequest.class));
+    }
+
+    @Test
+    void getTableName_LookupFails_KeepsCurrentTarget() {
+        // Arrange
+        when(amazonDynamoDB.getItem(any(GetItemRequest.class)))
+                .thenReturn(aliasItem("searchrestaurant_1"))
+                .thenThrow(new AmazonServiceException("Service unavailable"));
+
+        // Act
+        resolve();
+        now.set(1000);
+        String tableName = resolve();
+
+        // Assert
+        assertEquals("searchrestaurant_1", tableName);
+    }
+
+    private String resolve() {
+        return resolver.getTableName(SearchRestaurant.class, DynamoDBMapperConfig.DEFAULT);
+    }
+
+    private GetItemResult aliasItem(String tableName) {
+        return new GetItemResult().withItem(Collections.singletonMap(AliasTableNameResolver.TABLE_NAME, new AttributeValue(tableName)));
+    }
+}
@@ -0,0 +1,46 @@
+package model.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import model.AddRestaurantCommand;
+import model.Menu;
+import model.MenuList;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void encode_Cbor_IsSmallerThanJsonAndDecodesToSameCommand() throws Exception {
+        // Arrange
+        AddRestaurantCommand command = createCommand();
+        MessageCodec cborCodec = new MessageCodec(objectMapper, "cbor");
+        MessageCodec jsonCodec = new MessageCodec(objectMapper, "json");
+
+        // Act
+        byte[] cbor = cborCodec.encode(command);
+        byte[] json = jsonCodec.encode(command);
+
+        // Assert
+        assertEquals(MessageCodec.CONTENT_TYPE_CBOR, cborCodec.getContentType());
+        assertEquals(MessageCodec.CONTENT_TYPE_JSON, jsonCodec.getContentType());
+        assertTrue(cbor.length < json.length);
+        assertEquals(command, new CBORMapper().readValue(cbor, AddRestaurantCommand.class));
+        assertEquals(command, objectMapper.readValue(json, AddRestaurantCommand.class));
+    }
+
+    @Test
+    void constructor_UnknownCodec_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new MessageCodec(objectMapper, "xml"));
+    }
+
+    private AddRestaurantCommand createCommand() {
+        MenuList menuList = new MenuList(List.of(new Menu("Pizza", "8.5", "150"), new Menu("Burger", "7.8", "120")));
+        return new AddRestaurantCommand("Restaurant A", "123 Main St", menuList, 1L);
+    }
+}
@@ -0,0 +1,62 @@
+package outbox;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBAttribute;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBHashKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * An event written in the same transaction as the restaurant change it describes, and published by
+ * {@link OutboxRelay}. Each service keeps its events in its own table, which
+ * {@link OutboxTableNameResolver} maps the name {@code outbox} to.
+ */
+@Data // Lombok annotation to automatically generate getters, setters, equals, hashCode, and toString methods
+@AllArgsConstructor // Lombok annotation to generate a constructor with all arguments
+@NoArgsConstructor // Lombok annotation to generate a no-argument constructor
+@DynamoDBTable(tableName = OutboxTableNameResolver.OUTBOX)
+public class OutboxEvent {
+
+    @DynamoDBHashKey
+    @DynamoDBAttribute
+    private String eventId; // Unique identifier of the event
+
+    @DynamoDBAttribute
+    private String restaurantName; // Name of the restaurant the event belongs to
+
+    @DynamoDBAttribute
+    private String exchange; // Exchange the event is published to; events written without one go through the default exchange
+
+    @DynamoDBAttribute
+    private String routingKey; // Routing key the event is published with
+
+    @DynamoDBAttribute
+    private String contentType; // Content type of the payload
+
+    @DynamoDBAttribute
+    private byte[] payload; // Encoded command
+
+    @DynamoDBAttribute
+    private Long createdAt; // Epoch millis, used to publish a batch in write order
+
+    @DynamoDBAttribute
+    private Long leaseUntil; // Epoch millis until which a relay has claimed the event; null until first claimed
+
+    /**
+     * Creates an event for the given exchange and routing key, stamped with a new id and the current time.
+     *
+     * @param restaurantName The name of the restaurant the event belongs to.
+     * @param exchange       The exchange the event is published to.
+     * @param routingKey     The routing key the event is published with.
+     * @param contentType    The content type of the payload.
+     * @param payload        The encoded command.
+     * @return The OutboxEvent object.
+     */
+    public static OutboxEvent of(String restaurantName, String exchange, String routingKey, String contentType, byte[] payload) {
+        return new OutboxEvent(UUID.randomUUID().toString(), restaurantName, exchange, routingKey,
+                contentType, payload, System.currentTimeMillis(), null);
+    }
+}
@@ -0,0 +1,198 @@
+package outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes the events written to the outbox table alongside restaurant changes.
+ * <p>
+ * Runs in the background, so request latency does not include the broker round trip. Each event is
+ * published with its own {@link CorrelationData}; a batch is sent in full before the relay waits for
+ * the confirms, so the whole batch costs one round trip. Nacked or unconfirmed events are resent from
+ * memory a bounded number of times and are otherwise left in the outbox until their lease runs out.
+ * Events are published as mandatory, so one the broker cannot route to any queue yet, e.g. before a
+ * consumer has bound its queue, is returned and handled like a nack instead of being acked and dropped.
+ * Only confirmed events are deleted, so an event can be published more than once but never lost.
+ * Relays on several instances share the outbox; each publishes the events it has leased.
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.relay.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    @Value("${outbox.relay.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    // Messages sent but not yet acked or nacked by the broker
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private Timer confirmLatency;
+    private Counter nacked;
+
+    public void setOutboxRepository(OutboxRepository outboxRepository) {
+        this.outboxRepository = outboxRepository;
+    }
+
+    public void setRabbitTemplate(RabbitTemplate rabbitTemplate) {
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setConfirmTimeoutMs(long confirmTimeoutMs) {
+        this.confirmTimeoutMs = confirmTimeoutMs;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        Gauge.builder("outbox.relay.in.flight", inFlight, AtomicInteger::get)
+                .description("Outbox events published and waiting for a broker confirm")
+                .register(meterRegistry);
+        confirmLatency = Timer.builder("outbox.relay.confirm.latency")
+                .description("Time from publishing an outbox event to its broker confirm")
+                .register(meterRegistry);
+        nacked = Counter.builder("outbox.relay.nacked")
+                .description("Outbox events nacked or not confirmed in time")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Drains the outbox until a batch comes back smaller than the batch size or cannot be fully confirmed.
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        try {
+            List<OutboxEvent> events;
+            List<OutboxEvent> confirmed;
+            do {
+                events = outboxRepository.claimPendingEvents(batchSize);
+                if (events.isEmpty()) {
+                    return;
+                }
+                confirmed = publish(events);
+                if (!confirmed.isEmpty()) {
+                    outboxRepository.deleteEvents(confirmed);
+                }
+                LOGGER.info("Relayed {} of {} outbox events", confirmed.size(), events.size());
+                // Back off until the next run if the broker did not confirm everything
+            } while (events.size() >= batchSize && confirmed.size() == events.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Unconfirmed events stay in the outbox and are retried once their lease runs out
+            LOGGER.error("Error occurred while relaying outbox events", e);
+        }
+    }
+
+    private List<OutboxEvent> publish(List<OutboxEvent> events) throws InterruptedException {
+        List<OutboxEvent> confirmed = new ArrayList<>(events.size());
+        List<OutboxEvent> pending = events;
+        for (int attempt = 1; attempt <= maxAttempts && !pending.isEmpty(); attempt++) {
+            pending = publishOnce(pending, confirmed);
+        }
+        if (!pending.isEmpty()) {
+            LOGGER.warn("{} outbox events were not confirmed after {} attempts, leaving them in the outbox", pending.size(), maxAttempts);
+        }
+        return confirmed;
+    }
+
+    // Sends all events before waiting for any confirm; returns the events that have to be sent again
+    private List<OutboxEvent> publishOnce(List<OutboxEvent> events, List<OutboxEvent> confirmed) throws InterruptedException {
+        List<CorrelationData> correlations = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            Message message = MessageBuilder
+                    .withBody(event.getPayload())
+                    .setContentType(event.getContentType())
+                    .setMessageId(event.getEventId())
+                    .build();
+            CorrelationData correlationData = new CorrelationData(event.getEventId());
+            long sentAt = System.nanoTime();
+            inFlight.incrementAndGet();
+            correlationData.getFuture().addCallback(
+                    confirm -> {
+                        inFlight.decrementAndGet();
+                        confirmLatency.record(System.nanoTime() - sentAt, TimeUnit.NANOSECONDS);
+                    },
+                    failure -> inFlight.decrementAndGet());
+            try {
+                // Mandatory is set by spring.rabbitmq.template.mandatory, so unroutable events come back on correlationData
+                rabbitTemplate.convertAndSend(exchangeOf(event), event.getRoutingKey(), message, correlationData);
+            } catch (RuntimeException e) {
+                correlationData.getFuture().setException(e);
+            }
+            correlations.add(correlationData);
+        }
+
+        List<OutboxEvent> retry = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            try {
+                CorrelationData correlationData = correlations.get(i);
+                CorrelationData.Confirm confirm = correlationData.getFuture()
+                        .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                // A returned message arrives before its ack
+                ReturnedMessage returned = correlationData.getReturned();
+                if (confirm.isAck() && returned == null) {
+                    confirmed.add(event);
+                    continue;
+                }
+                if (returned != null) {
+                    LOGGER.warn("Broker returned outbox event {} as unroutable: {}", event.getEventId(), returned.getReplyText());
+                } else {
+                    LOGGER.warn("Broker nacked outbox event {}: {}", event.getEventId(), confirm.getReason());
+                }
+            } catch (ExecutionException e) {
+                LOGGER.warn("Failed to publish outbox event {}", event.getEventId(), e.getCause());
+            } catch (TimeoutException e) {
+                LOGGER.warn("Outbox event {} was not confirmed within {} ms", event.getEventId(), confirmTimeoutMs);
+            }
+            nacked.increment();
+            retry.add(event);
+        }
+        return retry;
+    }
+
+    // Events written before the outbox recorded an exchange still go to their queue through the default exchange
+    private String exchangeOf(OutboxEvent event) {
+        return event.getExchange() == null ? "" : event.getExchange();
+    }
+}
@@ -0,0 +1,108 @@
+package outbox;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class OutboxRepository {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxRepository.class);
+
+    // Events no relay holds a lease on
+    private static final String UNCLAIMED = "attribute_not_exists(leaseUntil) OR leaseUntil < :now";
+
+    // Published events are deleted; the condition keeps a late claim from writing them back
+    private static final String CLAIMABLE = "attribute_exists(eventId) AND (" + UNCLAIMED + ")";
+
+    @Autowired
+    private DynamoDBMapper dynamoDBMapper;
+
+    // Longer than the relay's confirm timeout times its attempts, so a lease outlives the publish
+    @Value("${outbox.relay.lease-ms:30000}")
+    private long leaseMs;
+
+    public void setDynamoDBMapper(DynamoDBMapper dynamoDBMapper) {
+        this.dynamoDBMapper = dynamoDBMapper;
+    }
+
+    public void setLeaseMs(long leaseMs) {
+        this.leaseMs = leaseMs;
+    }
+
+    /**
+     * Claims up to {@code limit} events that have not been published yet.
+     * <p>
+     * Each event is leased with a conditional update, so relays on other instances skip it until the
+     * lease runs out. The scan pages past events other relays hold or that could not be confirmed,
+     * so those do not keep newer events from being published.
+     *
+     * @param limit The maximum number of events to claim.
+     * @return The claimed events, oldest first.
+     */
+    public List<OutboxEvent> claimPendingEvents(int limit) {
+        long now = System.currentTimeMillis();
+        Map<String, AttributeValue> values = Collections.singletonMap(":now", new AttributeValue().withN(String.valueOf(now)));
+        List<OutboxEvent> claimed = new ArrayList<>();
+        Map<String, AttributeValue> startKey = null;
+        do {
+            DynamoDBScanExpression scanExpression = new DynamoDBScanExpression()
+                    .withLimit(limit)
+                    .withFilterExpression(UNCLAIMED)
+                    .withExpressionAttributeValues(values)
+                    .withExclusiveStartKey(startKey);
+            ScanResultPage<OutboxEvent> page = dynamoDBMapper.scanPage(OutboxEvent.class, scanExpression);
+            for (OutboxEvent event : page.getResults()) {
+                if (claimed.size() < limit && claim(event, now, values)) {
+                    claimed.add(event);
+                }
+            }
+            startKey = page.getLastEvaluatedKey();
+        } while (startKey != null && claimed.size() < limit);
+        claimed.sort(Comparator.comparing(OutboxEvent::getCreatedAt));
+        return claimed;
+    }
+
+    /**
+     * Removes events once the broker has confirmed them.
+     *
+     * @param events The published events.
+     */
+    public void deleteEvents(List<OutboxEvent> events) {
+        List<DynamoDBMapper.FailedBatch> failedBatches = dynamoDBMapper.batchDelete(events);
+        for (DynamoDBMapper.FailedBatch failedBatch : failedBatches) {
+            // The events stay in the outbox and are published again once their lease runs out; consumers overwrite by key
+            LOGGER.error("Failed to delete published outbox events", failedBatch.getException());
+        }
+    }
+
+    // Leases the event unless another relay claimed or deleted it since the scan
+    private boolean claim(OutboxEvent event, long now, Map<String, AttributeValue> values) {
+        Long previousLease = event.getLeaseUntil();
+        event.setLeaseUntil(now + leaseMs);
+        DynamoDBSaveExpression saveExpression = new DynamoDBSaveExpression()
+                .withConditionExpression(CLAIMABLE)
+                .withExpressionAttributeValues(values);
+        try {
+            dynamoDBMapper.save(event, saveExpression);
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            event.setLeaseUntil(previousLease);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package outbox;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+
+/**
+ * Resolves {@link OutboxEvent} to the outbox table of the service and every other class to the name
+ * from its {@code @DynamoDBTable}. Set on the mapper config rather than passed per call, so an event
+ * and the restaurant it belongs to can be written in one transaction.
+ */
+public class OutboxTableNameResolver implements DynamoDBMapperConfig.TableNameResolver {
+
+    // Table name of OutboxEvent before it is resolved
+    public static final String OUTBOX = "outbox";
+
+    private final String outboxTable;
+
+    public OutboxTableNameResolver(String outboxTable) {
+        this.outboxTable = outboxTable;
+    }
+
+    @Override
+    public String getTableName(Class<?> clazz, DynamoDBMapperConfig config) {
+        if (OutboxEvent.class.equals(clazz)) {
+            return outboxTable;
+        }
+        return DynamoDBMapperConfig.DefaultTableNameResolver.INSTANCE.getTableName(clazz, config);
+    }
+}
@@ -0,0 +1,197 @@
+package outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.net.ConnectException;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        outboxRelay = new OutboxRelay();
+        outboxRelay.setOutboxRepository(outboxRepository);
+        outboxRelay.setRabbitTemplate(rabbitTemplate);
+        outboxRelay.setMeterRegistry(meterRegistry);
+        outboxRelay.setBatchSize(2);
+        outboxRelay.setConfirmTimeoutMs(100);
+        outboxRelay.setMaxAttempts(2);
+    }
+
+    @Test
+    void relay_PendingEvents_PublishesConfirmsAndDeletes() {
+        // Arrange
+        List<OutboxEvent> events = List.of(event("Restaurant A"));
+        when(outboxRepository.claimPendingEvents(2)).thenReturn(events);
+        confirmAll(true);
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(rabbitTemplate, times(1)).convertAndSend(eq("restaurant.events"), eq("restaurant.added"), any(Message.class), any(CorrelationData.class));
+        verify(outboxRepository, times(1)).deleteEvents(events);
+        assertEquals(0, meterRegistry.get("outbox.relay.in.flight").gauge().value());
+        assertEquals(1, meterRegistry.get("outbox.relay.confirm.latency").timer().count());
+    }
+
+    @Test
+    void relay_FullBatch_ReadsNextBatch() {
+        // Arrange
+        List<OutboxEvent> firstBatch = List.of(event("Restaurant A"), event("Restaurant B"));
+        when(outboxRepository.claimPendingEvents(2)).thenReturn(firstBatch, Collections.emptyList());
+        confirmAll(true);
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(outboxRepository, times(2)).claimPendingEvents(2);
+        verify(rabbitTemplate, times(2)).convertAndSend(eq("restaurant.events"), eq("restaurant.added"), any(Message.class), any(CorrelationData.class));
+        verify(outboxRepository, times(1)).deleteEvents(firstBatch);
+    }
+
+    @Test
+    void relay_NackedOnce_ResendsAndDeletes() {
+        // Arrange
+        List<OutboxEvent> events = List.of(event("Restaurant A"));
+        when(outboxRepository.claimPendingEvents(2)).thenReturn(events);
+        doAnswer(invocation -> confirm(invocation.getArgument(3), false))
+                .doAnswer(invocation -> confirm(invocation.getArgument(3), true))
+                .when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(rabbitTemplate, times(2)).convertAndSend(eq("restaurant.events"), eq("restaurant.added"), any(Message.class), any(CorrelationData.class));
+        verify(outboxRepository, times(1)).deleteEvents(events);
+        assertEquals(1, meterRegistry.get("outbox.relay.nacked").counter().count());
+    }
+
+    @Test
+    void relay_OnlyPartOfBatchConfirmed_DeletesConfirmedAndStops() {
+        // Arrange
+        OutboxEvent confirmedEvent = event("Restaurant A");
+        OutboxEvent nackedEvent = event("Restaurant B");
+        when(outboxRepository.claimPendingEvents(2)).thenReturn(List.of(confirmedEvent, nackedEvent));
+        doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(3);
+            return confirm(correlationData, correlationData.getId().equals(confirmedEvent.getEventId()));
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(outboxRepository, times(1)).claimPendingEvents(2);
+        verify(outboxRepository, times(1)).deleteEvents(List.of(confirmedEvent));
+        assertEquals(2, meterRegistry.get("outbox.relay.nacked").counter().count());
+    }
+
+    @Test
+    void relay_ReturnedAsUnroutable_KeepsEventsInOutbox() {
+        // Arrange: the broker returns the message and then acks it, as it does when no queue is bound
+        List<OutboxEvent> events = List.of(event("Restaurant A"));
+        when(outboxRepository.claimPendingEvents(2)).thenReturn(events);
+        doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(3);
+            correlationData.setReturned(new ReturnedMessage(invocation.getArgument(2), 312, "NO_ROUTE",
+                    invocation.getArgument(0), invocation.getArgument(1)));
+            return confirm(correlationData, true);
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(rabbitTemplate, times(2)).convertAndSend(eq("restaurant.events"), eq("restaurant.added"), any(Message.class), any(CorrelationData.class));
+        verify(outboxRepository, never()).deleteEvents(anyList());
+        assertEquals(2, meterRegistry.get("outbox.relay.nacked").counter().count());
+    }
+
+    @Test
+    void relay_NotConfirmedInTime_KeepsEventsInOutbox() {
+        // Arrange
+        when(outboxRepository.claimPendingEvents(2)).thenReturn(List.of(event("Restaurant A")));
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(rabbitTemplate, times(2)).convertAndSend(eq("restaurant.events"), eq("restaurant.added"), any(Message.class), any(CorrelationData.class));
+        verify(outboxRepository, never()).deleteEvents(anyList());
+        assertEquals(2, meterRegistry.get("outbox.relay.in.flight").gauge().value());
+    }
+
+    @Test
+    void relay_SendFails_KeepsEventsInOutbox() {
+        // Arrange
+        when(outboxRepository.claimPendingEvents(2)).thenReturn(List.of(event("Restaurant A")));
+        doThrow(new AmqpConnectException(new ConnectException("Connection refused")))
+                .when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(outboxRepository, never()).deleteEvents(anyList());
+        assertEquals(0, meterRegistry.get("outbox.relay.in.flight").gauge().value());
+    }
+
+    @Test
+    void relay_EventWithoutExchange_PublishesThroughDefaultExchange() {
+        // Arrange
+        OutboxEvent legacyEvent = event("Restaurant A");
+        legacyEvent.setExchange(null);
+        legacyEvent.setRoutingKey("addrestaurant-command");
+        when(outboxRepository.claimPendingEvents(2)).thenReturn(List.of(legacyEvent));
+        confirmAll(true);
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(rabbitTemplate, times(1)).convertAndSend(eq(""), eq("addrestaurant-command"), any(Message.class), any(CorrelationData.class));
+        verify(outboxRepository, times(1)).deleteEvents(List.of(legacyEvent));
+    }
+
+    private void confirmAll(boolean ack) {
+        doAnswer(invocation -> confirm(invocation.getArgument(3), ack))
+                .when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    private Object confirm(CorrelationData correlationData, boolean ack) {
+        correlationData.getFuture().set(new CorrelationData.Confirm(ack, ack ? null : "nacked"));
+        return null;
+    }
+
+    private OutboxEvent event(String restaurantName) {
+        return OutboxEvent.of(restaurantName, "restaurant.events", "restaurant.added", "application/json", "json".getBytes());
+    }
+}
@@ -0,0 +1,97 @@
+package outbox;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRepositoryTest {
+
+    @Mock
+    private DynamoDBMapper dynamoDBMapper;
+
+    private OutboxRepository outboxRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        outboxRepository = new OutboxRepository();
+        outboxRepository.setDynamoDBMapper(dynamoDBMapper);
+        outboxRepository.setLeaseMs(1000);
+    }
+
+    @Test
+    void claimPendingEvents_UnclaimedEvents_LeasesThem() {
+        // Arrange
+        OutboxEvent event = event("Restaurant A");
+        when(dynamoDBMapper.scanPage(eq(OutboxEvent.class), any(DynamoDBScanExpression.class)))
+                .thenReturn(page(List.of(event), null));
+        long before = System.currentTimeMillis();
+
+        // Act
+        List<OutboxEvent> claimed = outboxRepository.claimPendingEvents(2);
+
+        // Assert
+        assertEquals(List.of(event), claimed);
+        assertTrue(event.getLeaseUntil() >= before + 1000);
+        verify(dynamoDBMapper, times(1)).save(eq(event), any(DynamoDBSaveExpression.class));
+    }
+
+    @Test
+    void claimPendingEvents_EventClaimedElsewhere_PagesToNewerEvents() {
+        // Arrange
+        OutboxEvent taken = event("Restaurant A");
+        OutboxEvent pending = event("Restaurant B");
+        Map<String, AttributeValue> lastKey = Collections.singletonMap("eventId", new AttributeValue(taken.getEventId()));
+        when(dynamoDBMapper.scanPage(eq(OutboxEvent.class), any(DynamoDBScanExpression.class)))
+                .thenReturn(page(List.of(taken), lastKey), page(List.of(pending), null));
+        doThrow(ConditionalCheckFailedException.class).when(dynamoDBMapper).save(eq(taken), any(DynamoDBSaveExpression.class));
+
+        // Act
+        List<OutboxEvent> claimed = outboxRepository.claimPendingEvents(1);
+
+        // Assert
+        assertEquals(List.of(pending), claimed);
+        assertNull(taken.getLeaseUntil());
+        verify(dynamoDBMapper, times(2)).scanPage(eq(OutboxEvent.class), any(DynamoDBScanExpression.class));
+    }
+
+    @Test
+    void claimPendingEvents_LimitReached_StopsPaging() {
+        // Arrange
+        Map<String, AttributeValue> lastKey = Collections.singletonMap("eventId", new AttributeValue("next"));
+        when(dynamoDBMapper.scanPage(eq(OutboxEvent.class), any(DynamoDBScanExpression.class)))
+                .thenReturn(page(List.of(event("Restaurant A")), lastKey));
+
+        // Act
+        List<OutboxEvent> claimed = outboxRepository.claimPendingEvents(1);
+
+        // Assert
+        assertEquals(1, claimed.size());
+        verify(dynamoDBMapper, times(1)).scanPage(eq(OutboxEvent.class), any(DynamoDBScanExpression.class));
+    }
+
+    private ScanResultPage<OutboxEvent> page(List<OutboxEvent> events, Map<String, AttributeValue> lastEvaluatedKey) {
+        ScanResultPage<OutboxEvent> page = new ScanResultPage<>();
+        page.setResults(events);
+        page.setLastEvaluatedKey(lastEvaluatedKey);
+        return page;
+    }
+
+    private OutboxEvent event(String restaurantName) {
+        return OutboxEvent.of(restaurantName, "restaurant.events", "restaurant.added", "application/json", "json".getBytes());
+    }
+}
@@ -6,6 +6,8 @@ import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import model.alias.AliasTableNameResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -29,14 +31,21 @@ public class DynamoDBConfig {
     @Value("${amazon.aws.secretkey}")
     private String dynamodbSecretKey;
 
+    @Value(AliasTableNameResolver.REFRESH_MS)
+    private long tableAliasRefreshMs;
+
     /**
-     * Creates a bean for the DynamoDBMapper.
+     * Creates a bean for the DynamoDBMapper. Table names are resolved through the table aliases, so
+     * a rebuilt searchrestaurant table is picked up without a restart.
      *
      * @return The DynamoDBMapper object.
      */
     @Bean
     public DynamoDBMapper dynamoDBMapper() {
-        return new DynamoDBMapper(buildAmazonDynamoDB());
+        AmazonDynamoDB amazonDynamoDB = buildAmazonDynamoDB();
+        return new DynamoDBMapper(amazonDynamoDB, DynamoDBMapperConfig.builder()
+                .withTableNameResolver(new AliasTableNameResolver(amazonDynamoDB, tableAliasRefreshMs))
+                .build());
     }
 
     /**
@@ -0,0 +1,94 @@
+package searchFood.config;
+
+import model.events.RestaurantEvents;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import searchFood.util.Jackson2CborMessageConverter;
+
+@Configuration
+public class RabbitConfig {
+
+    // Queues of the search read model; other consumers bind queues of their own to the same exchange
+    public static final String RESTAURANT_ADDED_QUEUE = "addrestaurant-command";
+    public static final String PRICE_CHANGED_QUEUE = "priceupdate-command";
+
+    @Value("${searchfood.listener.batch-size:100}")
+    private int batchSize;
+
+    @Value("${searchfood.listener.receive-timeout-ms:200}")
+    private long receiveTimeoutMs;
+
+    @Value("${searchfood.listener.concurrency:1}")
+    private int concurrency;
+
+    @Value("${searchfood.listener.max-concurrency:1}")
+    private int maxConcurrency;
+
+    /**
+     * Declares the restaurant events exchange and binds the search read model's queues to it. The
+     * queues keep their names, so messages still queued from before the exchange existed are consumed.
+     *
+     * @return The exchange, queues and bindings.
+     */
+    @Bean
+    public Declarables restaurantEventBindings() {
+        TopicExchange exchange = new TopicExchange(RestaurantEvents.EXCHANGE);
+        Queue restaurantAddedQueue = new Queue(RESTAURANT_ADDED_QUEUE);
+        Queue priceChangedQueue = new Queue(PRICE_CHANGED_QUEUE);
+        return new Declarables(exchange, restaurantAddedQueue, priceChangedQueue,
+                BindingBuilder.bind(restaurantAddedQueue).to(exchange).with(RestaurantEvents.RESTAURANT_ADDED),
+                BindingBuilder.bind(priceChangedQueue).to(exchange).with(RestaurantEvents.PRICE_CHANGED));
+    }
+
+    /**
+     * Creates the message converter used by all listeners. The decoder is chosen by the content type
+     * of each message: CBOR for application/cbor, JSON otherwise.
+     *
+     * @return The MessageConverter object.
+     */
+    @Bean
+    public MessageConverter messageConverter() {
+        ContentTypeDelegatingMessageConverter messageConverter = new ContentTypeDelegatingMessageConverter(new Jackson2JsonMessageConverter());
+        messageConverter.addDelegate(Jackson2CborMessageConverter.CONTENT_TYPE_CBOR, new Jackson2CborMessageConverter());
+        return messageConverter;
+    }
+
+    /**
+     * Creates a listener container factory whose listeners receive up to batch-size messages at once.
+     * A batch is handed over when it is full or when no further message arrives within the receive
+     * timeout. All messages of a batch are acked together after the listener returns, and requeued
+     * together if it throws.
+     *
+     * @param configurer        Spring Boot's configurer applying the spring.rabbitmq.listener settings and message converter.
+     * @param connectionFactory The RabbitMQ connection factory.
+     * @return The SimpleRabbitListenerContainerFactory object.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setDeBatchingEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        // The broker must be allowed to deliver a whole batch before the first ack
+        factory.setPrefetchCount(Math.max(batchSize, 250));
+        // Consumers of this queue only; other consumers of the exchange are not slowed down by it
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+        return factory;
+    }
+}
@@ -1,14 +1,24 @@
 package searchFood.repository;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
+import model.*;
 import searchFood.model.*;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -46,6 +56,100 @@ public class RestaurantRepository {
         return searchRestaurant;
     }
 
+    /**
+     * Saves a searchRestaurant only if the stored copy is older, using a conditional put on the version
+     * (attribute_not_exists(version) OR version < :version). A redelivered or late message therefore
+     * costs one rejected write. A searchRestaurant without a version is saved unconditionally.
+     *
+     * @param searchRestaurant The searchRestaurant object to be saved.
+     * @return true if it was saved, false if a newer or equal version is already stored.
+     */
+    public boolean saveRestaurantIfNewer(SearchRestaurant searchRestaurant) {
+        if (searchRestaurant.getVersion() == null) {
+            saveRestaurant(searchRestaurant);
+            return true;
+        }
+
+        Map<String, String> names = new HashMap<>();
+        names.put("#version", "version");
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":version", new AttributeValue().withN(String.valueOf(searchRestaurant.getVersion())));
+        DynamoDBSaveExpression saveExpression = new DynamoDBSaveExpression()
+                .withConditionExpression("attribute_not_exists(#version) OR #version < :version")
+                .withExpressionAttributeNames(names)
+                .withExpressionAttributeValues(values);
+        try {
+            dynamoDBMapper.save(searchRestaurant, saveExpression);
+            LOGGER.info("Saved searchRestaurant: {} at version {}", searchRestaurant.getRestaurantName(), searchRestaurant.getVersion());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            LOGGER.info("Skipped stale searchRestaurant: {} at version {}", searchRestaurant.getRestaurantName(), searchRestaurant.getVersion());
+            return false;
+        }
+    }
+
+    /**
+     * Saves a batch of searchRestaurants. When a restaurant appears more than once only its newest
+     * version is written. Versioned searchRestaurants are saved one by one with the conditional put of
+     * {@link #saveRestaurantIfNewer}, since BatchWriteItem cannot carry the version condition and the
+     * stored copy may be written concurrently by other replicas and by batchLoad. Those without a
+     * version are written with BatchWriteItem requests of up to 25 items, and items DynamoDB leaves
+     * unprocessed are retried one by one.
+     *
+     * @param searchRestaurants The searchRestaurants to be saved, oldest first.
+     * @return The number of searchRestaurants written.
+     * @throws RuntimeException if an item still cannot be saved, so the caller can redeliver the whole batch.
+     */
+    public int saveRestaurants(List<SearchRestaurant> searchRestaurants) {
+        Map<String, SearchRestaurant> latest = new LinkedHashMap<>();
+        for (SearchRestaurant searchRestaurant : searchRestaurants) {
+            SearchRestaurant previous = latest.get(searchRestaurant.getRestaurantName());
+            if (previous == null || !isOlder(searchRestaurant, previous)) {
+                latest.remove(searchRestaurant.getRestaurantName());
+                latest.put(searchRestaurant.getRestaurantName(), searchRestaurant);
+            }
+        }
+
+        int saved = 0;
+        Map<String, SearchRestaurant> unversioned = new LinkedHashMap<>();
+        for (SearchRestaurant searchRestaurant : latest.values()) {
+            if (searchRestaurant.getVersion() == null) {
+                unversioned.put(searchRestaurant.getRestaurantName(), searchRestaurant);
+            } else if (saveRestaurantIfNewer(searchRestaurant)) {
+                saved++;
+            }
+        }
+        if (unversioned.isEmpty()) {
+            return saved;
+        }
+
+        Set<String> failed = new HashSet<>();
+        try {
+            for (DynamoDBMapper.FailedBatch failedBatch : dynamoDBMapper.batchSave(unversioned.values())) {
+                LOGGER.warn("Batch write of searchRestaurants failed, retrying its items one by one", failedBatch.getException());
+                for (List<WriteRequest> writeRequests : failedBatch.getUnprocessedItems().values()) {
+                    for (WriteRequest writeRequest : writeRequests) {
+                        failed.add(writeRequest.getPutRequest().getItem().get("restaurantName").getS());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Batch write of {} searchRestaurants failed, retrying them one by one", unversioned.size(), e);
+            failed.addAll(unversioned.keySet());
+        }
+
+        for (String restaurantName : failed) {
+            saveRestaurant(unversioned.get(restaurantName));
+        }
+        LOGGER.info("Saved {} searchRestaurants ({} retried individually)", saved + unversioned.size(), failed.size());
+        return saved + unversioned.size();
+    }
+
+    // True if the candidate carries a lower version than the other copy of the same restaurant
+    private static boolean isOlder(SearchRestaurant candidate, SearchRestaurant other) {
+        return candidate.getVersion() != null && other.getVersion() != null && candidate.getVersion() < other.getVersion();
+    }
+
 
     /**
      * Finds all items under a specific restaurant by name.
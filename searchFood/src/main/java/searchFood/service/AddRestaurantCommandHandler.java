@@ -1,17 +1,20 @@
 package searchFood.service;
 
-import searchFood.model.AddRestaurantCommand;
-import searchFood.model.SearchRestaurant;
+import model.AddRestaurantCommand;
+import model.RestaurantMapper;
+import model.SearchRestaurant;
+import searchFood.config.RabbitConfig;
 import searchFood.repository.RestaurantRepository;
+import searchFood.util.ShardedExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Bean;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 public class AddRestaurantCommandHandler {
@@ -21,25 +24,39 @@ public class AddRestaurantCommandHandler {
     @Autowired
     RestaurantRepository restaurantRepository;
 
-    // Configure the Jackson2JsonMessageConverter for converting messages
-    @Bean
-    public Jackson2JsonMessageConverter jackson2JsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
-    }
+    @Autowired
+    ShardedExecutor shardedExecutor;
 
-    // Define a RabbitMQ listener for the "addrestaurant-command" queue
-    @RabbitListener(queues = "addrestaurant-command")
+    // Define a RabbitMQ listener for the "addrestaurant-command" queue (bound to restaurant.added), used when batch listeners are disabled
+    @RabbitListener(queues = RabbitConfig.RESTAURANT_ADDED_QUEUE, autoStartup = "#{!${searchfood.listener.batch-enabled:true}}")
     public void handleCommand(AddRestaurantCommand restaurantRequest) {
         LOGGER.info("AddRestaurantCommandHandler: Message received in queue addrestaurant-command");
 
-        // Create a new SearchRestaurant object and populate it with data from the received command
-        SearchRestaurant searchRestaurant = new SearchRestaurant();
-        searchRestaurant.setRestaurantName(restaurantRequest.getRestaurantName());
-        searchRestaurant.setAddress(restaurantRequest.getAddress());
-        searchRestaurant.setMenuList(restaurantRequest.getMenuList());
-        searchRestaurant.setCreatedAt(String.valueOf(LocalDateTime.now()));
+        // Save the restaurant data in the repository unless a newer version is already stored
+        restaurantRepository.saveRestaurantIfNewer(toSearchRestaurant(restaurantRequest));
+    }
 
-        // Save the restaurant data in the repository
-        restaurantRepository.saveRestaurant(searchRestaurant);
+    // Batch listener for the "addrestaurant-command" queue; the batch is acked only after it has been written
+    @RabbitListener(queues = RabbitConfig.RESTAURANT_ADDED_QUEUE, containerFactory = "batchListenerContainerFactory",
+            autoStartup = "${searchfood.listener.batch-enabled:true}")
+    public void handleCommands(List<AddRestaurantCommand> restaurantRequests) {
+        long start = System.nanoTime();
+
+        List<SearchRestaurant> searchRestaurants = new ArrayList<>(restaurantRequests.size());
+        for (AddRestaurantCommand restaurantRequest : restaurantRequests) {
+            searchRestaurants.add(toSearchRestaurant(restaurantRequest));
+        }
+        // Restaurants are spread over the lanes; each lane writes its share in arrival order
+        shardedExecutor.executeAll(searchRestaurants, SearchRestaurant::getRestaurantName, restaurantRepository::saveRestaurants);
+
+        LOGGER.info("AddRestaurantCommandHandler: Applied {} messages from queue addrestaurant-command in {} ms",
+                restaurantRequests.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Map the received command to a SearchRestaurant, stamped with the time it reached searchFood
+    private SearchRestaurant toSearchRestaurant(AddRestaurantCommand restaurantRequest) {
+        SearchRestaurant searchRestaurant = RestaurantMapper.toSearchRestaurant(restaurantRequest);
+        searchRestaurant.setCreatedAt(String.valueOf(LocalDateTime.now()));
+        return searchRestaurant;
     }
 }
@@ -1,13 +1,17 @@
 package searchFood.service;
 
-import searchFood.model.SearchRestaurant;
+import model.SearchRestaurant;
+import searchFood.config.RabbitConfig;
 import searchFood.repository.RestaurantRepository;
+import searchFood.util.ShardedExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class PriceUpdateCommandHandler {
 
@@ -16,12 +20,29 @@ public class PriceUpdateCommandHandler {
     @Autowired
     RestaurantRepository restaurantRepository;
 
-    // Define a RabbitMQ listener for the "priceupdate-command" queue
-    @RabbitListener(queues = "priceupdate-command")
+    @Autowired
+    ShardedExecutor shardedExecutor;
+
+    // Define a RabbitMQ listener for the "priceupdate-command" queue (bound to price.changed), used when batch listeners are disabled
+    @RabbitListener(queues = RabbitConfig.PRICE_CHANGED_QUEUE, autoStartup = "#{!${searchfood.listener.batch-enabled:true}}")
     public void handlePriceUpdateCommand(SearchRestaurant searchRestaurant) {
         LOGGER.info("PriceUpdateCommandHandler: Message received in queue priceupdate-command");
 
-        // Save the updated restaurant data in the repository
-        restaurantRepository.saveRestaurant(searchRestaurant);
+        // Save the updated restaurant data in the repository unless a newer version is already stored
+        restaurantRepository.saveRestaurantIfNewer(searchRestaurant);
+    }
+
+    // Batch listener for the "priceupdate-command" queue; the batch is acked only after it has been written
+    @RabbitListener(queues = RabbitConfig.PRICE_CHANGED_QUEUE, containerFactory = "batchListenerContainerFactory",
+            autoStartup = "${searchfood.listener.batch-enabled:true}")
+    public void handlePriceUpdateCommands(List<SearchRestaurant> searchRestaurants) {
+        long start = System.nanoTime();
+
+        // Updates of one restaurant stay on one lane and collapse to the newest version there;
+        // different restaurants are written in parallel
+        shardedExecutor.executeAll(searchRestaurants, SearchRestaurant::getRestaurantName, restaurantRepository::saveRestaurants);
+
+        LOGGER.info("PriceUpdateCommandHandler: Applied {} messages from queue priceupdate-command in {} ms",
+                searchRestaurants.size(), (System.nanoTime() - start) / 1_000_000);
     }
 }
@@ -0,0 +1,24 @@
+package searchFood.util;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.springframework.amqp.support.converter.AbstractJackson2MessageConverter;
+import org.springframework.util.MimeType;
+
+/**
+ * Converts {@code application/cbor} messages, the binary form of the JSON commands, with the same
+ * type inference from the listener method signature as {@code Jackson2JsonMessageConverter}.
+ * <p>
+ * Like that converter, it ignores unknown properties, so producers can add fields to a command
+ * before every consumer knows them.
+ */
+public class Jackson2CborMessageConverter extends AbstractJackson2MessageConverter {
+
+    public static final String CONTENT_TYPE_CBOR = "application/cbor";
+
+    public Jackson2CborMessageConverter() {
+        super(CBORMapper.builder()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build(), MimeType.valueOf(CONTENT_TYPE_CBOR), "*");
+    }
+}
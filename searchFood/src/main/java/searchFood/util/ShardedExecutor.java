@@ -0,0 +1,104 @@
+package searchFood.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs work on a fixed number of single-threaded lanes, choosing the lane from a hash of the item key.
+ * <p>
+ * Items with the same key (e.g. the same restaurantName) always land on the same lane and are handled
+ * in the order they were given, while items with different keys are spread over all lanes and handled
+ * in parallel.
+ */
+@Component
+public class ShardedExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardedExecutor.class);
+
+    @Value("${searchfood.listener.lanes:0}")
+    private int lanes;
+
+    private ExecutorService[] executors;
+
+    public ShardedExecutor() {
+    }
+
+    public ShardedExecutor(int lanes) {
+        this.lanes = lanes;
+        start();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (lanes <= 0) {
+            lanes = Runtime.getRuntime().availableProcessors();
+        }
+        executors = new ExecutorService[lanes];
+        for (int i = 0; i < lanes; i++) {
+            String threadName = "command-lane-" + i;
+            executors[i] = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, threadName));
+        }
+        LOGGER.info("Started {} command lanes", lanes);
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (ExecutorService executor : executors) {
+            executor.shutdown();
+        }
+    }
+
+    public int getLanes() {
+        return lanes;
+    }
+
+    /**
+     * Splits the items by lane, hands each lane its items in their original order and waits for all
+     * lanes to finish.
+     *
+     * @param items The items to process, in arrival order.
+     * @param key   Extracts the key that decides the lane of an item.
+     * @param work  The work applied to the items of one lane.
+     * @param <T>   The type of the items.
+     * @throws RuntimeException the first failure of any lane, after all lanes have finished.
+     */
+    public <T> void executeAll(List<T> items, Function<T, String> key, Consumer<List<T>> work) {
+        Map<Integer, List<T>> itemsByLane = new LinkedHashMap<>();
+        for (T item : items) {
+            itemsByLane.computeIfAbsent(laneOf(key.apply(item)), lane -> new ArrayList<>()).add(item);
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(itemsByLane.size());
+        for (Map.Entry<Integer, List<T>> entry : itemsByLane.entrySet()) {
+            futures.add(CompletableFuture.runAsync(() -> work.accept(entry.getValue()), executors[entry.getKey()]));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private int laneOf(String key) {
+        return key == null ? 0 : Math.floorMod(key.hashCode(), lanes);
+    }
+}
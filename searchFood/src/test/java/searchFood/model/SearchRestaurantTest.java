@@ -1,5 +1,8 @@
 package searchFood.model;
 
+import model.Menu;
+import model.MenuList;
+import model.SearchRestaurant;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
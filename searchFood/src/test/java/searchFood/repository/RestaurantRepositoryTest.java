@@ -1,11 +1,17 @@
 package searchFood.repository;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.PutRequest;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.slf4j.Logger;
+import model.*;
 import searchFood.model.*;
 import searchFood.util.ReviewsFeignClient;
 
@@ -13,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -232,4 +239,145 @@ class RestaurantRepositoryTest {
         verify(feignClient, never()).fetchReviews(any(ReviewRequest.class));
     }
 
+    @Test
+    void saveRestaurants_DuplicateNames_WritesLatestOnceInOneBatch() {
+        // Arrange
+        SearchRestaurant older = new SearchRestaurant();
+        older.setRestaurantName("Restaurant 1");
+        older.setAddress("Old Address");
+        SearchRestaurant other = new SearchRestaurant();
+        other.setRestaurantName("Restaurant 2");
+        SearchRestaurant newer = new SearchRestaurant();
+        newer.setRestaurantName("Restaurant 1");
+        newer.setAddress("New Address");
+        when(dynamoDBMapper.batchSave(any(Iterable.class))).thenReturn(Collections.emptyList());
+
+        // Act
+        int saved = restaurantRepository.saveRestaurants(Arrays.asList(older, other, newer));
+
+        // Assert
+        assertEquals(2, saved);
+        verify(dynamoDBMapper, times(1)).batchSave(argThat((Iterable<?> items) -> {
+            List<Object> written = new ArrayList<>();
+            items.forEach(written::add);
+            return written.size() == 2 && written.contains(newer) && written.contains(other);
+        }));
+        verify(dynamoDBMapper, never()).save(any(SearchRestaurant.class));
+    }
+
+    @Test
+    void saveRestaurants_UnprocessedItems_RetriesThemOneByOne() {
+        // Arrange
+        SearchRestaurant first = new SearchRestaurant();
+        first.setRestaurantName("Restaurant 1");
+        SearchRestaurant second = new SearchRestaurant();
+        second.setRestaurantName("Restaurant 2");
+
+        DynamoDBMapper.FailedBatch failedBatch = new DynamoDBMapper.FailedBatch();
+        failedBatch.setUnprocessedItems(Map.of("searchrestaurant", List.of(new WriteRequest(
+                new PutRequest(Map.of("restaurantName", new AttributeValue("Restaurant 2")))))));
+        when(dynamoDBMapper.batchSave(any(Iterable.class))).thenReturn(List.of(failedBatch));
+
+        // Act
+        restaurantRepository.saveRestaurants(Arrays.asList(first, second));
+
+        // Assert
+        verify(dynamoDBMapper, times(1)).save(second);
+        verify(dynamoDBMapper, never()).save(first);
+    }
+
+    @Test
+    void saveRestaurants_RetryFails_Throws() {
+        // Arrange
+        SearchRestaurant searchRestaurant = new SearchRestaurant();
+        searchRestaurant.setRestaurantName("Restaurant 1");
+        when(dynamoDBMapper.batchSave(any(Iterable.class))).thenThrow(RuntimeException.class);
+        doThrow(RuntimeException.class).when(dynamoDBMapper).save(searchRestaurant);
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> restaurantRepository.saveRestaurants(List.of(searchRestaurant)));
+    }
+
+    @Test
+    void saveRestaurantIfNewer_NewerVersion_SavesWithVersionCondition() {
+        // Arrange
+        SearchRestaurant searchRestaurant = new SearchRestaurant();
+        searchRestaurant.setRestaurantName("Restaurant 1");
+        searchRestaurant.setVersion(3L);
+
+        // Act
+        boolean saved = restaurantRepository.saveRestaurantIfNewer(searchRestaurant);
+
+        // Assert
+        assertTrue(saved);
+        verify(dynamoDBMapper, times(1)).save(eq(searchRestaurant), argThat((DynamoDBSaveExpression expression) ->
+                "attribute_not_exists(#version) OR #version < :version".equals(expression.getConditionExpression())
+                        && "3".equals(expression.getExpressionAttributeValues().get(":version").getN())));
+    }
+
+    @Test
+    void saveRestaurantIfNewer_StaleVersion_IsSkipped() {
+        // Arrange
+        SearchRestaurant searchRestaurant = new SearchRestaurant();
+        searchRestaurant.setRestaurantName("Restaurant 1");
+        searchRestaurant.setVersion(2L);
+        doThrow(new ConditionalCheckFailedException("The conditional request failed"))
+                .when(dynamoDBMapper).save(eq(searchRestaurant), any(DynamoDBSaveExpression.class));
+
+        // Act
+        boolean saved = restaurantRepository.saveRestaurantIfNewer(searchRestaurant);
+
+        // Assert
+        assertFalse(saved);
+    }
+
+    @Test
+    void saveRestaurants_VersionedItems_SavesEachWithVersionConditionInsteadOfBatch() {
+        // Arrange
+        SearchRestaurant stale = new SearchRestaurant();
+        stale.setRestaurantName("Restaurant 1");
+        stale.setVersion(2L);
+        SearchRestaurant fresh = new SearchRestaurant();
+        fresh.setRestaurantName("Restaurant 2");
+        fresh.setVersion(5L);
+        SearchRestaurant unversioned = new SearchRestaurant();
+        unversioned.setRestaurantName("Restaurant 3");
+        doThrow(new ConditionalCheckFailedException("The conditional request failed"))
+                .when(dynamoDBMapper).save(eq(stale), any(DynamoDBSaveExpression.class));
+        when(dynamoDBMapper.batchSave(any(Iterable.class))).thenReturn(Collections.emptyList());
+
+        // Act
+        int saved = restaurantRepository.saveRestaurants(Arrays.asList(stale, fresh, unversioned));
+
+        // Assert
+        assertEquals(2, saved);
+        verify(dynamoDBMapper, times(1)).save(eq(fresh), argThat((DynamoDBSaveExpression expression) ->
+                "attribute_not_exists(#version) OR #version < :version".equals(expression.getConditionExpression())));
+        verify(dynamoDBMapper, times(1)).batchSave(argThat((Iterable<?> items) -> {
+            List<Object> written = new ArrayList<>();
+            items.forEach(written::add);
+            return written.size() == 1 && written.contains(unversioned);
+        }));
+        verify(dynamoDBMapper, never()).batchLoad(anyList());
+    }
+
+    @Test
+    void saveRestaurants_OnlyVersionedItems_SkipsBatchWrite() {
+        // Arrange
+        SearchRestaurant older = new SearchRestaurant();
+        older.setRestaurantName("Restaurant 1");
+        older.setVersion(1L);
+        SearchRestaurant newer = new SearchRestaurant();
+        newer.setRestaurantName("Restaurant 1");
+        newer.setVersion(2L);
+
+        // Act
+        int saved = restaurantRepository.saveRestaurants(Arrays.asList(newer, older));
+
+        // Assert
+        assertEquals(1, saved);
+        verify(dynamoDBMapper, times(1)).save(eq(newer), any(DynamoDBSaveExpression.class));
+        verify(dynamoDBMapper, never()).save(eq(older), any(DynamoDBSaveExpression.class));
+        verify(dynamoDBMapper, never()).batchSave(any(Iterable.class));
+    }
 }
@@ -5,12 +5,14 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.slf4j.Logger;
-import searchFood.model.AddRestaurantCommand;
-import searchFood.model.SearchRestaurant;
+import model.AddRestaurantCommand;
+import model.SearchRestaurant;
 import searchFood.repository.RestaurantRepository;
+import searchFood.util.ShardedExecutor;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.mockito.Mockito.*;
 
@@ -29,6 +31,7 @@ class AddRestaurantCommandHandlerTest {
         MockitoAnnotations.openMocks(this);
         addRestaurantCommandHandler = new AddRestaurantCommandHandler();
         addRestaurantCommandHandler.restaurantRepository = restaurantRepository;
+        addRestaurantCommandHandler.shardedExecutor = new ShardedExecutor(1);
     }
 
     @Test
@@ -44,7 +47,22 @@ class AddRestaurantCommandHandlerTest {
         addRestaurantCommandHandler.handleCommand(addRestaurantCommand);
 
         // Assert
-        verify(restaurantRepository, times(1)).saveRestaurant(any(SearchRestaurant.class));
+        verify(restaurantRepository, times(1)).saveRestaurantIfNewer(any(SearchRestaurant.class));
     }
-}
 
+    @Test
+    void handleCommands_Batch_SavesAllInOneBatchWrite() {
+        // Arrange
+        AddRestaurantCommand first = new AddRestaurantCommand("Restaurant 1", "123 Main Street", null, 1L);
+        AddRestaurantCommand second = new AddRestaurantCommand("Restaurant 2", "456 Side Street", null, 1L);
+
+        // Act
+        addRestaurantCommandHandler.handleCommands(List.of(first, second));
+
+        // Assert
+        verify(restaurantRepository, times(1)).saveRestaurants(argThat(restaurants -> restaurants.size() == 2
+                && "Restaurant 1".equals(restaurants.get(0).getRestaurantName())
+                && "Restaurant 2".equals(restaurants.get(1).getRestaurantName())));
+        verify(restaurantRepository, never()).saveRestaurant(any(SearchRestaurant.class));
+    }
+}
@@ -5,10 +5,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import searchFood.model.SearchRestaurant;
+import model.SearchRestaurant;
 import searchFood.repository.RestaurantRepository;
+import searchFood.util.ShardedExecutor;
 import org.slf4j.Logger;
 
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 class PriceUpdateCommandHandlerTest {
@@ -26,6 +30,7 @@ class PriceUpdateCommandHandlerTest {
         MockitoAnnotations.openMocks(this);
         priceUpdateCommandHandler = new PriceUpdateCommandHandler();
         priceUpdateCommandHandler.restaurantRepository = restaurantRepository;
+        priceUpdateCommandHandler.shardedExecutor = new ShardedExecutor(1);
     }
 
     @Test
@@ -40,7 +45,34 @@ class PriceUpdateCommandHandlerTest {
         priceUpdateCommandHandler.handlePriceUpdateCommand(searchRestaurant);
 
         // Assert
-        verify(restaurantRepository, times(1)).saveRestaurant(searchRestaurant);
+        verify(restaurantRepository, times(1)).saveRestaurantIfNewer(searchRestaurant);
     }
 
+    @Test
+    void handlePriceUpdateCommands_Batch_SavesAllInOneBatchWrite() {
+        // Arrange
+        SearchRestaurant first = new SearchRestaurant();
+        first.setRestaurantName("Restaurant 1");
+        SearchRestaurant second = new SearchRestaurant();
+        second.setRestaurantName("Restaurant 2");
+        List<SearchRestaurant> batch = List.of(first, second);
+
+        // Act
+        priceUpdateCommandHandler.handlePriceUpdateCommands(batch);
+
+        // Assert
+        verify(restaurantRepository, times(1)).saveRestaurants(batch);
+        verify(restaurantRepository, never()).saveRestaurant(any(SearchRestaurant.class));
+    }
+
+    @Test
+    void handlePriceUpdateCommands_WriteFails_RethrowsForRedelivery() {
+        // Arrange
+        SearchRestaurant searchRestaurant = new SearchRestaurant();
+        searchRestaurant.setRestaurantName("Restaurant 1");
+        when(restaurantRepository.saveRestaurants(anyList())).thenThrow(RuntimeException.class);
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> priceUpdateCommandHandler.handlePriceUpdateCommands(List.of(searchRestaurant)));
+    }
 }
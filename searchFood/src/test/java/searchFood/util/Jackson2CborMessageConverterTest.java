@@ -0,0 +1,47 @@
+package searchFood.util;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import model.AddRestaurantCommand;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class Jackson2CborMessageConverterTest {
+
+    @Test
+    public void fromMessage_CborPayload_DecodesToInferredType() throws Exception {
+        AddRestaurantCommand command = new AddRestaurantCommand("Restaurant 1", "123 Main Street", null, 2L);
+        Message message = MessageBuilder
+                .withBody(new CBORMapper().writeValueAsBytes(command))
+                .setContentType(Jackson2CborMessageConverter.CONTENT_TYPE_CBOR)
+                .build();
+        message.getMessageProperties().setInferredArgumentType(AddRestaurantCommand.class);
+
+        Object converted = new Jackson2CborMessageConverter().fromMessage(message);
+
+        assertEquals(command, converted);
+    }
+
+    @Test
+    public void fromMessage_CborPayloadWithUnknownProperty_IgnoresIt() throws Exception {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("restaurantName", "Restaurant 1");
+        payload.put("address", "123 Main Street");
+        payload.put("version", 2L);
+        payload.put("cuisine", "Italian");
+        Message message = MessageBuilder
+                .withBody(new CBORMapper().writeValueAsBytes(payload))
+                .setContentType(Jackson2CborMessageConverter.CONTENT_TYPE_CBOR)
+                .build();
+        message.getMessageProperties().setInferredArgumentType(AddRestaurantCommand.class);
+
+        Object converted = new Jackson2CborMessageConverter().fromMessage(message);
+
+        assertEquals(new AddRestaurantCommand("Restaurant 1", "123 Main Street", null, 2L), converted);
+    }
+}
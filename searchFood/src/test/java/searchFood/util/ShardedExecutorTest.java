@@ -0,0 +1,71 @@
+package searchFood.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedExecutorTest {
+
+    private ShardedExecutor shardedExecutor;
+
+    @BeforeEach
+    public void setUp() {
+        shardedExecutor = new ShardedExecutor(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        shardedExecutor.stop();
+    }
+
+    @Test
+    public void executeAll_SameKey_KeepsArrivalOrderOnOneLane() {
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add("Restaurant " + (i % 10) + ":" + i);
+        }
+        Map<String, List<Integer>> seenByRestaurant = new ConcurrentHashMap<>();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        shardedExecutor.executeAll(items, item -> item.split(":")[0], laneItems -> {
+            threads.add(Thread.currentThread().getName());
+            for (String item : laneItems) {
+                String[] parts = item.split(":");
+                seenByRestaurant.computeIfAbsent(parts[0], name -> Collections.synchronizedList(new ArrayList<>()))
+                        .add(Integer.parseInt(parts[1]));
+            }
+        });
+
+        assertEquals(10, seenByRestaurant.size());
+        for (List<Integer> sequence : seenByRestaurant.values()) {
+            List<Integer> sorted = new ArrayList<>(sequence);
+            Collections.sort(sorted);
+            assertEquals(sorted, sequence, "Items of one restaurant must be handled in arrival order");
+        }
+        assertTrue(threads.size() > 1, "Different restaurants should be spread over several lanes");
+    }
+
+    @Test
+    public void executeAll_LaneFails_ThrowsAfterOtherLanesFinish() {
+        Set<String> handled = Collections.synchronizedSet(new HashSet<>());
+        List<String> items = List.of("a", "b", "c", "d", "e", "f", "g", "h");
+
+        assertThrows(IllegalStateException.class, () -> shardedExecutor.executeAll(items, item -> item, laneItems -> {
+            if (laneItems.contains("a")) {
+                throw new IllegalStateException("Write failed");
+            }
+            handled.addAll(laneItems);
+        }));
+        assertFalse(handled.contains("a"));
+    }
+}
@@ -3,9 +3,11 @@ package updatePrice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.netflix.eureka.EnableEurekaClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableEurekaClient
-@SpringBootApplication
+@SpringBootApplication(scanBasePackages = {"updatePrice", "outbox", "idempotency"}) // Also picks up the shared outbox relay and idempotency store
+@EnableScheduling
 public class UpdatePrice {
     public static void main(String[] args) {
         SpringApplication.run(UpdatePrice.class, args);
@@ -6,11 +6,13 @@ import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import outbox.OutboxTableNameResolver;
 
 @Configuration
 public class DynamoDBConfig {
@@ -29,6 +31,10 @@ public class DynamoDBConfig {
     @Value("${amazon.aws.secretkey}")
     private String dynamodbSecretKey;
 
+    // Table the OutboxEvents of this service are written to
+    @Value("${outbox.table}")
+    private String outboxTable;
+
     /**
      * Creates a bean for the DynamoDBMapper.
      *
@@ -36,7 +42,10 @@ public class DynamoDBConfig {
      */
     @Bean
     public DynamoDBMapper dynamoDBMapper() {
-        return new DynamoDBMapper(buildAmazonDynamoDB());
+        DynamoDBMapperConfig mapperConfig = DynamoDBMapperConfig.builder()
+                .withTableNameResolver(new OutboxTableNameResolver(outboxTable))
+                .build();
+        return new DynamoDBMapper(buildAmazonDynamoDB(), mapperConfig);
     }
 
     /**
@@ -1,21 +1,20 @@
 package updatePrice.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.amqp.core.Message;
-import org.springframework.amqp.core.MessageBuilder;
-import org.springframework.amqp.core.MessageProperties;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import model.*;
 import updatePrice.model.*;
+import outbox.OutboxEvent;
+import idempotency.IdempotencyStore;
 import updatePrice.repository.RestaurantRepository;
+import updatePrice.service.PriceUpdateCoalescer;
+import updatePrice.util.PriceUpdateValidator;
+import model.codec.MessageCodec;
+import model.events.RestaurantEvents;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,7 +29,13 @@ public class UpdatePriceController {
     private RestaurantRepository restaurantRepository;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private MessageCodec messageCodec;
+
+    @Autowired(required = false)
+    private PriceUpdateCoalescer priceUpdateCoalescer;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
 
     public RestaurantRepository getRestaurantRepository() {
         return restaurantRepository;
@@ -40,35 +45,62 @@ public class UpdatePriceController {
         this.restaurantRepository = restaurantRepository;
     }
 
-    public ObjectMapper getObjectMapper() {
-        return objectMapper;
+    public MessageCodec getMessageCodec() {
+        return messageCodec;
+    }
+
+    public void setMessageCodec(MessageCodec messageCodec) {
+        this.messageCodec = messageCodec;
     }
 
-    public void setObjectMapper(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+    public PriceUpdateCoalescer getPriceUpdateCoalescer() {
+        return priceUpdateCoalescer;
     }
 
-    public RabbitTemplate getRabbitTemplate() {
-        return rabbitTemplate;
+    public void setPriceUpdateCoalescer(PriceUpdateCoalescer priceUpdateCoalescer) {
+        this.priceUpdateCoalescer = priceUpdateCoalescer;
     }
 
-    private final RabbitTemplate rabbitTemplate;
+    public IdempotencyStore getIdempotencyStore() {
+        return idempotencyStore;
+    }
 
-    public UpdatePriceController(RabbitTemplate rabbitTemplate) {
-        this.rabbitTemplate = rabbitTemplate;
+    public void setIdempotencyStore(IdempotencyStore idempotencyStore) {
+        this.idempotencyStore = idempotencyStore;
     }
 
     /**
-     * Updates the price for a specific menu item in a restaurant.
+     * Updates the price for a specific menu item in a restaurant. A request repeating an earlier
+     * Idempotency-Key gets the recorded response of the first request without saving again, or 422 if
+     * the restaurant or body differs.
      *
      * @param restaurantName     The name of the restaurant.
      * @param priceUpdateRequest The name of the menu item.
+     * @param idempotencyKey     Optional client-generated key identifying retries of the same request.
      * @return ResponseEntity containing the status of the price update or error message.
      */
     @PostMapping("/update-price/menu/{restaurantName}")
     public ResponseEntity<String> updatePrice(
-            @PathVariable String restaurantName, @RequestBody PriceUpdateRequest priceUpdateRequest
+            @PathVariable String restaurantName, @RequestBody PriceUpdateRequest priceUpdateRequest,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
     ) {
+        if (idempotencyKey == null || idempotencyKey.isEmpty() || idempotencyStore == null) {
+            return updatePrice(restaurantName, priceUpdateRequest);
+        }
+        return idempotencyStore.execute("update-price", idempotencyKey, IdempotencyStore.hashOf(restaurantName, priceUpdateRequest),
+                () -> updatePrice(restaurantName, priceUpdateRequest));
+    }
+
+    /**
+     * Updates the price for a specific menu item in a restaurant. A save that loses the version check to
+     * a concurrent update is applied again to the latest copy, and answered with 409 once
+     * {@link RestaurantRepository#MAX_SAVE_ATTEMPTS} attempts have lost.
+     *
+     * @param restaurantName     The name of the restaurant.
+     * @param priceUpdateRequest The name of the menu item.
+     * @return ResponseEntity containing the status of the price update or error message.
+     */
+    public ResponseEntity<String> updatePrice(String restaurantName, PriceUpdateRequest priceUpdateRequest) {
 
         try {
             String menuItemName = priceUpdateRequest.getMenuItemName();
@@ -76,69 +108,54 @@ public class UpdatePriceController {
 
             LOGGER.info("Updating price for item: {} in restaurant: {}", menuItemName, restaurantName);
 
+            if (priceUpdateCoalescer != null && priceUpdateCoalescer.isEnabled()) {
+                return coalescePriceUpdate(restaurantName, menuItemName, newPrice);
+            }
+
             Restaurant existingRestaurant = restaurantRepository.getRestaurantByRestaurantName(restaurantName);
             if (existingRestaurant == null) {
                 LOGGER.warn("Restaurant not found: {}", restaurantName);
                 return ResponseEntity.badRequest().body("Restaurant not found");
             }
 
-            if (!isValidValue(menuItemName)) {
-                LOGGER.warn("Invalid item name: {}", menuItemName);
-                return ResponseEntity.badRequest().body("Item name " + menuItemName + " is invalid");
-            }
-
-            Pattern pattern = Pattern.compile("\\d+(\\.\\d+)?");
-            Matcher matcher = pattern.matcher(newPrice);
-            if (!matcher.matches()) {
-                LOGGER.warn("Non-numeric price: {} for item: {} in restaurant: {}", newPrice, menuItemName, restaurantName);
-                return ResponseEntity.badRequest().body("Price " + newPrice + " of item " + menuItemName + " under restaurant " + restaurantName + " is non-numeric");
-            }
-
-            double price = Double.parseDouble(newPrice);
-            if (price < 100 || price > 200) {
-                LOGGER.warn("Invalid price range: {} for item: {} in restaurant: {}", newPrice, menuItemName, restaurantName);
-                return ResponseEntity.badRequest().body("Price " + newPrice + " of item " + menuItemName + " under restaurant " + restaurantName + " is outside allowed range 100-200");
+            String validationError = PriceUpdateValidator.validate(restaurantName, menuItemName, newPrice);
+            if (validationError != null) {
+                return ResponseEntity.badRequest().body(validationError);
             }
 
-            MenuList menuList = existingRestaurant.getMenuList();
-            List<Menu> items = menuList.getItems();
-
-            AtomicBoolean itemFound = new AtomicBoolean(false);
-            items.replaceAll(menu -> {
-                if (menu.getItemName().equals(menuItemName)) {
-                    menu.setPrice(newPrice);
-                    itemFound.set(true);
+            for (int attempt = 1; ; attempt++) {
+                if (!applyPrice(existingRestaurant, menuItemName, newPrice)) {
+                    LOGGER.warn("Menu item not found: {} in restaurant: {}", menuItemName, restaurantName);
+                    return ResponseEntity.badRequest().body("Menu item " + menuItemName + " under restaurant " + restaurantName + " is not found");
                 }
-                return menu;
-            });
 
-            if (!itemFound.get()) {
-                LOGGER.warn("Menu item not found: {} in restaurant: {}", menuItemName, restaurantName);
-                return ResponseEntity.badRequest().body("Menu item " + menuItemName + " under restaurant " + restaurantName + " is not found");
+                existingRestaurant.setUpdatedAt(String.valueOf(LocalDateTime.now()));
+
+                PriceUpdateCommand priceUpdateCommand = RestaurantMapper.toPriceUpdateCommand(existingRestaurant);
+                // The versioned save below writes the loaded version + 1 (1 if the restaurant has none yet)
+                priceUpdateCommand.setVersion(existingRestaurant.getVersion() == null ? 1L : existingRestaurant.getVersion() + 1);
+
+                // Save the restaurant and its price.changed event in one transaction; OutboxRelay publishes the event
+                OutboxEvent outboxEvent = OutboxEvent.of(restaurantName, RestaurantEvents.EXCHANGE, RestaurantEvents.PRICE_CHANGED,
+                        messageCodec.getContentType(), messageCodec.encode(priceUpdateCommand));
+                try {
+                    restaurantRepository.saveRestaurant(existingRestaurant, outboxEvent);
+                    break;
+                } catch (ConditionalCheckFailedException e) {
+                    // Another update won the version check; apply this one on top of it
+                    if (attempt >= RestaurantRepository.MAX_SAVE_ATTEMPTS) {
+                        LOGGER.warn("Giving up on price update for item: {} in restaurant: {} after {} concurrent updates", menuItemName, restaurantName, attempt);
+                        return ResponseEntity.status(409).body("Restaurant was updated concurrently, please retry");
+                    }
+                    existingRestaurant = restaurantRepository.getLatestRestaurantByRestaurantName(restaurantName);
+                    if (existingRestaurant == null) {
+                        LOGGER.warn("Restaurant not found: {}", restaurantName);
+                        return ResponseEntity.badRequest().body("Restaurant not found");
+                    }
+                }
             }
-
-            menuList.setItems(items);
-            existingRestaurant.setMenuList(menuList);
-
-            existingRestaurant.setUpdatedAt(String.valueOf(LocalDateTime.now()));
-            restaurantRepository.saveRestaurant(existingRestaurant);
             LOGGER.info("Price updated successfully for item: {} in restaurant: {}", menuItemName, restaurantName);
 
-            PriceUpdateCommand priceUpdateCommand = new PriceUpdateCommand();
-            priceUpdateCommand.setRestaurantName(existingRestaurant.getRestaurantName());
-            priceUpdateCommand.setAddress(existingRestaurant.getAddress());
-            priceUpdateCommand.setMenuList(existingRestaurant.getMenuList());
-            priceUpdateCommand.setUpdatedAt(existingRestaurant.getUpdatedAt());
-            priceUpdateCommand.setCreatedAt(existingRestaurant.getCreatedAt());
-
-
-            String restaurantJson = objectMapper.writeValueAsString(priceUpdateCommand);
-            Message message = MessageBuilder
-                    .withBody(restaurantJson.getBytes())
-                    .setContentType(MessageProperties.CONTENT_TYPE_JSON)
-                    .build();
-            this.rabbitTemplate.convertAndSend("priceupdate-command", message);
-
             return ResponseEntity.ok("Price updated successfully");
         } catch (Exception e) {
             LOGGER.error("Error occurred while updating price for item: {} in restaurant: {}", priceUpdateRequest.getMenuItemName(), restaurantName, e);
@@ -146,13 +163,39 @@ public class UpdatePriceController {
         }
     }
 
-    public static boolean isValidValue(String value) {
-        for (Menu.ItemName itemName : Menu.ItemName.values()) {
-            if (itemName.getValue().equals(value)) {
-                return true;
+    /**
+     * Validates the price update and hands it to the coalescer, answering only once the merged batch
+     * for the restaurant has been saved.
+     *
+     * @param restaurantName The name of the restaurant.
+     * @param menuItemName   The name of the menu item.
+     * @param newPrice       The new price of the menu item.
+     * @return ResponseEntity containing the status of the price update or error message.
+     */
+    private ResponseEntity<String> coalescePriceUpdate(String restaurantName, String menuItemName, String newPrice) {
+        String validationError = PriceUpdateValidator.validate(restaurantName, menuItemName, newPrice);
+        if (validationError != null) {
+            return ResponseEntity.badRequest().body(validationError);
+        }
+
+        // Bounded wait: the coalescer answers 503 after its response timeout or when it shuts down
+        return priceUpdateCoalescer.submit(restaurantName, menuItemName, newPrice).join();
+    }
+
+    // Sets the price of the named menu item; false if the restaurant has no such item
+    private static boolean applyPrice(Restaurant restaurant, String menuItemName, String newPrice) {
+        boolean itemFound = false;
+        for (Menu menu : restaurant.getMenuList().getItems()) {
+            if (menu.getItemName().equals(menuItemName)) {
+                menu.setPrice(newPrice);
+                itemFound = true;
             }
         }
-        return false;
+        return itemFound;
+    }
+
+    public static boolean isValidValue(String value) {
+        return PriceUpdateValidator.isValidValue(value);
     }
 
 }
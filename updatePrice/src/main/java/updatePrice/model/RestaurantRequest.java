@@ -1,6 +1,7 @@
 package updatePrice.model;
 
 import lombok.AllArgsConstructor;
+import model.MenuList;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
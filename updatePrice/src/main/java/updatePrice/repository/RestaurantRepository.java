@@ -1,17 +1,30 @@
 package updatePrice.repository;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.datamodeling.TransactionWriteRequest;
+import com.amazonaws.services.dynamodbv2.model.CancellationReason;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.TransactionCanceledException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
-import updatePrice.model.Restaurant;
+import outbox.OutboxEvent;
+import model.Restaurant;
 
 @Repository
 public class RestaurantRepository {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RestaurantRepository.class);
 
+    // Loads, applies and saves a price update at most this many times when concurrent updates win the version check
+    public static final int MAX_SAVE_ATTEMPTS = 3;
+
+    private static final DynamoDBMapperConfig CONSISTENT_READ = DynamoDBMapperConfig.builder()
+            .withConsistentReads(DynamoDBMapperConfig.ConsistentReads.CONSISTENT)
+            .build();
+
     @Autowired
     private DynamoDBMapper dynamoDBMapper;
 
@@ -34,6 +47,44 @@ public class RestaurantRepository {
         return restaurant;
     }
 
+    /**
+     * Saves a restaurant together with its outbox event in one DynamoDB transaction, so the event is
+     * recorded if and only if the restaurant change is. The mapper makes the put conditional on the
+     * version the restaurant was loaded with.
+     *
+     * @param restaurant  The restaurant object to be saved.
+     * @param outboxEvent The event to be published by the outbox relay.
+     * @return The saved restaurant.
+     * @throws ConditionalCheckFailedException if the restaurant has been updated since it was loaded.
+     */
+    public Restaurant saveRestaurant(Restaurant restaurant, OutboxEvent outboxEvent) {
+        TransactionWriteRequest transactionWriteRequest = new TransactionWriteRequest()
+                .addPut(restaurant)
+                .addPut(outboxEvent);
+        try {
+            dynamoDBMapper.transactionWrite(transactionWriteRequest);
+        } catch (TransactionCanceledException e) {
+            if (isConditionalCheckFailure(e)) {
+                LOGGER.warn("Restaurant was updated concurrently: {}", restaurant.getRestaurantName());
+                throw new ConditionalCheckFailedException("Restaurant was updated concurrently: " + restaurant.getRestaurantName());
+            }
+            throw e;
+        }
+        return restaurant;
+    }
+
+    private static boolean isConditionalCheckFailure(TransactionCanceledException e) {
+        if (e.getCancellationReasons() == null) {
+            return false;
+        }
+        for (CancellationReason reason : e.getCancellationReasons()) {
+            if ("ConditionalCheckFailed".equals(reason.getCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Retrieves a restaurant by name from the DynamoDB table.
      *
@@ -45,5 +96,17 @@ public class RestaurantRepository {
         return dynamoDBMapper.load(Restaurant.class, restaurantName);
     }
 
+    /**
+     * Retrieves a restaurant by name with a strongly consistent read, so a retry after a lost version
+     * check sees the update that won.
+     *
+     * @param restaurantName The name of the restaurant to retrieve.
+     * @return The retrieved restaurant or null if not found.
+     */
+    public Restaurant getLatestRestaurantByRestaurantName(String restaurantName) {
+        LOGGER.info("Retrieving latest restaurant by name: {}", restaurantName);
+        return dynamoDBMapper.load(Restaurant.class, restaurantName, CONSISTENT_READ);
+    }
+
 
 }
\ No newline at end of file
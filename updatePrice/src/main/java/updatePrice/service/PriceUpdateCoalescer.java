@@ -0,0 +1,296 @@
+package updatePrice.service;
+
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import model.Menu;
+import outbox.OutboxEvent;
+import model.PriceUpdateCommand;
+import model.Restaurant;
+import model.RestaurantMapper;
+import updatePrice.repository.RestaurantRepository;
+import model.codec.MessageCodec;
+import model.events.RestaurantEvents;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges bursts of price updates for the same restaurant into a single load/save and a single
+ * {@code price.changed} outbox event.
+ * <p>
+ * Each submitted update waits until its restaurant has been quiet for the coalescing window, or until
+ * the max-latency bound since the first pending update is reached, whichever comes first. Callers are
+ * only answered once the merged restaurant has been saved together with its event, or with 503 if that
+ * takes longer than the response timeout or the service shuts down first.
+ */
+@Service
+public class PriceUpdateCoalescer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PriceUpdateCoalescer.class);
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private MessageCodec messageCodec;
+
+    @Value("${priceupdate.coalesce.enabled:false}")
+    private boolean enabled;
+
+    @Value("${priceupdate.coalesce.window-ms:200}")
+    private long windowMs;
+
+    @Value("${priceupdate.coalesce.max-latency-ms:1000}")
+    private long maxLatencyMs;
+
+    @Value("${priceupdate.coalesce.flush-threads:2}")
+    private int flushThreads;
+
+    @Value("${priceupdate.coalesce.response-timeout-ms:5000}")
+    private long responseTimeoutMs = 5000;
+
+    // Pending batches keyed by restaurant name and the restaurants currently being flushed, both guarded by "pending"
+    private final Map<String, PendingBatch> pending = new HashMap<>();
+    private final Set<String> flushing = new HashSet<>();
+
+    // Set once stop() has been called, guarded by "pending"
+    private boolean stopped;
+
+    private ScheduledExecutorService scheduler;
+
+    public PriceUpdateCoalescer() {
+    }
+
+    public PriceUpdateCoalescer(RestaurantRepository restaurantRepository, MessageCodec messageCodec,
+                                long windowMs, long maxLatencyMs) {
+        this.restaurantRepository = restaurantRepository;
+        this.messageCodec = messageCodec;
+        this.enabled = true;
+        this.windowMs = windowMs;
+        this.maxLatencyMs = maxLatencyMs;
+        this.flushThreads = 1;
+        start();
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newScheduledThreadPool(Math.max(1, flushThreads));
+    }
+
+    /**
+     * Stops accepting updates and answers every batch still waiting for its flush with 503; batches
+     * already being written are completed first.
+     */
+    @PreDestroy
+    public void stop() {
+        List<PendingBatch> unflushed;
+        synchronized (pending) {
+            stopped = true;
+            unflushed = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        for (PendingBatch batch : unflushed) {
+            if (batch.flushTask != null) {
+                batch.flushTask.cancel(false);
+            }
+            fail(batch);
+        }
+        scheduler.shutdown();
+    }
+
+    public void setResponseTimeoutMs(long responseTimeoutMs) {
+        this.responseTimeoutMs = responseTimeoutMs;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues an already validated price update for the given restaurant.
+     *
+     * @param restaurantName The name of the restaurant.
+     * @param menuItemName   The name of the menu item.
+     * @param newPrice       The new price of the menu item.
+     * @return A future completed with the response for this update once its batch has been flushed, or
+     * with 503 after the response timeout; a timed-out update may still be applied by its batch.
+     */
+    public CompletableFuture<ResponseEntity<String>> submit(String restaurantName, String menuItemName, String newPrice) {
+        PendingUpdate update = new PendingUpdate(menuItemName, newPrice);
+        update.result.completeOnTimeout(unavailable(), responseTimeoutMs, TimeUnit.MILLISECONDS);
+        PendingBatch rejected = null;
+        synchronized (pending) {
+            if (stopped) {
+                update.result.complete(unavailable());
+                return update.result;
+            }
+            PendingBatch batch = pending.computeIfAbsent(restaurantName, name -> new PendingBatch(System.nanoTime()));
+            batch.updates.add(update);
+            if (!scheduleFlush(restaurantName, batch, null)) {
+                rejected = batch;
+            }
+        }
+        if (rejected != null) {
+            fail(rejected);
+        }
+        return update.result;
+    }
+
+    // Schedules the flush after the window, or after delayMs if given; must be called while holding the "pending" lock.
+    // Returns false and drops the batch if the scheduler has been shut down.
+    private boolean scheduleFlush(String restaurantName, PendingBatch batch, Long delayMs) {
+        if (batch.flushTask != null) {
+            batch.flushTask.cancel(false);
+        }
+        if (delayMs == null) {
+            long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batch.firstSubmittedAt);
+            delayMs = Math.max(0, Math.min(windowMs, maxLatencyMs - waitedMs));
+        }
+        try {
+            batch.flushTask = scheduler.schedule(() -> flush(restaurantName, batch), delayMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Price update coalescer is shutting down, rejecting {} updates for restaurant: {}", batch.updates.size(), restaurantName);
+            pending.remove(restaurantName);
+            return false;
+        }
+    }
+
+    private void flush(String restaurantName, PendingBatch batch) {
+        synchronized (pending) {
+            if (pending.get(restaurantName) != batch) {
+                // Superseded by a newer timer for the same batch, or failed by stop()
+                return;
+            }
+            if (!flushing.add(restaurantName)) {
+                // A previous batch of this restaurant is still being written; try again after one window
+                if (!scheduleFlush(restaurantName, batch, windowMs)) {
+                    fail(batch);
+                }
+                return;
+            }
+            pending.remove(restaurantName);
+        }
+
+        try {
+            applyBatch(restaurantName, batch.updates);
+        } catch (Exception e) {
+            LOGGER.error("Error occurred while flushing {} price updates for restaurant: {}", batch.updates.size(), restaurantName, e);
+            batch.updates.forEach(update -> update.result.complete(ResponseEntity.status(500).body("Internal Server Error")));
+        } finally {
+            synchronized (pending) {
+                flushing.remove(restaurantName);
+            }
+        }
+    }
+
+    // Answers every update of a batch that will not be written with 503, so callers can retry elsewhere
+    private static void fail(PendingBatch batch) {
+        batch.updates.forEach(update -> update.result.complete(unavailable()));
+    }
+
+    private static ResponseEntity<String> unavailable() {
+        return ResponseEntity.status(503).body("Service Unavailable");
+    }
+
+    private void applyBatch(String restaurantName, List<PendingUpdate> updates) throws Exception {
+        LOGGER.info("Flushing {} coalesced price updates for restaurant: {}", updates.size(), restaurantName);
+
+        Restaurant existingRestaurant = restaurantRepository.getRestaurantByRestaurantName(restaurantName);
+        List<PendingUpdate> pending = updates;
+        for (int attempt = 1; ; attempt++) {
+            if (existingRestaurant == null) {
+                LOGGER.warn("Restaurant not found: {}", restaurantName);
+                pending.forEach(update -> update.result.complete(ResponseEntity.badRequest().body("Restaurant not found")));
+                return;
+            }
+
+            // Apply the updates in arrival order so the last price submitted for an item wins
+            List<PendingUpdate> applied = new ArrayList<>();
+            for (PendingUpdate update : pending) {
+                boolean itemFound = false;
+                for (Menu menu : existingRestaurant.getMenuList().getItems()) {
+                    if (menu.getItemName().equals(update.menuItemName)) {
+                        menu.setPrice(update.newPrice);
+                        itemFound = true;
+                    }
+                }
+                if (itemFound) {
+                    applied.add(update);
+                } else {
+                    LOGGER.warn("Menu item not found: {} in restaurant: {}", update.menuItemName, restaurantName);
+                    update.result.complete(ResponseEntity.badRequest().body("Menu item " + update.menuItemName + " under restaurant " + restaurantName + " is not found"));
+                }
+            }
+
+            if (applied.isEmpty()) {
+                return;
+            }
+
+            existingRestaurant.setUpdatedAt(String.valueOf(LocalDateTime.now()));
+
+            PriceUpdateCommand priceUpdateCommand = RestaurantMapper.toPriceUpdateCommand(existingRestaurant);
+            // The versioned save below writes the loaded version + 1 (1 if the restaurant has none yet)
+            priceUpdateCommand.setVersion(existingRestaurant.getVersion() == null ? 1L : existingRestaurant.getVersion() + 1);
+
+            OutboxEvent outboxEvent = OutboxEvent.of(restaurantName, RestaurantEvents.EXCHANGE, RestaurantEvents.PRICE_CHANGED,
+                    messageCodec.getContentType(), messageCodec.encode(priceUpdateCommand));
+            try {
+                restaurantRepository.saveRestaurant(existingRestaurant, outboxEvent);
+            } catch (ConditionalCheckFailedException e) {
+                // Another replica updated the restaurant first; apply the batch on top of its update
+                if (attempt >= RestaurantRepository.MAX_SAVE_ATTEMPTS) {
+                    LOGGER.warn("Giving up on {} price updates for restaurant: {} after {} concurrent updates", applied.size(), restaurantName, attempt);
+                    applied.forEach(update -> update.result.complete(ResponseEntity.status(409).body("Restaurant was updated concurrently, please retry")));
+                    return;
+                }
+                existingRestaurant = restaurantRepository.getLatestRestaurantByRestaurantName(restaurantName);
+                pending = applied;
+                continue;
+            }
+
+            LOGGER.info("Price updated successfully for {} items in restaurant: {}", applied.size(), restaurantName);
+            applied.forEach(update -> update.result.complete(ResponseEntity.ok("Price updated successfully")));
+            return;
+        }
+    }
+
+    private static class PendingUpdate {
+        private final String menuItemName;
+        private final String newPrice;
+        private final CompletableFuture<ResponseEntity<String>> result = new CompletableFuture<>();
+
+        private PendingUpdate(String menuItemName, String newPrice) {
+            this.menuItemName = menuItemName;
+            this.newPrice = newPrice;
+        }
+    }
+
+    private static class PendingBatch {
+        private final long firstSubmittedAt;
+        private final List<PendingUpdate> updates = new ArrayList<>();
+        private ScheduledFuture<?> flushTask;
+
+        private PendingBatch(long firstSubmittedAt) {
+            this.firstSubmittedAt = firstSubmittedAt;
+        }
+    }
+}
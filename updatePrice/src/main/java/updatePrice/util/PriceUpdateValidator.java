@@ -0,0 +1,62 @@
+package updatePrice.util;
+
+import model.Menu;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.regex.Pattern;
+
+/**
+ * Validation rules for a price update, shared by the direct and the coalesced update paths.
+ */
+public class PriceUpdateValidator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PriceUpdateValidator.class);
+
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("\\d+(\\.\\d+)?");
+
+    private PriceUpdateValidator() {
+    }
+
+    /**
+     * Validates the item name and the new price of a price update.
+     *
+     * @param restaurantName The name of the restaurant.
+     * @param menuItemName   The name of the menu item.
+     * @param newPrice       The new price of the menu item.
+     * @return The error message, or null if the update is valid.
+     */
+    public static String validate(String restaurantName, String menuItemName, String newPrice) {
+        if (!isValidValue(menuItemName)) {
+            LOGGER.warn("Invalid item name: {}", menuItemName);
+            return "Item name " + menuItemName + " is invalid";
+        }
+
+        if (newPrice == null || !NUMBER_PATTERN.matcher(newPrice).matches()) {
+            LOGGER.warn("Non-numeric price: {} for item: {} in restaurant: {}", newPrice, menuItemName, restaurantName);
+            return "Price " + newPrice + " of item " + menuItemName + " under restaurant " + restaurantName + " is non-numeric";
+        }
+
+        double price = Double.parseDouble(newPrice);
+        if (price < 100 || price > 200) {
+            LOGGER.warn("Invalid price range: {} for item: {} in restaurant: {}", newPrice, menuItemName, restaurantName);
+            return "Price " + newPrice + " of item " + menuItemName + " under restaurant " + restaurantName + " is outside allowed range 100-200";
+        }
+        return null;
+    }
+
+    /**
+     * Checks if the given value is a valid item name.
+     *
+     * @param value the value to check
+     * @return true if the value is a valid item name, false otherwise
+     */
+    public static boolean isValidValue(String value) {
+        for (Menu.ItemName itemName : Menu.ItemName.values()) {
+            if (itemName.getValue().equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,19 +1,20 @@
 package updatePrice.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import updatePrice.model.Menu;
-import updatePrice.model.MenuList;
+import model.Menu;
+import model.MenuList;
+import outbox.OutboxEvent;
 import updatePrice.model.PriceUpdateRequest;
-import updatePrice.model.Restaurant;
+import model.Restaurant;
 import updatePrice.repository.RestaurantRepository;
+import model.codec.MessageCodec;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -27,10 +28,7 @@ class UpdatePriceControllerTest {
     private RestaurantRepository restaurantRepository;
 
     @Mock
-    private ObjectMapper objectMapper;
-
-    @Mock
-    private RabbitTemplate rabbitTemplate;
+    private MessageCodec messageCodec;
 
     @InjectMocks
     private UpdatePriceController updatePriceController;
@@ -38,9 +36,9 @@ class UpdatePriceControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        updatePriceController = new UpdatePriceController(rabbitTemplate);
+        updatePriceController = new UpdatePriceController();
         updatePriceController.setRestaurantRepository(restaurantRepository);
-        updatePriceController.setObjectMapper(objectMapper);
+        updatePriceController.setMessageCodec(messageCodec);
     }
 
     @Test
@@ -66,7 +64,7 @@ class UpdatePriceControllerTest {
         existingRestaurant.setMenuList(menuList);
 
         when(restaurantRepository.getRestaurantByRestaurantName(restaurantName)).thenReturn(existingRestaurant);
-        when(objectMapper.writeValueAsString(any())).thenReturn("json");
+        when(messageCodec.encode(any())).thenReturn(new byte[]{1});
 
         // Act
         ResponseEntity<String> responseEntity = updatePriceController.updatePrice(restaurantName, priceUpdateRequest);
@@ -76,7 +74,8 @@ class UpdatePriceControllerTest {
         assertEquals("Price updated successfully", responseEntity.getBody());
         assertEquals(newPrice, items.get(0).getPrice());
         verify(restaurantRepository, times(1)).getRestaurantByRestaurantName(restaurantName);
-        verify(restaurantRepository, times(1)).saveRestaurant(existingRestaurant);
+        verify(restaurantRepository, times(1)).saveRestaurant(eq(existingRestaurant),
+                argThat(event -> "restaurant.events".equals(event.getExchange()) && "price.changed".equals(event.getRoutingKey()) && restaurantName.equals(event.getRestaurantName())));
     }
 
     @Test
@@ -94,7 +93,7 @@ class UpdatePriceControllerTest {
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("Price " + newPrice + " of item " + menuItemName + " under restaurant " + restaurantName + " is non-numeric", response.getBody());
-        verify(restaurantRepository, never()).saveRestaurant(any(Restaurant.class));
+        verify(restaurantRepository, never()).saveRestaurant(any(Restaurant.class), any(OutboxEvent.class));
     }
 
     @Test
@@ -112,7 +111,7 @@ class UpdatePriceControllerTest {
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("Price " + newPrice + " of item " + menuItemName + " under restaurant " + restaurantName + " is outside allowed range 100-200", response.getBody());
-        verify(restaurantRepository, never()).saveRestaurant(any(Restaurant.class));
+        verify(restaurantRepository, never()).saveRestaurant(any(Restaurant.class), any(OutboxEvent.class));
     }
 
     @Test
@@ -129,7 +128,7 @@ class UpdatePriceControllerTest {
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("Restaurant not found", response.getBody());
-        verify(restaurantRepository, never()).saveRestaurant(any(Restaurant.class));
+        verify(restaurantRepository, never()).saveRestaurant(any(Restaurant.class), any(OutboxEvent.class));
     }
 
     private Restaurant createRestaurantWithMenuItems() {
@@ -146,4 +145,58 @@ class UpdatePriceControllerTest {
         restaurant.setMenuList(menuList);
         return restaurant;
     }
+
+    @Test
+    void updatePrice_ConcurrentUpdatesKeepWinning_ReturnsConflict() throws Exception {
+        // Arrange
+        PriceUpdateRequest priceUpdateRequest = new PriceUpdateRequest();
+        priceUpdateRequest.setMenuItemName("Pizza");
+        priceUpdateRequest.setNewPrice("150.00");
+        when(restaurantRepository.getRestaurantByRestaurantName("Restaurant A")).thenReturn(restaurantWithPizza());
+        when(restaurantRepository.getLatestRestaurantByRestaurantName("Restaurant A")).thenAnswer(invocation -> restaurantWithPizza());
+        when(restaurantRepository.saveRestaurant(any(Restaurant.class), any(OutboxEvent.class)))
+                .thenThrow(new ConditionalCheckFailedException("Restaurant was updated concurrently"));
+        when(messageCodec.encode(any())).thenReturn(new byte[]{1});
+
+        // Act
+        ResponseEntity<String> responseEntity = updatePriceController.updatePrice("Restaurant A", priceUpdateRequest);
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, responseEntity.getStatusCode());
+        verify(restaurantRepository, times(RestaurantRepository.MAX_SAVE_ATTEMPTS)).saveRestaurant(any(Restaurant.class), any(OutboxEvent.class));
+        verify(restaurantRepository, times(RestaurantRepository.MAX_SAVE_ATTEMPTS - 1)).getLatestRestaurantByRestaurantName("Restaurant A");
+    }
+
+    @Test
+    void updatePrice_ConcurrentUpdateWinsOnce_SavesOnLatestCopy() throws Exception {
+        // Arrange
+        PriceUpdateRequest priceUpdateRequest = new PriceUpdateRequest();
+        priceUpdateRequest.setMenuItemName("Pizza");
+        priceUpdateRequest.setNewPrice("150.00");
+        Restaurant loaded = restaurantWithPizza();
+        Restaurant latest = restaurantWithPizza();
+        latest.setVersion(2L);
+        when(restaurantRepository.getRestaurantByRestaurantName("Restaurant A")).thenReturn(loaded);
+        when(restaurantRepository.getLatestRestaurantByRestaurantName("Restaurant A")).thenReturn(latest);
+        when(restaurantRepository.saveRestaurant(eq(loaded), any(OutboxEvent.class)))
+                .thenThrow(new ConditionalCheckFailedException("Restaurant was updated concurrently"));
+        when(messageCodec.encode(any())).thenReturn(new byte[]{1});
+
+        // Act
+        ResponseEntity<String> responseEntity = updatePriceController.updatePrice("Restaurant A", priceUpdateRequest);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals("150.00", latest.getMenuList().getItems().get(0).getPrice());
+        verify(restaurantRepository, times(1)).saveRestaurant(eq(latest), any(OutboxEvent.class));
+    }
+
+    private static Restaurant restaurantWithPizza() {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantName("Restaurant A");
+        List<Menu> items = new ArrayList<>();
+        items.add(new Menu("Pizza", "9.0", "100.00"));
+        restaurant.setMenuList(new MenuList(items));
+        return restaurant;
+    }
 }
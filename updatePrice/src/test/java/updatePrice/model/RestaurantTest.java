@@ -1,5 +1,8 @@
 package updatePrice.model;
 
+import model.Menu;
+import model.MenuList;
+import model.Restaurant;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
@@ -1,18 +1,25 @@
 package updatePrice.repository;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.datamodeling.TransactionWriteRequest;
+import com.amazonaws.services.dynamodbv2.model.CancellationReason;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.TransactionCanceledException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import updatePrice.model.Menu;
-import updatePrice.model.MenuList;
-import updatePrice.model.Restaurant;
+import model.Menu;
+import model.MenuList;
+import model.Restaurant;
+import outbox.OutboxEvent;
 
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 class RestaurantRepositoryTest {
@@ -105,4 +112,49 @@ class RestaurantRepositoryTest {
         // Verify that the retrieved restaurant is the same as the mock restaurant
         assertEquals(mockRestaurant, retrievedRestaurant);
     }
+
+    @Test
+    void saveRestaurant_VersionCheckFails_ThrowsConditionalCheckFailed() {
+        // Arrange
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantName("Test Restaurant");
+        TransactionCanceledException cancelled = new TransactionCanceledException("Transaction cancelled");
+        cancelled.setCancellationReasons(List.of(new CancellationReason().withCode("ConditionalCheckFailed"),
+                new CancellationReason().withCode("None")));
+        doThrow(cancelled).when(dynamoDBMapper).transactionWrite(any(TransactionWriteRequest.class));
+
+        // Act & Assert
+        assertThrows(ConditionalCheckFailedException.class,
+                () -> restaurantRepository.saveRestaurant(restaurant, OutboxEvent.of("Test Restaurant", "restaurant.events", "price.changed", "application/json", new byte[]{1})));
+    }
+
+    @Test
+    void saveRestaurant_CancelledForOtherReason_Rethrows() {
+        // Arrange
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantName("Test Restaurant");
+        TransactionCanceledException cancelled = new TransactionCanceledException("Transaction cancelled");
+        cancelled.setCancellationReasons(List.of(new CancellationReason().withCode("TransactionConflict"),
+                new CancellationReason().withCode("None")));
+        doThrow(cancelled).when(dynamoDBMapper).transactionWrite(any(TransactionWriteRequest.class));
+
+        // Act & Assert
+        assertThrows(TransactionCanceledException.class,
+                () -> restaurantRepository.saveRestaurant(restaurant, OutboxEvent.of("Test Restaurant", "restaurant.events", "price.changed", "application/json", new byte[]{1})));
+    }
+
+    @Test
+    void getLatestRestaurantByRestaurantName_LoadsWithConsistentRead() {
+        // Arrange
+        Restaurant restaurant = new Restaurant();
+        when(dynamoDBMapper.load(eq(Restaurant.class), eq("Test Restaurant"), any(DynamoDBMapperConfig.class))).thenReturn(restaurant);
+
+        // Act
+        Restaurant retrieved = restaurantRepository.getLatestRestaurantByRestaurantName("Test Restaurant");
+
+        // Assert
+        assertEquals(restaurant, retrieved);
+        verify(dynamoDBMapper).load(eq(Restaurant.class), eq("Test Restaurant"),
+                argThat((DynamoDBMapperConfig config) -> config.getConsistentReads() == DynamoDBMapperConfig.ConsistentReads.CONSISTENT));
+    }
 }
@@ -0,0 +1,201 @@
+package updatePrice.service;
+
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import model.Menu;
+import model.MenuList;
+import outbox.OutboxEvent;
+import model.Restaurant;
+import updatePrice.repository.RestaurantRepository;
+import model.codec.MessageCodec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class PriceUpdateCoalescerTest {
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    @Mock
+    private MessageCodec messageCodec;
+
+    private PriceUpdateCoalescer priceUpdateCoalescer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        priceUpdateCoalescer = new PriceUpdateCoalescer(restaurantRepository, messageCodec, 50, 500);
+        when(messageCodec.encode(any())).thenReturn(new byte[]{1});
+    }
+
+    @AfterEach
+    void tearDown() {
+        priceUpdateCoalescer.stop();
+    }
+
+    @Test
+    void submit_BurstForSameRestaurant_SavesOnceWithOneEvent() {
+        // Arrange
+        Restaurant restaurant = createRestaurantWithMenuItems();
+        when(restaurantRepository.getRestaurantByRestaurantName("Restaurant1")).thenReturn(restaurant);
+
+        // Act
+        CompletableFuture<ResponseEntity<String>> first = priceUpdateCoalescer.submit("Restaurant1", "Pizza", "150");
+        CompletableFuture<ResponseEntity<String>> second = priceUpdateCoalescer.submit("Restaurant1", "Burger", "160");
+        CompletableFuture<ResponseEntity<String>> third = priceUpdateCoalescer.submit("Restaurant1", "Pizza", "170");
+
+        // Assert
+        assertEquals(HttpStatus.OK, first.join().getStatusCode());
+        assertEquals(HttpStatus.OK, second.join().getStatusCode());
+        assertEquals(HttpStatus.OK, third.join().getStatusCode());
+        assertEquals("170", restaurant.getMenuList().getItems().get(0).getPrice());
+        assertEquals("160", restaurant.getMenuList().getItems().get(1).getPrice());
+        verify(restaurantRepository, times(1)).getRestaurantByRestaurantName("Restaurant1");
+        verify(restaurantRepository, times(1)).saveRestaurant(eq(restaurant), any(OutboxEvent.class));
+    }
+
+    @Test
+    void submit_UnknownMenuItem_RejectsOnlyThatUpdate() {
+        // Arrange
+        Restaurant restaurant = createRestaurantWithMenuItems();
+        when(restaurantRepository.getRestaurantByRestaurantName("Restaurant1")).thenReturn(restaurant);
+
+        // Act
+        CompletableFuture<ResponseEntity<String>> valid = priceUpdateCoalescer.submit("Restaurant1", "Pizza", "150");
+        CompletableFuture<ResponseEntity<String>> unknown = priceUpdateCoalescer.submit("Restaurant1", "Naan", "150");
+
+        // Assert
+        assertEquals(HttpStatus.OK, valid.join().getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, unknown.join().getStatusCode());
+        assertEquals("Menu item Naan under restaurant Restaurant1 is not found", unknown.join().getBody());
+        verify(restaurantRepository, times(1)).saveRestaurant(eq(restaurant), any(OutboxEvent.class));
+    }
+
+    @Test
+    void submit_NonExistingRestaurant_ReturnsBadRequestWithoutSaving() {
+        // Arrange
+        when(restaurantRepository.getRestaurantByRestaurantName("Missing")).thenReturn(null);
+
+        // Act
+        ResponseEntity<String> response = priceUpdateCoalescer.submit("Missing", "Pizza", "150").join();
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Restaurant not found", response.getBody());
+        verify(restaurantRepository, never()).saveRestaurant(any(Restaurant.class), any(OutboxEvent.class));
+    }
+
+    @Test
+    void submit_SaveFails_ReturnsInternalServerError() {
+        // Arrange
+        Restaurant restaurant = createRestaurantWithMenuItems();
+        when(restaurantRepository.getRestaurantByRestaurantName("Restaurant1")).thenReturn(restaurant);
+        when(restaurantRepository.saveRestaurant(eq(restaurant), any(OutboxEvent.class))).thenThrow(RuntimeException.class);
+
+        // Act
+        ResponseEntity<String> response = priceUpdateCoalescer.submit("Restaurant1", "Pizza", "150").join();
+
+        // Assert
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("Internal Server Error", response.getBody());
+    }
+
+    @Test
+    void submit_ConcurrentUpdateWinsOnce_ReappliesOnLatestCopy() {
+        // Arrange
+        Restaurant loaded = createRestaurantWithMenuItems();
+        Restaurant latest = createRestaurantWithMenuItems();
+        latest.setVersion(2L);
+        when(restaurantRepository.getRestaurantByRestaurantName("Restaurant1")).thenReturn(loaded);
+        when(restaurantRepository.getLatestRestaurantByRestaurantName("Restaurant1")).thenReturn(latest);
+        when(restaurantRepository.saveRestaurant(eq(loaded), any(OutboxEvent.class)))
+                .thenThrow(new ConditionalCheckFailedException("Restaurant was updated concurrently"));
+
+        // Act
+        ResponseEntity<String> response = priceUpdateCoalescer.submit("Restaurant1", "Pizza", "150").join();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("150", latest.getMenuList().getItems().get(0).getPrice());
+        verify(restaurantRepository, times(1)).saveRestaurant(eq(latest), any(OutboxEvent.class));
+    }
+
+    @Test
+    void submit_ConcurrentUpdatesKeepWinning_ReturnsConflict() {
+        // Arrange
+        when(restaurantRepository.getRestaurantByRestaurantName("Restaurant1")).thenReturn(createRestaurantWithMenuItems());
+        when(restaurantRepository.getLatestRestaurantByRestaurantName("Restaurant1")).thenAnswer(invocation -> createRestaurantWithMenuItems());
+        when(restaurantRepository.saveRestaurant(any(Restaurant.class), any(OutboxEvent.class)))
+                .thenThrow(new ConditionalCheckFailedException("Restaurant was updated concurrently"));
+
+        // Act
+        ResponseEntity<String> response = priceUpdateCoalescer.submit("Restaurant1", "Pizza", "150").join();
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(restaurantRepository, times(RestaurantRepository.MAX_SAVE_ATTEMPTS)).saveRestaurant(any(Restaurant.class), any(OutboxEvent.class));
+    }
+
+    @Test
+    void stop_PendingBatch_AnswersServiceUnavailableWithoutSaving() {
+        // Arrange
+        PriceUpdateCoalescer slowCoalescer = new PriceUpdateCoalescer(restaurantRepository, messageCodec, 10_000, 10_000);
+        CompletableFuture<ResponseEntity<String>> pendingUpdate = slowCoalescer.submit("Restaurant1", "Pizza", "150");
+
+        // Act
+        slowCoalescer.stop();
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, pendingUpdate.join().getStatusCode());
+        verify(restaurantRepository, never()).saveRestaurant(any(Restaurant.class), any(OutboxEvent.class));
+    }
+
+    @Test
+    void submit_AfterStop_AnswersServiceUnavailable() {
+        // Arrange
+        priceUpdateCoalescer.stop();
+
+        // Act
+        ResponseEntity<String> response = priceUpdateCoalescer.submit("Restaurant1", "Pizza", "150").join();
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        verify(restaurantRepository, never()).getRestaurantByRestaurantName(anyString());
+    }
+
+    @Test
+    void submit_BatchNotFlushedWithinResponseTimeout_AnswersServiceUnavailable() {
+        // Arrange
+        PriceUpdateCoalescer slowCoalescer = new PriceUpdateCoalescer(restaurantRepository, messageCodec, 10_000, 10_000);
+        slowCoalescer.setResponseTimeoutMs(50);
+
+        // Act
+        ResponseEntity<String> response = slowCoalescer.submit("Restaurant1", "Pizza", "150").join();
+        slowCoalescer.stop();
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    }
+
+    private Restaurant createRestaurantWithMenuItems() {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantName("Restaurant1");
+
+        List<Menu> menuItems = new ArrayList<>();
+        menuItems.add(new Menu("Pizza", "9.3", "120.00"));
+        menuItems.add(new Menu("Burger", "9.5", "110.00"));
+        restaurant.setMenuList(new MenuList(menuItems));
+        return restaurant;
+    }
+}